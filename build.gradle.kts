@@ -2,9 +2,10 @@ plugins {
     java
     application
     id("xyz.jpenilla.run-paper") version "2.3.1"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
-application.mainClass = "top.modpotato.Main"
+application.mainClass = "top.modpotato.restoration.offline.OfflineRestoreTool"
 
 group = project.property("group").toString()
 version = project.property("version").toString()
@@ -27,10 +28,23 @@ dependencies {
     // compileOnly("dev.folia:folia-api:${project.property("foliaVersion")}")
     
     compileOnly("net.kyori:adventure-api:${project.property("adventureVersion")}")
+    
+    // Benchmarks run without a server, so they need the API classes at runtime
+    jmh("io.papermc.paper:paper-api:${project.property("paperVersion")}")
+}
+
+jmh {
+    warmupIterations = 3
+    iterations = 5
+    fork = 1
 }
 
 tasks {
     jar {
+        // Lets the jar double as the offline restoration tool: java -jar AntiNetherite.jar
+        manifest {
+            attributes("Main-Class" to application.mainClass.get())
+        }
         from("LICENSE") {
             rename { "${it}_${project.name}" }
         }
@@ -0,0 +1,64 @@
+package top.modpotato.detection;
+
+import top.modpotato.config.Config;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Detection settings for benchmarks, matching the defaults in config.yml without loading a plugin
+ */
+final class BenchmarkConfig extends Config {
+    static final List<String> DEFAULT_ITEMS = List.of(
+        "NETHERITE_SWORD", "NETHERITE_PICKAXE", "NETHERITE_AXE", "NETHERITE_SHOVEL", "NETHERITE_HOE",
+        "NETHERITE_HELMET", "NETHERITE_CHESTPLATE", "NETHERITE_LEGGINGS", "NETHERITE_BOOTS",
+        "NETHERITE_BLOCK", "NETHERITE_INGOT", "NETHERITE_SCRAP", "ANCIENT_DEBRIS"
+    );
+
+    private final boolean useNameMatching;
+
+    BenchmarkConfig(boolean useNameMatching) {
+        super(null);
+        this.useNameMatching = useNameMatching;
+    }
+
+    @Override
+    public void reload() {
+        // Nothing to load; every setting comes from the getters below
+    }
+
+    @Override
+    public boolean isUseNameMatching() {
+        return useNameMatching;
+    }
+
+    @Override
+    public List<String> getNetheriteItemsList() {
+        return DEFAULT_ITEMS;
+    }
+
+    @Override
+    public List<String> getNamePatterns() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isMatchLore() {
+        return false;
+    }
+
+    @Override
+    public int getContainerDepth() {
+        return 2;
+    }
+
+    @Override
+    public int getVerdictCacheSize() {
+        return 4096;
+    }
+
+    @Override
+    public List<DetectionRule> getDetectionRules() {
+        return Collections.emptyList();
+    }
+}
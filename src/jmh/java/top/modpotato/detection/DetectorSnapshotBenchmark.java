@@ -0,0 +1,124 @@
+package top.modpotato.detection;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of deciding meta-less items: the compiled ordinal table against the set lookup and type-name scan it replaced
+ * The items are a fixed shuffle of every non-legacy material, so most of them miss like a typical inventory does.
+ * Items with meta aren't covered, since their cost is dominated by the server's {@code getItemMeta()} copy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DetectorSnapshotBenchmark {
+    private static final int ITEMS = 1024;
+
+    @Param({"true", "false"})
+    public boolean useNameMatching;
+
+    private DetectorSnapshot snapshot;
+    private ItemStack[] items;
+
+    // The detector as it was before the ordinal table
+    private Set<String> baselineNames;
+    private Set<Material> baselineMaterials;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkConfig config = new BenchmarkConfig(useNameMatching);
+        snapshot = DetectorSnapshot.compile(config, 1L, new VerdictCache(config.getVerdictCacheSize()));
+
+        baselineNames = new HashSet<>(config.getNetheriteItemsList());
+        baselineMaterials = new HashSet<>();
+        for (String name : baselineNames) {
+            baselineMaterials.add(Material.valueOf(name));
+        }
+        if (useNameMatching) {
+            for (Material material : Material.values()) {
+                if (material.name().contains("NETHERITE")) {
+                    baselineMaterials.add(material);
+                    baselineNames.add(material.name());
+                }
+            }
+        }
+
+        List<Material> materials = new ArrayList<>();
+        for (Material material : Material.values()) {
+            if (!material.name().startsWith("LEGACY_")) {
+                materials.add(material);
+            }
+        }
+        SplittableRandom random = new SplittableRandom(42L);
+        items = new ItemStack[ITEMS];
+        for (int i = 0; i < ITEMS; i++) {
+            items[i] = new MetaLessItem(materials.get(random.nextInt(materials.size())));
+        }
+    }
+
+    /**
+     * Decides every item with the compiled snapshot; the score is per item
+     */
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public int snapshot() {
+        int matches = 0;
+        for (ItemStack item : items) {
+            if (snapshot.isNetheriteItem(item)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Decides every item the way the detector did before the ordinal table; the score is per item
+     */
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public int baseline() {
+        int matches = 0;
+        for (ItemStack item : items) {
+            if (baselineIsNetheriteItem(item)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private boolean baselineIsNetheriteItem(ItemStack item) {
+        if (baselineMaterials.contains(item.getType())) {
+            return true;
+        }
+        if (!useNameMatching) {
+            return false;
+        }
+
+        String itemTypeName = item.getType().name();
+        for (String netheriteItemName : baselineNames) {
+            if (itemTypeName.contains(netheriteItemName)) {
+                return true;
+            }
+        }
+
+        // The display name check needs meta, which these items don't have
+        return false;
+    }
+}
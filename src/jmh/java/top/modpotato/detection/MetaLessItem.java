@@ -0,0 +1,30 @@
+package top.modpotato.detection;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * Item stack with a material and no meta, standing in for a server item where benchmarks have no server to make one
+ */
+final class MetaLessItem extends ItemStack {
+    private final Material type;
+
+    MetaLessItem(Material type) {
+        this.type = type;
+    }
+
+    @Override
+    public Material getType() {
+        return type;
+    }
+
+    @Override
+    public int getAmount() {
+        return 1;
+    }
+
+    @Override
+    public boolean hasItemMeta() {
+        return false;
+    }
+}
@@ -0,0 +1,83 @@
+package top.modpotato.util;
+
+import org.bukkit.Material;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Chunk scan throughput of {@link BlockScanner} against the pool's parallelism
+ * Scans full-height overworld chunks (Y -64 to 320) of stone with 0.1% Ancient Debris, once one chunk at a time
+ * and once as a batch submitted together like the chunk scan queue does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BlockScannerBenchmark {
+    private static final int MIN_Y = -64;
+    private static final int MAX_Y = 320;
+    private static final int BATCH = 64;
+    private static final Predicate<Material> IS_DEBRIS = material -> material == Material.ANCIENT_DEBRIS;
+
+    /**
+     * Scanner threads; 0 uses every core
+     */
+    @Param({"1", "2", "4", "0"})
+    public int threads;
+
+    private BlockScanner scanner;
+    private SyntheticChunkSnapshot[] snapshots;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        scanner = new BlockScanner(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        snapshots = new SyntheticChunkSnapshot[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            snapshots[i] = new SyntheticChunkSnapshot(i % 8, i / 8, MIN_Y, MAX_Y, 0.001, 42L + i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scanner.shutdown();
+    }
+
+    /**
+     * Scans one chunk, so only the per-section split can use more than one thread
+     */
+    @Benchmark
+    public long[] scanOneChunk() {
+        return scanner.scan(snapshots[0], MIN_Y, MAX_Y, IS_DEBRIS).join();
+    }
+
+    /**
+     * Scans a batch of chunks submitted together; the score is in chunks per second
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int scanBatch() {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<long[]>[] futures = new CompletableFuture[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            futures[i] = scanner.scan(snapshots[i], MIN_Y, MAX_Y, IS_DEBRIS);
+        }
+
+        int hits = 0;
+        for (CompletableFuture<long[]> future : futures) {
+            hits += future.join().length;
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,130 @@
+package top.modpotato.util;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.block.Biome;
+import org.bukkit.block.data.BlockData;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chunk snapshot over a fixed array of block types, for benchmarks that can't take a snapshot from a live world
+ * Only the coordinates and {@link #getBlockType(int, int, int)} are backed; everything else the scanner doesn't use throws.
+ */
+final class SyntheticChunkSnapshot implements ChunkSnapshot {
+    private final int chunkX;
+    private final int chunkZ;
+    private final int minY;
+    private final int maxY;
+    private final Material[] blocks;
+
+    /**
+     * Creates a snapshot of stone with Ancient Debris scattered through it
+     * @param chunkX The chunk X
+     * @param chunkZ The chunk Z
+     * @param minY The lowest Y level (inclusive)
+     * @param maxY The highest Y level (exclusive)
+     * @param debrisChance The chance of each block being Ancient Debris
+     * @param seed The random seed, so every run scans the same blocks
+     */
+    SyntheticChunkSnapshot(int chunkX, int chunkZ, int minY, int maxY, double debrisChance, long seed) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.minY = minY;
+        this.maxY = maxY;
+        this.blocks = new Material[(maxY - minY) * 256];
+
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = random.nextDouble() < debrisChance ? Material.ANCIENT_DEBRIS : Material.STONE;
+        }
+    }
+
+    @Override
+    public int getX() {
+        return chunkX;
+    }
+
+    @Override
+    public int getZ() {
+        return chunkZ;
+    }
+
+    @Override
+    public String getWorldName() {
+        return "benchmark";
+    }
+
+    @Override
+    public Material getBlockType(int x, int y, int z) {
+        if (y < minY || y >= maxY) {
+            return Material.AIR;
+        }
+        return blocks[((y - minY) << 8) | (z << 4) | x];
+    }
+
+    @Override
+    public BlockData getBlockData(int x, int y, int z) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getData(int x, int y, int z) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getBlockSkyLight(int x, int y, int z) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getBlockEmittedLight(int x, int y, int z) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getHighestBlockYAt(int x, int z) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Biome getBiome(int x, int z) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Biome getBiome(int x, int y, int z) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public double getRawBiomeTemperature(int x, int z) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public double getRawBiomeTemperature(int x, int y, int z) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long getCaptureFullTime() {
+        return 0L;
+    }
+
+    @Override
+    public boolean isSectionEmpty(int sy) {
+        return false;
+    }
+
+    @Override
+    public boolean contains(BlockData block) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean contains(Biome biome) {
+        throw new UnsupportedOperationException();
+    }
+}
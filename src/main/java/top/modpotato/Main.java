@@ -1,22 +1,60 @@
 package top.modpotato;
 
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.HandlerList;
+import org.bukkit.event.block.BlockDamageEvent;
+import org.bukkit.event.block.BlockDispenseArmorEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.entity.ItemSpawnEvent;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.entity.VillagerAcquireTradeEvent;
+import org.bukkit.event.entity.VillagerReplenishTradeEvent;
+import org.bukkit.event.inventory.CraftItemEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.event.inventory.InventoryOpenEvent;
+import org.bukkit.event.inventory.PrepareSmithingEvent;
+import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.LootGenerateEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
 
 import top.modpotato.listeners.AttackListener;
 import top.modpotato.listeners.CraftListener;
 import top.modpotato.listeners.DropListener;
+import top.modpotato.listeners.EntitySweepListener;
 import top.modpotato.listeners.EquipListener;
+import top.modpotato.listeners.ExemptionListener;
+import top.modpotato.listeners.InventoryDirtyListener;
 import top.modpotato.listeners.InventoryMoveListener;
 import top.modpotato.listeners.MiningListener;
 import top.modpotato.listeners.PickupListener;
+import top.modpotato.listeners.SourceListener;
 import top.modpotato.listeners.ContainerTransferListener;
+import top.modpotato.audit.ContainerAudit;
 import top.modpotato.commands.AntiNetheriteCommand;
 import top.modpotato.config.Config;
+import top.modpotato.dispatch.EventPipeline;
+import top.modpotato.policy.PolicyEnforcer;
+import top.modpotato.policy.WorldPolicies;
 import top.modpotato.restoration.RestorationProgressTracker;
+import top.modpotato.scheduler.ChunkScanQueue;
 import top.modpotato.scheduler.NetheriteRemover;
+import top.modpotato.util.BlockScanner;
 import top.modpotato.util.DebrisStorage;
+import top.modpotato.util.HopperBackoff;
+import top.modpotato.util.IgnoredPlayers;
 import top.modpotato.util.NetheriteDetector;
+import top.modpotato.util.PlayerExemptions;
+import top.modpotato.util.WorldScanBounds;
 
 /**
  * Main plugin class for AntiNetherite
@@ -24,18 +62,23 @@ import top.modpotato.util.NetheriteDetector;
 public class Main extends JavaPlugin {
     private Config config;
     private NetheriteRemover netheriteRemover;
+    private ChunkScanQueue chunkScanQueue;
+    private BlockScanner blockScanner;
+    private WorldScanBounds worldScanBounds;
     private NetheriteDetector netheriteDetector;
+    private WorldPolicies worldPolicies;
+    private IgnoredPlayers ignoredPlayers;
+    private PlayerExemptions playerExemptions;
+    private PolicyEnforcer policyEnforcer;
+    private HopperBackoff hopperBackoff;
+    private ContainerAudit containerAudit;
     private DebrisStorage debrisStorage;
     private RestorationProgressTracker restorationProgressTracker;
     
-    private CraftListener craftListener;
-    private EquipListener equipListener;
-    private AttackListener attackListener;
-    private PickupListener pickupListener;
-    private DropListener dropListener;
-    private InventoryMoveListener inventoryMoveListener;
+    private EventPipeline eventPipeline;
     private MiningListener miningListener;
-    private ContainerTransferListener containerTransferListener;
+    private InventoryDirtyListener inventoryDirtyListener;
+    private ExemptionListener exemptionListener;
     private boolean isFolia;
     
     // Track if the plugin is shutting down to prevent unnecessary operations
@@ -52,8 +95,23 @@ public class Main extends JavaPlugin {
             // Initialize Netherite detector
             netheriteDetector = new NetheriteDetector(config);
             
+            // Initialize the per-world policy table
+            worldPolicies = new WorldPolicies(config, netheriteDetector, getLogger());
+            
+            // Initialize the player exemption cache
+            ignoredPlayers = new IgnoredPlayers(this);
+            ignoredPlayers.start();
+            playerExemptions = new PlayerExemptions(config, ignoredPlayers);
+            policyEnforcer = new PolicyEnforcer(worldPolicies, playerExemptions);
+            
+            // Initialize the hopper backoff tracker
+            hopperBackoff = new HopperBackoff(this, config);
+            
+            // Initialize the shared block scanner
+            blockScanner = new BlockScanner(config.getScannerThreads());
+            
             // Initialize debris storage
-            debrisStorage = new DebrisStorage(this, config);
+            debrisStorage = new DebrisStorage(this, config, blockScanner);
             
             // Initialize restoration progress tracker
             restorationProgressTracker = new RestorationProgressTracker(this);
@@ -64,7 +122,14 @@ public class Main extends JavaPlugin {
             getLogger().info("Running on " + (isFolia ? "Folia" : "Bukkit") + " server");
             
             // Initialize netherite remover
-            netheriteRemover = new NetheriteRemover(this, isFolia, netheriteDetector, config);
+            netheriteRemover = new NetheriteRemover(this, isFolia, worldPolicies, config, playerExemptions);
+            
+            // Initialize the container audit runner
+            containerAudit = new ContainerAudit(this, isFolia, worldPolicies, config);
+            
+            // Initialize chunk scan queue and per-world scan bounds
+            chunkScanQueue = new ChunkScanQueue(this, isFolia, debrisStorage, config, blockScanner);
+            worldScanBounds = new WorldScanBounds(config);
             
             // Start tasks based on config
             if (config.isClearNetherite()) {
@@ -100,6 +165,11 @@ public class Main extends JavaPlugin {
                 netheriteRemover.stop();
             }
             
+            // Stop a running audit and write out its report
+            if (containerAudit != null) {
+                containerAudit.shutdown();
+            }
+            
             // Restore Ancient Debris if explicitly configured to do so
             if (miningListener != null && config.isRestoreDebrisOnDisable()) {
                 getLogger().info("Restoring Ancient Debris blocks...");
@@ -110,11 +180,21 @@ public class Main extends JavaPlugin {
             // Unregister listeners
             unregisterListeners();
             
+            // Stop the scanner threads
+            if (blockScanner != null) {
+                blockScanner.shutdown();
+            }
+            
             // Save debris storage
             if (debrisStorage != null) {
                 debrisStorage.saveStorage();
             }
             
+            // Save the ignored-player registry
+            if (ignoredPlayers != null) {
+                ignoredPlayers.stop();
+            }
+            
             getLogger().info("AntiNetherite has been disabled!");
         } catch (Exception e) {
             getLogger().severe("Error disabling AntiNetherite: " + e.getMessage());
@@ -127,48 +207,112 @@ public class Main extends JavaPlugin {
      */
     private void registerListeners() {
         try {
+            // Recompile the world profiles against the current detection policy
+            worldPolicies.rebuild();
+            
+            // Permissions may have changed while the listeners were down, so recompute exemptions lazily
+            playerExemptions.clear();
+            exemptionListener = new ExemptionListener(this, playerExemptions);
+            getServer().getPluginManager().registerEvents(exemptionListener, this);
+            
+            if (config.isClearNetherite()) {
+                inventoryDirtyListener = new InventoryDirtyListener(netheriteRemover);
+                getServer().getPluginManager().registerEvents(inventoryDirtyListener, this);
+            }
+            
+            // Compile the enforcement pipeline; disabled checks are simply left out
+            eventPipeline = new EventPipeline();
+            
             if (config.isCancelCraft()) {
-                craftListener = new CraftListener(netheriteDetector, config);
-                getServer().getPluginManager().registerEvents(craftListener, this);
+                CraftListener craftListener = new CraftListener(policyEnforcer, config);
+                eventPipeline.on(CraftItemEvent.class, craftListener::onCraftItem);
             }
     
             if (config.isCancelEquip()) {
-                equipListener = new EquipListener(netheriteDetector, config);
-                getServer().getPluginManager().registerEvents(equipListener, this);
+                EquipListener equipListener = new EquipListener(policyEnforcer, config);
+                eventPipeline.on(InventoryClickEvent.class, equipListener::onInventoryClick)
+                             .on(InventoryDragEvent.class, equipListener::onInventoryDrag)
+                             .on(PlayerInteractEvent.class, EventPipeline.ENFORCEMENT_PRIORITY, false, equipListener::onPlayerInteract)
+                             .on(BlockDispenseArmorEvent.class, equipListener::onBlockDispenseArmor);
             }
     
             if (config.isCancelAttack()) {
-                attackListener = new AttackListener(netheriteDetector, config);
-                getServer().getPluginManager().registerEvents(attackListener, this);
+                AttackListener attackListener = new AttackListener(policyEnforcer, config);
+                eventPipeline.on(EntityDamageByEntityEvent.class, attackListener::onAttack);
             }
             
             if (config.isCancelPickup()) {
-                pickupListener = new PickupListener(netheriteDetector, config);
-                getServer().getPluginManager().registerEvents(pickupListener, this);
+                PickupListener pickupListener = new PickupListener(policyEnforcer, config);
+                eventPipeline.on(EntityPickupItemEvent.class, pickupListener::onPickup);
             }
             
-            dropListener = new DropListener(config.isRemoveDropped(), netheriteDetector, config);
-            getServer().getPluginManager().registerEvents(dropListener, this);
+            if (config.isRemoveDropped()) {
+                DropListener dropListener = new DropListener(worldPolicies, config, playerExemptions);
+                eventPipeline.on(PlayerDropItemEvent.class, dropListener::onDrop);
+            }
             
             if (config.isCancelInventoryMove()) {
-                inventoryMoveListener = new InventoryMoveListener(netheriteDetector, config);
-                getServer().getPluginManager().registerEvents(inventoryMoveListener, this);
+                InventoryMoveListener inventoryMoveListener = new InventoryMoveListener(policyEnforcer, config);
+                eventPipeline.on(InventoryClickEvent.class, inventoryMoveListener::onInventoryClick)
+                             .on(InventoryDragEvent.class, inventoryMoveListener::onInventoryDrag);
             }
 
             if (config.isCancelContainerTransfer()) {
-                containerTransferListener = new ContainerTransferListener(netheriteDetector, config);
-                getServer().getPluginManager().registerEvents(containerTransferListener, this);
+                ContainerTransferListener containerTransferListener = new ContainerTransferListener(worldPolicies, config, hopperBackoff, playerExemptions);
+                eventPipeline.on(InventoryMoveItemEvent.class, containerTransferListener::onInventoryMoveItem);
+            }
+            
+            // Entity cleanup deletes items, so it only runs in destructive mode
+            if (config.isSweepEntities() && config.isEnableDestructiveActions()) {
+                EntitySweepListener entitySweepListener = new EntitySweepListener(this, worldPolicies, playerExemptions);
+                eventPipeline.on(PlayerDeathEvent.class, EventPriority.HIGHEST, true, entitySweepListener::onPlayerDeath)
+                             .on(ItemSpawnEvent.class, entitySweepListener::onItemSpawn)
+                             .on(EntitiesLoadEvent.class, entitySweepListener::onEntitiesLoad);
             }
             
-            // Register mining listener if either ancient debris replacement option is enabled
+            // Block Netherite where it is created, so the inventory sweep has less to find
+            if (config.isCancelSmithing() || config.isFilterLoot() || config.isFilterTrades()) {
+                SourceListener sourceListener = new SourceListener(policyEnforcer);
+                if (config.isCancelSmithing()) {
+                    eventPipeline.on(PrepareSmithingEvent.class, sourceListener::onPrepareSmithing);
+                }
+                if (config.isFilterLoot()) {
+                    eventPipeline.on(LootGenerateEvent.class, sourceListener::onLootGenerate);
+                }
+                if (config.isFilterTrades()) {
+                    eventPipeline.on(VillagerAcquireTradeEvent.class, sourceListener::onVillagerAcquireTrade)
+                                 .on(VillagerReplenishTradeEvent.class, sourceListener::onVillagerReplenishTrade)
+                                 .on(InventoryOpenEvent.class, sourceListener::onInventoryOpen);
+                }
+            }
+            
+            // Register mining handlers if either ancient debris replacement option is enabled
             if (config.isReplaceWhenMined() || config.isReplaceOnChunkLoad()) {
                 miningListener = new MiningListener(debrisStorage, 
-                                                   config.isReplaceWhenMined(), 
-                                                   config.isReplaceOnChunkLoad(),
+                                                   chunkScanQueue,
+                                                   worldScanBounds,
+                                                   worldPolicies,
                                                    config.isOnlyReplaceGeneratedChunks(),
-                                                   config);
-                getServer().getPluginManager().registerEvents(miningListener, this);
+                                                   config,
+                                                   policyEnforcer);
+                
+                if (config.isReplaceWhenMined()) {
+                    eventPipeline.on(BlockDamageEvent.class, EventPriority.HIGHEST, true, miningListener::onBlockDamage)
+                                 .on(BlockExplodeEvent.class, miningListener::onBlockExplode)
+                                 .on(EntityExplodeEvent.class, miningListener::onEntityExplode);
+                }
+                
+                if (config.isReplaceOnChunkLoad()) {
+                    worldScanBounds.rebuild();
+                    chunkScanQueue.start();
+                    eventPipeline.on(ChunkLoadEvent.class, EventPriority.NORMAL, false, miningListener::onChunkLoad);
+                }
+                
+                eventPipeline.on(WorldLoadEvent.class, EventPriority.MONITOR, false, miningListener::onWorldLoad)
+                             .on(WorldUnloadEvent.class, EventPriority.MONITOR, true, miningListener::onWorldUnload);
             }
+            
+            eventPipeline.register(this);
         } catch (Exception e) {
             getLogger().severe("Error registering listeners: " + e.getMessage());
             e.printStackTrace();
@@ -180,44 +324,24 @@ public class Main extends JavaPlugin {
      */
     private void unregisterListeners() {
         try {
-            if (craftListener != null) {
-                HandlerList.unregisterAll(craftListener);
-                craftListener = null;
-            }
-    
-            if (equipListener != null) {
-                HandlerList.unregisterAll(equipListener);
-                equipListener = null;
-            }
-    
-            if (attackListener != null) {
-                HandlerList.unregisterAll(attackListener);
-                attackListener = null;
-            }
-            
-            if (pickupListener != null) {
-                HandlerList.unregisterAll(pickupListener);
-                pickupListener = null;
+            if (eventPipeline != null) {
+                eventPipeline.unregister();
+                eventPipeline = null;
             }
+            miningListener = null;
             
-            if (dropListener != null) {
-                HandlerList.unregisterAll(dropListener);
-                dropListener = null;
+            if (inventoryDirtyListener != null) {
+                HandlerList.unregisterAll(inventoryDirtyListener);
+                inventoryDirtyListener = null;
             }
             
-            if (inventoryMoveListener != null) {
-                HandlerList.unregisterAll(inventoryMoveListener);
-                inventoryMoveListener = null;
-            }
-
-            if (containerTransferListener != null) {
-                HandlerList.unregisterAll(containerTransferListener);
-                containerTransferListener = null;
+            if (exemptionListener != null) {
+                HandlerList.unregisterAll(exemptionListener);
+                exemptionListener = null;
             }
             
-            if (miningListener != null) {
-                HandlerList.unregisterAll(miningListener);
-                miningListener = null;
+            if (chunkScanQueue != null) {
+                chunkScanQueue.stop();
             }
         } catch (Exception e) {
             getLogger().severe("Error unregistering listeners: " + e.getMessage());
@@ -292,6 +416,9 @@ public class Main extends JavaPlugin {
             // Reload Netherite detector
             netheriteDetector.reloadNetheriteItems();
             
+            // Drop hopper strikes counted under the old backoff settings
+            hopperBackoff.clear();
+            
             // Stop tasks
             if (netheriteRemover != null) {
                 netheriteRemover.stop();
@@ -333,6 +460,70 @@ public class Main extends JavaPlugin {
         return netheriteDetector;
     }
     
+    /**
+     * Gets the per-world policy table
+     * @return The per-world policies
+     */
+    public WorldPolicies getWorldPolicies() {
+        return worldPolicies;
+    }
+    
+    /**
+     * Gets the ignored-player registry
+     * @return The ignored-player registry
+     */
+    public IgnoredPlayers getIgnoredPlayers() {
+        return ignoredPlayers;
+    }
+    
+    /**
+     * Gets the container audit runner
+     * @return The container audit runner
+     */
+    public ContainerAudit getContainerAudit() {
+        return containerAudit;
+    }
+    
+    /**
+     * Gets the hopper backoff tracker
+     * @return The hopper backoff tracker
+     */
+    public HopperBackoff getHopperBackoff() {
+        return hopperBackoff;
+    }
+    
+    /**
+     * Gets the Netherite remover
+     * @return The Netherite remover
+     */
+    public NetheriteRemover getNetheriteRemover() {
+        return netheriteRemover;
+    }
+    
+    /**
+     * Gets the chunk scan queue
+     * @return The chunk scan queue
+     */
+    public ChunkScanQueue getChunkScanQueue() {
+        return chunkScanQueue;
+    }
+    
+    /**
+     * Gets the per-world chunk scan bounds
+     * @return The world scan bounds
+     */
+    public WorldScanBounds getWorldScanBounds() {
+        return worldScanBounds;
+    }
+    
+    /**
+     * Gets the shared block scanner
+     * @return The block scanner
+     */
+    public BlockScanner getBlockScanner() {
+        return blockScanner;
+    }
+    
     /**
      * Gets the debris storage
      * @return The debris storage
@@ -0,0 +1,164 @@
+package top.modpotato.audit;
+
+import org.bukkit.Bukkit;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import top.modpotato.Main;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * CSV report of an audit, streamed to {@code audits/} in the plugin folder
+ * Region threads only queue lines; an async task creates the file and writes them out once a second, so the findings
+ * are never all held in memory and no file I/O happens on a tick thread.
+ */
+public class AuditReport {
+    private static final String HEADER = "world,x,y,z,container,slot,item,amount,reason,purged";
+
+    private final Main plugin;
+    private final File file;
+    private final Queue<String> lines = new ConcurrentLinkedQueue<>();
+    private final ScheduledTask flushTask;
+    private BufferedWriter writer;
+    private boolean failed = false;
+    private boolean closed = false;
+
+    private AuditReport(Main plugin, File file) {
+        this.plugin = plugin;
+        this.file = file;
+        this.flushTask = Bukkit.getAsyncScheduler().runAtFixedRate(plugin, task -> flush(), 0, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Starts a new report named after the current time
+     * The file is created by the writer task, so this does no I/O; if that fails, the error is logged and the
+     * findings are discarded.
+     * @param plugin The plugin instance
+     * @return The new report
+     */
+    public static AuditReport create(Main plugin) {
+        File folder = new File(plugin.getDataFolder(), "audits");
+        String name = "audit-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".csv";
+        return new AuditReport(plugin, new File(folder, name));
+    }
+
+    /**
+     * Queues a finding for the report
+     * @param world The world name
+     * @param x The container's X coordinate
+     * @param y The container's Y coordinate
+     * @param z The container's Z coordinate
+     * @param container The container's block type
+     * @param slot The slot the item was found in
+     * @param item The item's material
+     * @param amount The stack size
+     * @param reason The detection rule that matched, or "nested" for a container holding Netherite
+     * @param purged Whether the item was removed
+     */
+    public void add(String world, int x, int y, int z, String container, int slot, String item, int amount, String reason, boolean purged) {
+        lines.add(escape(world) + "," + x + "," + y + "," + z + "," + container + "," + slot + "," + item + "," + amount + ","
+                + escape(reason) + "," + purged);
+    }
+
+    /**
+     * Gets the report file, which may not exist yet
+     * @return The file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Checks whether the file has been closed
+     * @return true once the remaining lines are written and the file is closed
+     */
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Writes the remaining lines and closes the file, off the calling thread
+     * If the plugin is disabled before that runs, {@link #closeNow()} must be called instead.
+     */
+    public void close() {
+        flushTask.cancel();
+        Bukkit.getAsyncScheduler().runNow(plugin, task -> closeNow());
+    }
+
+    /**
+     * Writes the remaining lines and closes the file on the calling thread, for use during shutdown
+     */
+    public synchronized void closeNow() {
+        if (closed) {
+            return;
+        }
+        flushTask.cancel();
+        flush();
+        closed = true;
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not close audit report " + file.getName(), e);
+        }
+    }
+
+    private synchronized void flush() {
+        if (closed) {
+            return;
+        }
+
+        // The file couldn't be created, so there is nowhere to put the findings
+        if (writer == null && !open()) {
+            lines.clear();
+            return;
+        }
+
+        try {
+            String line;
+            while ((line = lines.poll()) != null) {
+                writer.write(line);
+                writer.newLine();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not write audit report " + file.getName(), e);
+        }
+    }
+
+    private boolean open() {
+        if (failed) {
+            return false;
+        }
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+            writer.write(HEADER);
+            writer.newLine();
+            return true;
+        } catch (IOException e) {
+            failed = true;
+            plugin.getLogger().log(Level.WARNING, "Could not create audit report " + file.getName(), e);
+            return false;
+        }
+    }
+
+    private static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,433 @@
+package top.modpotato.audit;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Chest;
+import org.bukkit.block.Container;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitTask;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import top.modpotato.Main;
+import top.modpotato.config.Config;
+import top.modpotato.detection.DetectorSnapshot;
+import top.modpotato.detection.InventoryScanner;
+import top.modpotato.policy.WorldPolicies;
+import top.modpotato.policy.WorldPolicy;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Audits the containers (chests, barrels, shulker boxes, hoppers and the like) in loaded chunks for Netherite
+ * The loaded chunks are listed up front and worked through a few per tick: on Paper within
+ * {@code performance.audit-budget-ms} per tick, on Folia as one task per chunk on the chunk's own region, with at most
+ * {@code performance.audit-chunks-per-tick} chunks in flight. A chunk whose containers take longer than the budget is
+ * continued on the next tick, on Folia by the chunk's task rescheduling itself. Container slots are pre-filtered on the
+ * detector's material table and on whether the item has meta, findings are streamed to an {@link AuditReport}, and with purge enabled the
+ * Netherite found is removed.
+ */
+public class ContainerAudit {
+    private final Main plugin;
+    private final boolean isFolia;
+    private final WorldPolicies worldPolicies;
+    private final Config config;
+
+    private volatile AuditJob job;
+    private final Set<AuditReport> openReports = ConcurrentHashMap.newKeySet();
+
+    private record ChunkRef(World world, int x, int z) {
+    }
+
+    /**
+     * A running audit
+     */
+    private static final class AuditJob {
+        final CommandSender initiator;
+        final boolean purge;
+        final AuditReport report;
+        final Queue<ChunkRef> chunks;
+        final Set<ChunkRef> queued = ConcurrentHashMap.newKeySet();
+        final AtomicInteger totalChunks = new AtomicInteger();
+        final AtomicInteger pendingPlayers = new AtomicInteger();
+        final long startedAt = System.nanoTime();
+        final AtomicInteger chunksDone = new AtomicInteger();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicLong containers = new AtomicLong();
+        final AtomicLong matches = new AtomicLong();
+        final AtomicLong purged = new AtomicLong();
+        volatile boolean finished = false;
+        volatile BukkitTask paperTask;
+        volatile ScheduledTask foliaTask;
+        // Chunk the Paper task ran out of budget in, and the container to continue from; only used by that task
+        ChunkRef partialChunk;
+        int partialIndex;
+
+        AuditJob(CommandSender initiator, boolean purge, AuditReport report) {
+            this.initiator = initiator;
+            this.purge = purge;
+            this.report = report;
+            this.chunks = new ConcurrentLinkedQueue<>();
+        }
+
+        void enqueue(ChunkRef chunk) {
+            if (queued.add(chunk)) {
+                chunks.add(chunk);
+                totalChunks.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Creates a new ContainerAudit
+     * @param plugin The plugin instance
+     * @param isFolia Whether the server is running on Folia
+     * @param worldPolicies The per-world policies
+     * @param config The plugin configuration
+     */
+    public ContainerAudit(Main plugin, boolean isFolia, WorldPolicies worldPolicies, Config config) {
+        this.plugin = plugin;
+        this.isFolia = isFolia;
+        this.worldPolicies = worldPolicies;
+        this.config = config;
+    }
+
+    /**
+     * Starts an audit of the loaded chunks in some worlds
+     * @param initiator The sender to report progress to
+     * @param worlds The worlds to audit
+     * @param purge Whether to remove the Netherite found
+     * @return false if an audit is already running
+     */
+    public synchronized boolean start(CommandSender initiator, List<World> worlds, boolean purge) {
+        if (job != null) {
+            return false;
+        }
+
+        // Worlds a profile exempts are left alone
+        Set<World> audited = new HashSet<>();
+        for (World world : worlds) {
+            if (!worldPolicies.get(world).isExempt()) {
+                audited.add(world);
+            }
+        }
+
+        // Reports whose background close already ran no longer need closing at shutdown
+        openReports.removeIf(AuditReport::isClosed);
+        AuditJob newJob = new AuditJob(initiator, purge, AuditReport.create(plugin));
+        openReports.add(newJob.report);
+        job = newJob;
+
+        if (isFolia) {
+            collectPlayerChunks(newJob, audited);
+            initiator.sendMessage(Component.text("Auditing containers in the chunks around players in "
+                    + audited.size() + " worlds" + (purge ? " and removing Netherite" : "") + ". Report: audits/"
+                    + newJob.report.getFile().getName()).color(NamedTextColor.GREEN));
+            newJob.foliaTask = Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, task -> dispatchFolia(newJob), 1L, 1L);
+        } else {
+            for (World world : audited) {
+                for (Chunk chunk : world.getLoadedChunks()) {
+                    newJob.enqueue(new ChunkRef(world, chunk.getX(), chunk.getZ()));
+                }
+            }
+            initiator.sendMessage(Component.text("Auditing containers in " + newJob.totalChunks.get() + " loaded chunks"
+                    + (purge ? " and removing Netherite" : "") + ". Report: audits/" + newJob.report.getFile().getName())
+                    .color(NamedTextColor.GREEN));
+            newJob.paperTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> drainPaper(newJob), 1L, 1L);
+        }
+        return true;
+    }
+
+    /**
+     * Cancels the running audit; the report keeps what was found so far
+     * @return false if no audit was running
+     */
+    public boolean cancel() {
+        AuditJob current = job;
+        if (current == null) {
+            return false;
+        }
+        current.chunks.clear();
+        finish(current, true);
+        return true;
+    }
+
+    /**
+     * Stops the running audit during shutdown, writing the report on the calling thread
+     */
+    public void shutdown() {
+        AuditJob current = job;
+        if (current != null) {
+            current.chunks.clear();
+            stopTasks(current);
+            current.finished = true;
+            job = null;
+        }
+
+        // Also close reports whose background close hasn't run yet, so their last lines aren't lost
+        for (AuditReport report : openReports) {
+            report.closeNow();
+        }
+        openReports.clear();
+    }
+
+    /**
+     * Sends the progress of the running audit to a sender
+     * @param sender The sender
+     * @return false if no audit is running
+     */
+    public boolean sendStatus(CommandSender sender) {
+        AuditJob current = job;
+        if (current == null) {
+            return false;
+        }
+        sender.sendMessage(Component.text("Audit progress: " + current.chunksDone.get() + "/" + current.totalChunks.get()
+                + " chunks, " + current.containers.get() + " containers, " + current.matches.get() + " matches"
+                + (current.purge ? " (" + current.purged.get() + " removed)" : "")).color(NamedTextColor.YELLOW));
+        return true;
+    }
+
+    /**
+     * Queues the chunks in view of each player in the audited worlds
+     * On Folia the loaded chunks can't be listed from one thread, so each player's position is read by a task on the
+     * player's own region; each chunk is checked again on its own region before it is audited.
+     */
+    private void collectPlayerChunks(AuditJob current, Set<World> audited) {
+        Collection<? extends Player> players = Bukkit.getOnlinePlayers();
+        current.pendingPlayers.set(players.size());
+
+        for (Player player : players) {
+            ScheduledTask task = player.getScheduler().run(plugin, scheduled -> {
+                try {
+                    World world = player.getWorld();
+                    if (!current.finished && audited.contains(world)) {
+                        Location location = player.getLocation();
+                        int centerX = location.getBlockX() >> 4;
+                        int centerZ = location.getBlockZ() >> 4;
+                        int radius = world.getViewDistance();
+                        for (int x = centerX - radius; x <= centerX + radius; x++) {
+                            for (int z = centerZ - radius; z <= centerZ + radius; z++) {
+                                current.enqueue(new ChunkRef(world, x, z));
+                            }
+                        }
+                    }
+                } finally {
+                    current.pendingPlayers.decrementAndGet();
+                }
+            }, current.pendingPlayers::decrementAndGet);
+
+            // The player logged out before the task could be scheduled
+            if (task == null) {
+                current.pendingPlayers.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Audits chunks on Paper until the tick budget or the per-tick chunk limit is reached
+     */
+    private void drainPaper(AuditJob current) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(1, config.getAuditBudgetMs()));
+        int limit = Math.max(1, config.getAuditChunksPerTick());
+
+        for (int i = 0; i < limit && System.nanoTime() < deadline; i++) {
+            ChunkRef chunk;
+            int from = 0;
+            if (current.partialChunk != null) {
+                chunk = current.partialChunk;
+                from = current.partialIndex;
+                current.partialChunk = null;
+            } else {
+                chunk = current.chunks.poll();
+                if (chunk == null) {
+                    break;
+                }
+            }
+
+            int next = auditChunk(current, chunk, from, deadline);
+            if (next >= 0) {
+                current.partialChunk = chunk;
+                current.partialIndex = next;
+                break;
+            }
+        }
+
+        if (current.partialChunk == null && current.chunks.isEmpty()) {
+            finish(current, false);
+        }
+    }
+
+    /**
+     * Hands chunks to their Folia regions, keeping at most the per-tick chunk limit in flight
+     * The audit only finishes once every player's chunks have been queued.
+     */
+    private void dispatchFolia(AuditJob current) {
+        int limit = Math.max(1, config.getAuditChunksPerTick());
+
+        while (current.inFlight.get() < limit) {
+            ChunkRef chunk = current.chunks.poll();
+            if (chunk == null) {
+                break;
+            }
+            current.inFlight.incrementAndGet();
+            Bukkit.getRegionScheduler().run(plugin, chunk.world(), chunk.x(), chunk.z(), task -> auditFoliaChunk(current, chunk, 0));
+        }
+
+        if (current.pendingPlayers.get() == 0 && current.chunks.isEmpty() && current.inFlight.get() == 0) {
+            finish(current, false);
+        }
+    }
+
+    /**
+     * Audits a chunk on its Folia region within the tick budget, continuing on the next tick if the budget runs out
+     */
+    private void auditFoliaChunk(AuditJob current, ChunkRef chunk, int from) {
+        int next = -1;
+        try {
+            if (!current.finished) {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(1, config.getAuditBudgetMs()));
+                next = auditChunk(current, chunk, from, deadline);
+            }
+        } finally {
+            if (next < 0) {
+                current.inFlight.decrementAndGet();
+            }
+        }
+
+        if (next >= 0) {
+            int resumeAt = next;
+            Bukkit.getRegionScheduler().runDelayed(plugin, chunk.world(), chunk.x(), chunk.z(),
+                    task -> auditFoliaChunk(current, chunk, resumeAt), 1L);
+        }
+    }
+
+    /**
+     * Audits the containers of one chunk until the deadline; must run on the thread that owns the chunk
+     * A chunk continued on a later tick lists its block entities again, so a container placed or broken in between
+     * may be skipped or reported twice.
+     * @param from The index of the block entity to start at
+     * @param deadline The {@link System#nanoTime()} to stop at
+     * @return The index to continue from on the next tick, or -1 once the chunk is done
+     */
+    private int auditChunk(AuditJob current, ChunkRef ref, int from, long deadline) {
+        World world = ref.world();
+        boolean done = true;
+        try {
+            // The chunk may have unloaded since the audit started
+            if (!world.isChunkLoaded(ref.x(), ref.z())) {
+                return -1;
+            }
+
+            WorldPolicy policy = worldPolicies.get(world);
+            DetectorSnapshot snapshot = policy.getSnapshot();
+            Chunk chunk = world.getChunkAt(ref.x(), ref.z());
+
+            BlockState[] states = chunk.getTileEntities(false);
+            for (int i = from; i < states.length; i++) {
+                // Stop once the budget is spent, always making progress on at least one block entity
+                if (i > from && System.nanoTime() >= deadline) {
+                    done = false;
+                    return i;
+                }
+
+                BlockState state = states[i];
+                if (!(state instanceof Container container)) {
+                    continue;
+                }
+                current.containers.incrementAndGet();
+
+                // A chest's own inventory, so each half of a double chest is reported once
+                Inventory inventory = container instanceof Chest chest ? chest.getBlockInventory() : container.getInventory();
+                String containerType = state.getType().name();
+                InventoryScanner.forEachMatch(snapshot, inventory, (item, slot) -> {
+                    String reason = snapshot.getMatchReason(item);
+                    String itemType = item.getType().name();
+                    int amount = item.getAmount();
+                    boolean removed = current.purge && purge(current, snapshot, inventory, item, slot, reason != null);
+
+                    current.matches.incrementAndGet();
+                    current.report.add(world.getName(), state.getX(), state.getY(), state.getZ(), containerType, slot,
+                            itemType, amount, reason != null ? reason : "nested", removed);
+                });
+            }
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Error auditing chunk at " + ref.x() + "," + ref.z()
+                    + " in world " + world.getName(), e);
+        } finally {
+            if (done) {
+                current.chunksDone.incrementAndGet();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes a match found by the audit
+     * @return true if anything was removed
+     */
+    private boolean purge(AuditJob current, DetectorSnapshot snapshot, Inventory inventory, ItemStack item, int slot, boolean netheriteItem) {
+        if (netheriteItem) {
+            inventory.setItem(slot, null);
+            current.purged.incrementAndGet();
+            return true;
+        }
+
+        // Only the nested Netherite is removed; the container keeps its other contents
+        int removed = snapshot.removeNestedNetherite(item);
+        if (removed > 0) {
+            inventory.setItem(slot, item);
+            current.purged.addAndGet(removed);
+            return true;
+        }
+        return false;
+    }
+
+    private void finish(AuditJob current, boolean cancelled) {
+        synchronized (this) {
+            if (current.finished) {
+                return;
+            }
+            current.finished = true;
+            if (job == current) {
+                job = null;
+            }
+        }
+
+        stopTasks(current);
+        current.report.close();
+
+        double seconds = (System.nanoTime() - current.startedAt) / 1_000_000_000.0;
+        String summary = String.format("Audit %s after %.1fs: %d/%d chunks, %d containers, %d matches%s. Report: audits/%s",
+                cancelled ? "cancelled" : "finished", seconds, current.chunksDone.get(), current.totalChunks.get(),
+                current.containers.get(), current.matches.get(),
+                current.purge ? " (" + current.purged.get() + " removed)" : "", current.report.getFile().getName());
+        plugin.getLogger().info(summary);
+        current.initiator.sendMessage(Component.text(summary).color(NamedTextColor.GREEN));
+    }
+
+    private void stopTasks(AuditJob current) {
+        if (current.paperTask != null) {
+            current.paperTask.cancel();
+        }
+        if (current.foliaTask != null) {
+            current.foliaTask.cancel();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package top.modpotato.commands;
 
 import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -12,12 +13,22 @@ import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 
 import top.modpotato.Main;
+import top.modpotato.audit.ContainerAudit;
 import top.modpotato.restoration.RestorationSession;
+import top.modpotato.detection.VerdictCache;
+import top.modpotato.scheduler.ChunkScanQueue;
+import top.modpotato.scheduler.NetheriteRemover;
+import top.modpotato.util.HopperBackoff;
+import top.modpotato.util.IgnoredPlayers;
+import top.modpotato.util.NetheriteDetector;
+import top.modpotato.util.WorldScanBounds;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Command handler for the AntiNetherite plugin
@@ -40,15 +51,21 @@ public class AntiNetheriteCommand implements CommandExecutor, TabCompleter {
         SETTINGS_MAP.put("clear", "anti-netherite.inventory.clear");
         SETTINGS_MAP.put("cancel-inventory-move", "anti-netherite.inventory.cancel-move");
         SETTINGS_MAP.put("cancel-container-transfer", "anti-netherite.inventory.cancel-container-transfer");
+        SETTINGS_MAP.put("hopper-backoff.threshold", "anti-netherite.inventory.hopper-backoff.threshold");
+        SETTINGS_MAP.put("hopper-backoff.ticks", "anti-netherite.inventory.hopper-backoff.ticks");
         
         // Interaction settings
         SETTINGS_MAP.put("cancel-craft", "anti-netherite.interaction.cancel-craft");
+        SETTINGS_MAP.put("cancel-smithing", "anti-netherite.interaction.cancel-smithing");
         SETTINGS_MAP.put("cancel-equip", "anti-netherite.interaction.cancel-equip");
         SETTINGS_MAP.put("cancel-attack", "anti-netherite.interaction.cancel-attack");
         
         // Item handling settings
         SETTINGS_MAP.put("cancel-pickup", "anti-netherite.item-handling.cancel-pickup");
         SETTINGS_MAP.put("remove-dropped", "anti-netherite.item-handling.remove-dropped");
+        SETTINGS_MAP.put("filter-loot", "anti-netherite.item-handling.filter-loot");
+        SETTINGS_MAP.put("filter-trades", "anti-netherite.item-handling.filter-trades");
+        SETTINGS_MAP.put("sweep-entities", "anti-netherite.item-handling.sweep-entities");
         
         // Ancient debris settings
         SETTINGS_MAP.put("replace-when-mined", "anti-netherite.ancient-debris.replace-when-mined");
@@ -58,10 +75,12 @@ public class AntiNetheriteCommand implements CommandExecutor, TabCompleter {
         
         // Detection settings
         SETTINGS_MAP.put("detection.use-name-matching", "anti-netherite.detection.use-name-matching");
+        SETTINGS_MAP.put("detection.match-lore", "anti-netherite.detection.match-lore");
         
         // Timing settings
         SETTINGS_MAP.put("delay", "anti-netherite.timing.delay");
         SETTINGS_MAP.put("multiplier", "anti-netherite.timing.multiplier");
+        SETTINGS_MAP.put("full-scan-interval", "anti-netherite.timing.full-scan-interval");
     }
 
     @Override
@@ -213,6 +232,16 @@ public class AntiNetheriteCommand implements CommandExecutor, TabCompleter {
                     isReplaceOnChunkLoad ? NamedTextColor.RED : NamedTextColor.GREEN));
                 
                 return true;
+            case "stats":
+                return handleStats(sender);
+            case "ignore":
+                return handleIgnore(sender, args);
+            case "unignore":
+                return handleUnignore(sender, args);
+            case "ignored":
+                return handleIgnored(sender);
+            case "audit":
+                return handleAudit(sender, args);
             case "get":
                 return handleGetCommand(sender, args);
             case "set":
@@ -323,6 +352,12 @@ public class AntiNetheriteCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(Component.text("/antinetherite restore-feedback <on|off> - Toggle restoration progress feedback").color(NamedTextColor.YELLOW));
         sender.sendMessage(Component.text("/antinetherite debris-info - Show information about stored Ancient Debris locations").color(NamedTextColor.YELLOW));
         sender.sendMessage(Component.text("  - Displays counts per world and current config status").color(NamedTextColor.GRAY));
+        sender.sendMessage(Component.text("/antinetherite stats - Show runtime statistics").color(NamedTextColor.YELLOW));
+        sender.sendMessage(Component.text("/antinetherite ignore <player> [duration] - Ignore a player, optionally for a time like 30m or 2h").color(NamedTextColor.YELLOW));
+        sender.sendMessage(Component.text("/antinetherite unignore <player> - Stop ignoring a player").color(NamedTextColor.YELLOW));
+        sender.sendMessage(Component.text("/antinetherite ignored - List ignored players").color(NamedTextColor.YELLOW));
+        sender.sendMessage(Component.text("/antinetherite audit [world] [purge] - Audit containers in loaded chunks for Netherite").color(NamedTextColor.YELLOW));
+        sender.sendMessage(Component.text("  - Use 'audit status' or 'audit cancel' while an audit is running").color(NamedTextColor.GRAY));
         sender.sendMessage(Component.text("/antinetherite get <setting> - Get a configuration value").color(NamedTextColor.YELLOW));
         sender.sendMessage(Component.text("/antinetherite set <setting> <value> - Set a configuration value").color(NamedTextColor.YELLOW));
         
@@ -332,17 +367,17 @@ public class AntiNetheriteCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(Component.text("  clear, cancel-inventory-move, cancel-container-transfer").color(NamedTextColor.GRAY));
         
         sender.sendMessage(Component.text("Interaction settings:").color(NamedTextColor.YELLOW));
-        sender.sendMessage(Component.text("  cancel-craft, cancel-equip, cancel-attack").color(NamedTextColor.GRAY));
+        sender.sendMessage(Component.text("  cancel-craft, cancel-smithing, cancel-equip, cancel-attack").color(NamedTextColor.GRAY));
         
         sender.sendMessage(Component.text("Item handling settings:").color(NamedTextColor.YELLOW));
-        sender.sendMessage(Component.text("  cancel-pickup, remove-dropped").color(NamedTextColor.GRAY));
+        sender.sendMessage(Component.text("  cancel-pickup, remove-dropped, filter-loot, filter-trades, sweep-entities").color(NamedTextColor.GRAY));
         
         sender.sendMessage(Component.text("Ancient debris settings:").color(NamedTextColor.YELLOW));
         sender.sendMessage(Component.text("  replace-when-mined, replace-on-chunk-load").color(NamedTextColor.GRAY));
         sender.sendMessage(Component.text("  only-replace-generated-chunks, ensure-chunks-loaded").color(NamedTextColor.GRAY));
         
         sender.sendMessage(Component.text("Detection settings:").color(NamedTextColor.YELLOW));
-        sender.sendMessage(Component.text("  detection.use-name-matching").color(NamedTextColor.GRAY));
+        sender.sendMessage(Component.text("  detection.use-name-matching, detection.match-lore").color(NamedTextColor.GRAY));
         
         sender.sendMessage(Component.text("Timing settings:").color(NamedTextColor.YELLOW));
         sender.sendMessage(Component.text("  delay, multiplier").color(NamedTextColor.GRAY));
@@ -362,6 +397,11 @@ public class AntiNetheriteCommand implements CommandExecutor, TabCompleter {
             completions.add("restore-debris");
             completions.add("restore-feedback");
             completions.add("debris-info");
+            completions.add("stats");
+            completions.add("ignore");
+            completions.add("unignore");
+            completions.add("ignored");
+            completions.add("audit");
             completions.add("get");
             completions.add("set");
             return filterCompletions(completions, args[0]);
@@ -382,26 +422,36 @@ public class AntiNetheriteCommand implements CommandExecutor, TabCompleter {
                 completions.add("inventory.clear");
                 completions.add("inventory.cancel-move");
                 completions.add("inventory.cancel-container-transfer");
+                completions.add("inventory.hopper-backoff.threshold");
+                completions.add("inventory.hopper-backoff.ticks");
                 
                 // Add interaction settings
                 completions.add("interaction.cancel-craft");
+                completions.add("interaction.cancel-smithing");
                 completions.add("interaction.cancel-equip");
                 completions.add("interaction.cancel-attack");
                 
                 // Add item handling settings
                 completions.add("item-handling.cancel-pickup");
                 completions.add("item-handling.remove-dropped");
+                completions.add("item-handling.filter-loot");
+                completions.add("item-handling.filter-trades");
+                completions.add("item-handling.sweep-entities");
                 
                 // Add ancient debris settings
                 completions.add("ancient-debris.replace-when-mined");
                 completions.add("ancient-debris.replace-on-chunk-load");
                 completions.add("ancient-debris.only-replace-generated-chunks");
                 completions.add("ancient-debris.ensure-chunks-loaded");
+                completions.add("ancient-debris.scan-policy-version");
                 
                 // Add performance settings
                 completions.add("performance.restore-debris-on-disable");
                 completions.add("performance.restore-debris-on-config-change");
                 completions.add("performance.max-replacements-per-chunk");
+                completions.add("performance.chunk-scan-budget-ms");
+                completions.add("performance.audit-chunks-per-tick");
+                completions.add("performance.audit-budget-ms");
                 
                 // Add advanced settings
                 completions.add("advanced.max-locations-per-world");
@@ -411,11 +461,13 @@ public class AntiNetheriteCommand implements CommandExecutor, TabCompleter {
                 
                 // Add detection settings
                 completions.add("detection.use-name-matching");
+                completions.add("detection.match-lore");
                 completions.add("detection.items");
                 
                 // Add timing settings
                 completions.add("timing.delay");
                 completions.add("timing.multiplier");
+                completions.add("timing.full-scan-interval");
                 
                 return filterCompletions(completions, args[1]);
             }
@@ -426,9 +478,45 @@ public class AntiNetheriteCommand implements CommandExecutor, TabCompleter {
                 }
                 return filterCompletions(completions, args[1]);
             }
+            
+            if (args[0].equalsIgnoreCase("audit")) {
+                completions.add("status");
+                completions.add("cancel");
+                completions.add("purge");
+                for (World world : Bukkit.getWorlds()) {
+                    completions.add(world.getName());
+                }
+                return filterCompletions(completions, args[1]);
+            }
+            
+            if (args[0].equalsIgnoreCase("ignore")) {
+                for (Player player : Bukkit.getOnlinePlayers()) {
+                    completions.add(player.getName());
+                }
+                return filterCompletions(completions, args[1]);
+            }
+            
+            if (args[0].equalsIgnoreCase("unignore")) {
+                for (IgnoredPlayers.Entry entry : plugin.getIgnoredPlayers().getEntries()) {
+                    completions.add(entry.name());
+                }
+                return filterCompletions(completions, args[1]);
+            }
         }
         
         if (args.length == 3) {
+            if (args[0].equalsIgnoreCase("audit")) {
+                completions.add("purge");
+                return filterCompletions(completions, args[2]);
+            }
+            
+            if (args[0].equalsIgnoreCase("ignore")) {
+                completions.add("30m");
+                completions.add("1h");
+                completions.add("1d");
+                return filterCompletions(completions, args[2]);
+            }
+            
             if (args[0].equalsIgnoreCase("set")) {
                 String setting = args[1].toLowerCase();
                 
@@ -442,6 +530,8 @@ public class AntiNetheriteCommand implements CommandExecutor, TabCompleter {
                 // For boolean settings
                 if (setting.contains("cancel") || 
                     setting.contains("remove") || 
+                    setting.contains("filter") || 
+                    setting.contains("sweep") || 
                     setting.contains("replace") || 
                     setting.contains("ensure") || 
                     setting.contains("restore") || 
@@ -457,7 +547,9 @@ public class AntiNetheriteCommand implements CommandExecutor, TabCompleter {
                 // For integer settings
                 if (setting.contains("delay") || 
                     setting.contains("multiplier") || 
-                    setting.contains("max-")) {
+                    setting.contains("max-") ||
+                    setting.contains("budget-ms") ||
+                    setting.contains("chunks-per-tick")) {
                     // Suggest some reasonable values
                     if (setting.contains("delay")) {
                         completions.add("1");
@@ -479,6 +571,14 @@ public class AntiNetheriteCommand implements CommandExecutor, TabCompleter {
                         completions.add("1");
                         completions.add("5");
                         completions.add("10");
+                    } else if (setting.contains("budget-ms")) {
+                        completions.add("1");
+                        completions.add("2");
+                        completions.add("5");
+                    } else if (setting.contains("chunks-per-tick")) {
+                        completions.add("4");
+                        completions.add("8");
+                        completions.add("16");
                     }
                     return filterCompletions(completions, args[2]);
                 }
@@ -523,6 +623,294 @@ public class AntiNetheriteCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
+    /**
+     * Handles the /antinetherite ignore command
+     * @param sender The command sender
+     * @param args The command arguments
+     * @return true if the command was handled, false otherwise
+     */
+    private boolean handleIgnore(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            sender.sendMessage(Component.text("Usage: /antinetherite ignore <player> [duration]").color(NamedTextColor.RED));
+            return true;
+        }
+        
+        OfflinePlayer target = findPlayer(args[1]);
+        if (target == null) {
+            sender.sendMessage(Component.text("Player " + args[1] + " has never played on this server.").color(NamedTextColor.RED));
+            return true;
+        }
+        
+        long durationMillis = 0;
+        if (args.length > 2) {
+            durationMillis = parseDuration(args[2]);
+            if (durationMillis <= 0) {
+                sender.sendMessage(Component.text("Invalid or out-of-range duration: " + args[2] + ". Use a number followed by s, m, h or d, e.g. 30m").color(NamedTextColor.RED));
+                return true;
+            }
+        }
+        
+        String name = target.getName() != null ? target.getName() : args[1];
+        plugin.getIgnoredPlayers().add(target.getUniqueId(), name, durationMillis);
+        
+        if (durationMillis > 0) {
+            sender.sendMessage(Component.text("Ignoring " + name + " for " + args[2].toLowerCase() + ".").color(NamedTextColor.GREEN));
+        } else {
+            sender.sendMessage(Component.text("Ignoring " + name + " until they are unignored.").color(NamedTextColor.GREEN));
+        }
+        return true;
+    }
+    
+    /**
+     * Handles the /antinetherite unignore command
+     * @param sender The command sender
+     * @param args The command arguments
+     * @return true if the command was handled, false otherwise
+     */
+    private boolean handleUnignore(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            sender.sendMessage(Component.text("Usage: /antinetherite unignore <player>").color(NamedTextColor.RED));
+            return true;
+        }
+        
+        IgnoredPlayers ignoredPlayers = plugin.getIgnoredPlayers();
+        
+        // Match the stored name first, so players who changed their name can still be removed
+        UUID uuid = null;
+        for (IgnoredPlayers.Entry entry : ignoredPlayers.getEntries()) {
+            if (entry.name().equalsIgnoreCase(args[1])) {
+                uuid = entry.uuid();
+                break;
+            }
+        }
+        if (uuid == null) {
+            OfflinePlayer target = findPlayer(args[1]);
+            if (target != null) {
+                uuid = target.getUniqueId();
+            }
+        }
+        
+        IgnoredPlayers.Entry removed = uuid != null ? ignoredPlayers.remove(uuid) : null;
+        if (removed == null) {
+            sender.sendMessage(Component.text(args[1] + " is not ignored.").color(NamedTextColor.YELLOW));
+        } else {
+            sender.sendMessage(Component.text("No longer ignoring " + removed.name() + ".").color(NamedTextColor.GREEN));
+        }
+        return true;
+    }
+    
+    /**
+     * Handles the /antinetherite ignored command
+     * @param sender The command sender
+     * @return true if the command was handled, false otherwise
+     */
+    private boolean handleIgnored(CommandSender sender) {
+        IgnoredPlayers ignoredPlayers = plugin.getIgnoredPlayers();
+        if (ignoredPlayers.size() == 0) {
+            sender.sendMessage(Component.text("No players are ignored.").color(NamedTextColor.YELLOW));
+            return true;
+        }
+        
+        sender.sendMessage(Component.text("Ignored players (" + ignoredPlayers.size() + "):").color(NamedTextColor.GREEN));
+        long now = System.currentTimeMillis();
+        for (IgnoredPlayers.Entry entry : ignoredPlayers.getEntries()) {
+            String expiry = entry.isTemporary()
+                    ? "expires in " + formatDuration(Math.max(0, entry.expiresAt() - now))
+                    : "permanent";
+            sender.sendMessage(Component.text("- " + entry.name() + " (" + expiry + ")").color(NamedTextColor.WHITE));
+        }
+        return true;
+    }
+    
+    /**
+     * Handles the /antinetherite audit command
+     * @param sender The command sender
+     * @param args The command arguments
+     * @return true if the command was handled, false otherwise
+     */
+    private boolean handleAudit(CommandSender sender, String[] args) {
+        ContainerAudit containerAudit = plugin.getContainerAudit();
+        
+        if (args.length > 1 && args[1].equalsIgnoreCase("status")) {
+            if (!containerAudit.sendStatus(sender)) {
+                sender.sendMessage(Component.text("No audit is running.").color(NamedTextColor.YELLOW));
+            }
+            return true;
+        }
+        
+        if (args.length > 1 && args[1].equalsIgnoreCase("cancel")) {
+            if (!containerAudit.cancel()) {
+                sender.sendMessage(Component.text("No audit is running.").color(NamedTextColor.YELLOW));
+            }
+            return true;
+        }
+        
+        // Arguments: an optional world name and an optional "purge", in either order
+        List<World> worlds = new ArrayList<>(Bukkit.getWorlds());
+        boolean purge = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equalsIgnoreCase("purge")) {
+                purge = true;
+                continue;
+            }
+            World world = Bukkit.getWorld(args[i]);
+            if (world == null) {
+                sender.sendMessage(Component.text("World not found: " + args[i]).color(NamedTextColor.RED));
+                return true;
+            }
+            worlds = List.of(world);
+        }
+        
+        if (!containerAudit.start(sender, worlds, purge)) {
+            sender.sendMessage(Component.text("An audit is already running. Use /antinetherite audit status or cancel.").color(NamedTextColor.RED));
+        }
+        return true;
+    }
+    
+    /**
+     * Finds a player by name, online or from the server's player cache
+     * @param name The player name
+     * @return The player, or null if they have never joined
+     */
+    private OfflinePlayer findPlayer(String name) {
+        Player online = Bukkit.getPlayerExact(name);
+        if (online != null) {
+            return online;
+        }
+        return Bukkit.getOfflinePlayerIfCached(name);
+    }
+    
+    /**
+     * Parses a duration such as 45s, 30m, 2h or 1d
+     * @param input The duration text
+     * @return The duration in milliseconds, or -1 if the text isn't a valid duration or its expiry time would overflow
+     */
+    private long parseDuration(String input) {
+        if (input.length() < 2) {
+            return -1;
+        }
+        
+        long unitMillis;
+        switch (Character.toLowerCase(input.charAt(input.length() - 1))) {
+            case 's':
+                unitMillis = TimeUnit.SECONDS.toMillis(1);
+                break;
+            case 'm':
+                unitMillis = TimeUnit.MINUTES.toMillis(1);
+                break;
+            case 'h':
+                unitMillis = TimeUnit.HOURS.toMillis(1);
+                break;
+            case 'd':
+                unitMillis = TimeUnit.DAYS.toMillis(1);
+                break;
+            default:
+                return -1;
+        }
+        
+        try {
+            long amount = Long.parseLong(input.substring(0, input.length() - 1));
+            if (amount <= 0) {
+                return -1;
+            }
+            long millis = Math.multiplyExact(amount, unitMillis);
+            // The entry stores an absolute expiry time, which must fit as well
+            Math.addExact(System.currentTimeMillis(), millis);
+            return millis;
+        } catch (NumberFormatException | ArithmeticException e) {
+            return -1;
+        }
+    }
+    
+    /**
+     * Formats a duration for display
+     * @param millis The duration in milliseconds
+     * @return The duration, e.g. "1h 5m"
+     */
+    private String formatDuration(long millis) {
+        long seconds = TimeUnit.MILLISECONDS.toSeconds(millis);
+        long days = seconds / 86400;
+        long hours = (seconds % 86400) / 3600;
+        long minutes = (seconds % 3600) / 60;
+        
+        if (days > 0) {
+            return days + "d " + hours + "h";
+        }
+        if (hours > 0) {
+            return hours + "h " + minutes + "m";
+        }
+        if (minutes > 0) {
+            return minutes + "m " + (seconds % 60) + "s";
+        }
+        return seconds + "s";
+    }
+    
+    /**
+     * Handles the /antinetherite stats command
+     * @param sender The command sender
+     * @return true if the command was handled, false otherwise
+     */
+    private boolean handleStats(CommandSender sender) {
+        sender.sendMessage(Component.text("AntiNetherite Statistics:").color(NamedTextColor.GREEN));
+        
+        ChunkScanQueue chunkScanQueue = plugin.getChunkScanQueue();
+        if (chunkScanQueue != null) {
+            sender.sendMessage(Component.text("Chunk scan queue:").color(NamedTextColor.YELLOW));
+            sender.sendMessage(Component.text("- Queue depth: " + chunkScanQueue.getQueueDepth() + " chunks").color(NamedTextColor.WHITE));
+            sender.sendMessage(Component.text("- Chunks cleaned: " + chunkScanQueue.getChunksCleaned() +
+                " (" + chunkScanQueue.getDebrisReplaced() + " Ancient Debris replaced)").color(NamedTextColor.WHITE));
+            sender.sendMessage(Component.text("- Already scanned, skipped: " + chunkScanQueue.getChunksSkipped()).color(NamedTextColor.WHITE));
+            
+            // The version written to chunk markers folds the configured version and each world's window together
+            WorldScanBounds worldScanBounds = plugin.getWorldScanBounds();
+            for (World world : Bukkit.getWorlds()) {
+                WorldScanBounds.Bounds bounds = worldScanBounds.get(world);
+                if (bounds != null) {
+                    sender.sendMessage(Component.text("- " + world.getName() + ": Y " + bounds.getMinY() + " to " + (bounds.getMaxY() - 1) +
+                        ", policy version " + bounds.getPolicyVersion()).color(NamedTextColor.WHITE));
+                }
+            }
+            sender.sendMessage(Component.text(String.format("- Load to clean: %.1f ms average, %.1f ms max",
+                chunkScanQueue.getAverageLatencyMs(), chunkScanQueue.getMaxLatencyMs())).color(NamedTextColor.WHITE));
+        }
+        
+        NetheriteRemover netheriteRemover = plugin.getNetheriteRemover();
+        if (netheriteRemover != null) {
+            sender.sendMessage(Component.text("Inventory sweep:").color(NamedTextColor.YELLOW));
+            sender.sendMessage(Component.text("- Players scanned: " + netheriteRemover.getPlayersScanned() +
+                ", skipped (not dirty): " + netheriteRemover.getPlayersSkipped()).color(NamedTextColor.WHITE));
+            if (netheriteRemover.getSweepBucketCount() > 0) {
+                sender.sendMessage(Component.text(String.format("- Tick cost: %.3f ms average, %.3f ms max (%d buckets)",
+                    netheriteRemover.getAverageSweepTickMillis(), netheriteRemover.getMaxSweepTickMillis(),
+                    netheriteRemover.getSweepBucketCount())).color(NamedTextColor.WHITE));
+            }
+        }
+        
+        HopperBackoff hopperBackoff = plugin.getHopperBackoff();
+        if (hopperBackoff != null) {
+            Map<String, Long> blocked = hopperBackoff.getBlockedByWorld();
+            if (!blocked.isEmpty()) {
+                Map<String, Long> backoffs = hopperBackoff.getBackoffsByWorld();
+                sender.sendMessage(Component.text("Container transfers:").color(NamedTextColor.YELLOW));
+                for (Map.Entry<String, Long> entry : blocked.entrySet()) {
+                    sender.sendMessage(Component.text("- " + entry.getKey() + ": " + entry.getValue() + " blocked, " +
+                        backoffs.getOrDefault(entry.getKey(), 0L) + " hopper backoffs").color(NamedTextColor.WHITE));
+                }
+            }
+        }
+        
+        NetheriteDetector netheriteDetector = plugin.getNetheriteDetector();
+        if (netheriteDetector != null) {
+            VerdictCache verdictCache = netheriteDetector.getVerdictCache();
+            sender.sendMessage(Component.text("Item detection:").color(NamedTextColor.YELLOW));
+            sender.sendMessage(Component.text("- Policy version: " + netheriteDetector.getVersion()).color(NamedTextColor.WHITE));
+            sender.sendMessage(Component.text(String.format("- Verdict cache: %.1f%% hit rate (%d hits, %d misses, %d cached)",
+                verdictCache.getHitRate() * 100, verdictCache.getHits(), verdictCache.getMisses(), verdictCache.size())).color(NamedTextColor.WHITE));
+        }
+        
+        return true;
+    }
+    
     /**
      * Handles the /antinetherite get command
      * @param sender The command sender
@@ -583,11 +971,20 @@ public class AntiNetheriteCommand implements CommandExecutor, TabCompleter {
             case "inventory.cancel-container-transfer":
             case "cancel-container-transfer":
                 return "anti-netherite.inventory.cancel-container-transfer";
+            case "inventory.hopper-backoff.threshold":
+            case "hopper-backoff.threshold":
+                return "anti-netherite.inventory.hopper-backoff.threshold";
+            case "inventory.hopper-backoff.ticks":
+            case "hopper-backoff.ticks":
+                return "anti-netherite.inventory.hopper-backoff.ticks";
                 
             // Interaction settings
             case "interaction.cancel-craft":
             case "cancel-craft":
                 return "anti-netherite.interaction.cancel-craft";
+            case "interaction.cancel-smithing":
+            case "cancel-smithing":
+                return "anti-netherite.interaction.cancel-smithing";
             case "interaction.cancel-equip":
             case "cancel-equip":
                 return "anti-netherite.interaction.cancel-equip";
@@ -602,6 +999,15 @@ public class AntiNetheriteCommand implements CommandExecutor, TabCompleter {
             case "item-handling.remove-dropped":
             case "remove-dropped":
                 return "anti-netherite.item-handling.remove-dropped";
+            case "item-handling.filter-loot":
+            case "filter-loot":
+                return "anti-netherite.item-handling.filter-loot";
+            case "item-handling.filter-trades":
+            case "filter-trades":
+                return "anti-netherite.item-handling.filter-trades";
+            case "item-handling.sweep-entities":
+            case "sweep-entities":
+                return "anti-netherite.item-handling.sweep-entities";
                 
             // Ancient debris settings
             case "ancient-debris.replace-when-mined":
@@ -616,6 +1022,9 @@ public class AntiNetheriteCommand implements CommandExecutor, TabCompleter {
             case "ancient-debris.ensure-chunks-loaded":
             case "ensure-chunks-loaded":
                 return "anti-netherite.ancient-debris.ensure-chunks-loaded";
+            case "ancient-debris.scan-policy-version":
+            case "scan-policy-version":
+                return "anti-netherite.ancient-debris.scan-policy-version";
                 
             // Performance settings
             case "performance.restore-debris-on-disable":
@@ -627,6 +1036,15 @@ public class AntiNetheriteCommand implements CommandExecutor, TabCompleter {
             case "performance.max-replacements-per-chunk":
             case "max-replacements-per-chunk":
                 return "anti-netherite.performance.max-replacements-per-chunk";
+            case "performance.chunk-scan-budget-ms":
+            case "chunk-scan-budget-ms":
+                return "anti-netherite.performance.chunk-scan-budget-ms";
+            case "performance.audit-chunks-per-tick":
+            case "audit-chunks-per-tick":
+                return "anti-netherite.performance.audit-chunks-per-tick";
+            case "performance.audit-budget-ms":
+            case "audit-budget-ms":
+                return "anti-netherite.performance.audit-budget-ms";
                 
             // Advanced settings
             case "advanced.max-locations-per-world":
@@ -646,6 +1064,9 @@ public class AntiNetheriteCommand implements CommandExecutor, TabCompleter {
             case "detection.use-name-matching":
             case "use-name-matching":
                 return "anti-netherite.detection.use-name-matching";
+            case "detection.match-lore":
+            case "match-lore":
+                return "anti-netherite.detection.match-lore";
                 
             // Timing settings
             case "timing.delay":
@@ -654,6 +1075,9 @@ public class AntiNetheriteCommand implements CommandExecutor, TabCompleter {
             case "timing.multiplier":
             case "multiplier":
                 return "anti-netherite.timing.multiplier";
+            case "timing.full-scan-interval":
+            case "full-scan-interval":
+                return "anti-netherite.timing.full-scan-interval";
                 
             default:
                 return null;
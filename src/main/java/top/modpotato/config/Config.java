@@ -1,9 +1,16 @@
 package top.modpotato.config;
 
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import top.modpotato.Main;
+import top.modpotato.detection.DetectionRule;
+import top.modpotato.policy.PlayerProfile;
+import top.modpotato.policy.WorldProfile;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Configuration manager for AntiNetherite plugin
@@ -14,12 +21,20 @@ public class Config {
     // Configuration values
     private int delay;
     private int multiplier;
+    private int fullScanIntervalSeconds;
     private boolean clearNetherite;
+    private boolean checkEnderChest;
+    private int hopperBackoffThreshold;
+    private int hopperBackoffTicks;
     private boolean cancelCraft;
+    private boolean cancelSmithing;
     private boolean cancelEquip;
     private boolean cancelAttack;
     private boolean cancelPickup;
     private boolean removeDropped;
+    private boolean filterLoot;
+    private boolean filterTrades;
+    private boolean sweepEntities;
     private boolean cancelInventoryMove;
     private boolean cancelContainerTransfer;
     
@@ -29,6 +44,13 @@ public class Config {
     // Netherite detection settings
     private boolean useNameMatching;
     private List<String> netheriteItemsList;
+    private List<String> namePatterns;
+    private boolean matchLore;
+    private List<DetectionRule> detectionRules;
+    private List<WorldProfile> worldProfiles;
+    private List<PlayerProfile> playerProfiles;
+    private int containerDepth;
+    private int verdictCacheSize;
     
     // Ancient Debris settings
     private boolean replaceWhenMined;
@@ -36,11 +58,20 @@ public class Config {
     private boolean onlyReplaceGeneratedChunks;
     private boolean ensureChunksLoaded;
     private boolean saveReplacedLocations;
+    private int scanPolicyVersion;
+    private List<String> scanWorlds;
+    private int scanMinY;
+    private int scanMaxY;
+    private Map<String, int[]> scanWorldWindows;
     
     // Performance settings
     private boolean restoreDebrisOnDisable;
     private boolean restoreDebrisOnConfigChange;
     private int maxReplacementsPerChunk;
+    private int chunkScanBudgetMs;
+    private int scannerThreads;
+    private int auditChunksPerTick;
+    private int auditBudgetMs;
     
     // Advanced settings
     private int maxLocationsPerWorld;
@@ -72,20 +103,28 @@ public class Config {
         // Load timing settings
         delay = config.getInt("anti-netherite.timing.delay", 1);
         multiplier = config.getInt("anti-netherite.timing.multiplier", 20);
+        fullScanIntervalSeconds = config.getInt("anti-netherite.timing.full-scan-interval", 60);
         
         // Load inventory protection settings
         clearNetherite = config.getBoolean("anti-netherite.inventory.clear", false);
+        checkEnderChest = config.getBoolean("anti-netherite.inventory.check-ender-chest", true);
         cancelInventoryMove = config.getBoolean("anti-netherite.inventory.cancel-move", true);
     cancelContainerTransfer = config.getBoolean("anti-netherite.inventory.cancel-container-transfer", true);
+        hopperBackoffThreshold = config.getInt("anti-netherite.inventory.hopper-backoff.threshold", 3);
+        hopperBackoffTicks = config.getInt("anti-netherite.inventory.hopper-backoff.ticks", 200);
         
         // Load item interaction settings
         cancelCraft = config.getBoolean("anti-netherite.interaction.cancel-craft", true);
+        cancelSmithing = config.getBoolean("anti-netherite.interaction.cancel-smithing", true);
         cancelEquip = config.getBoolean("anti-netherite.interaction.cancel-equip", true);
         cancelAttack = config.getBoolean("anti-netherite.interaction.cancel-attack", true);
         
         // Load item handling settings
         cancelPickup = config.getBoolean("anti-netherite.item-handling.cancel-pickup", true);
         removeDropped = config.getBoolean("anti-netherite.item-handling.remove-dropped", true);
+        filterLoot = config.getBoolean("anti-netherite.item-handling.filter-loot", true);
+        filterTrades = config.getBoolean("anti-netherite.item-handling.filter-trades", true);
+        sweepEntities = config.getBoolean("anti-netherite.item-handling.sweep-entities", true);
         
         // Load Ancient Debris settings
         replaceWhenMined = config.getBoolean("anti-netherite.ancient-debris.replace-when-mined", true);
@@ -93,11 +132,31 @@ public class Config {
         onlyReplaceGeneratedChunks = config.getBoolean("anti-netherite.ancient-debris.only-replace-generated-chunks", true);
         ensureChunksLoaded = config.getBoolean("anti-netherite.ancient-debris.ensure-chunks-loaded", true);
         saveReplacedLocations = config.getBoolean("anti-netherite.ancient-debris.save-replaced-locations", true);
+        scanPolicyVersion = config.getInt("anti-netherite.ancient-debris.scan-policy-version", 1);
+        
+        // Load chunk scan bounds
+        scanWorlds = config.getStringList("anti-netherite.ancient-debris.scan-bounds.worlds");
+        scanMinY = config.getInt("anti-netherite.ancient-debris.scan-bounds.min-y", 8);
+        scanMaxY = config.getInt("anti-netherite.ancient-debris.scan-bounds.max-y", 119);
+        scanWorldWindows = new HashMap<>();
+        ConfigurationSection perWorld = config.getConfigurationSection("anti-netherite.ancient-debris.scan-bounds.per-world");
+        if (perWorld != null) {
+            for (String worldName : perWorld.getKeys(false)) {
+                scanWorldWindows.put(worldName, new int[] {
+                    perWorld.getInt(worldName + ".min-y", scanMinY),
+                    perWorld.getInt(worldName + ".max-y", scanMaxY)
+                });
+            }
+        }
         
         // Load performance settings
         restoreDebrisOnDisable = config.getBoolean("anti-netherite.performance.restore-debris-on-disable", false);
         restoreDebrisOnConfigChange = config.getBoolean("anti-netherite.performance.restore-debris-on-config-change", false);
         maxReplacementsPerChunk = config.getInt("anti-netherite.performance.max-replacements-per-chunk", 50);
+        chunkScanBudgetMs = config.getInt("anti-netherite.performance.chunk-scan-budget-ms", 2);
+        scannerThreads = config.getInt("anti-netherite.performance.scanner-threads", 0);
+        auditChunksPerTick = config.getInt("anti-netherite.performance.audit-chunks-per-tick", 8);
+        auditBudgetMs = config.getInt("anti-netherite.performance.audit-budget-ms", 2);
         
         // Load advanced settings
         maxLocationsPerWorld = config.getInt("anti-netherite.advanced.max-locations-per-world", 10000);
@@ -110,6 +169,53 @@ public class Config {
         // Load Netherite detection settings
         useNameMatching = config.getBoolean("anti-netherite.detection.use-name-matching", true);
         netheriteItemsList = config.getStringList("anti-netherite.detection.items");
+        namePatterns = config.getStringList("anti-netherite.detection.name-patterns");
+        matchLore = config.getBoolean("anti-netherite.detection.match-lore", false);
+        containerDepth = config.getInt("anti-netherite.detection.container-depth", 2);
+        verdictCacheSize = config.getInt("anti-netherite.detection.verdict-cache-size", 1024);
+        detectionRules = new ArrayList<>();
+        List<Map<?, ?>> ruleMaps = config.getMapList("anti-netherite.detection.rules");
+        for (int i = 0; i < ruleMaps.size(); i++) {
+            try {
+                detectionRules.add(DetectionRule.parse(i, ruleMaps.get(i)));
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("Skipping detection rule #" + (i + 1) + ": " + e.getMessage());
+            }
+        }
+        
+        // Load per-world policy profiles
+        worldProfiles = new ArrayList<>();
+        ConfigurationSection profilesSection = config.getConfigurationSection("anti-netherite.world-profiles");
+        if (profilesSection != null) {
+            for (String profileName : profilesSection.getKeys(false)) {
+                ConfigurationSection profileSection = profilesSection.getConfigurationSection(profileName);
+                if (profileSection == null) {
+                    continue;
+                }
+                try {
+                    worldProfiles.add(WorldProfile.parse(profileName, profileSection.getValues(false)));
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("Skipping world profile " + profileName + ": " + e.getMessage());
+                }
+            }
+        }
+        
+        // Load permission-group player profiles
+        playerProfiles = new ArrayList<>();
+        ConfigurationSection playerProfilesSection = config.getConfigurationSection("anti-netherite.player-profiles");
+        if (playerProfilesSection != null) {
+            for (String profileName : playerProfilesSection.getKeys(false)) {
+                ConfigurationSection profileSection = playerProfilesSection.getConfigurationSection(profileName);
+                if (profileSection == null) {
+                    continue;
+                }
+                try {
+                    playerProfiles.add(PlayerProfile.parse(profileName, profileSection.getValues(false)));
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warning("Skipping player profile " + profileName + ": " + e.getMessage());
+                }
+            }
+        }
         
         // If the list is empty, add default Netherite items
         if (netheriteItemsList.isEmpty()) {
@@ -160,6 +266,14 @@ public class Config {
         return delay * multiplier;
     }
     
+    /**
+     * Gets how often every player is scanned regardless of whether their inventory was marked dirty
+     * @return The full scan interval in seconds, or 0 to scan every player on every pass
+     */
+    public int getFullScanIntervalSeconds() {
+        return fullScanIntervalSeconds;
+    }
+    
     /**
      * Gets whether destructive actions are enabled
      * @return true if destructive actions are enabled, false otherwise
@@ -181,10 +295,26 @@ public class Config {
         return clearNetherite;
     }
     
+    /**
+     * Gets whether the periodic inventory check also covers ender chests
+     * @return true if ender chests are checked, false otherwise
+     */
+    public boolean isCheckEnderChest() {
+        return checkEnderChest;
+    }
+    
     public boolean isCancelCraft() {
         return cancelCraft;
     }
     
+    /**
+     * Gets whether to clear smithing table results that are Netherite items
+     * @return true if cancelling smithing upgrades, false otherwise
+     */
+    public boolean isCancelSmithing() {
+        return cancelSmithing;
+    }
+    
     public boolean isCancelEquip() {
         return cancelEquip;
     }
@@ -201,6 +331,30 @@ public class Config {
         return removeDropped;
     }
     
+    /**
+     * Gets whether to remove Netherite items from generated loot
+     * @return true if filtering loot, false otherwise
+     */
+    public boolean isFilterLoot() {
+        return filterLoot;
+    }
+    
+    /**
+     * Gets whether to block villager and wandering trader offers that sell Netherite items
+     * @return true if filtering trades, false otherwise
+     */
+    public boolean isFilterTrades() {
+        return filterTrades;
+    }
+    
+    /**
+     * Gets whether to remove Netherite from item entities, item frames and armor stands
+     * @return true if sweeping entities, false otherwise
+     */
+    public boolean isSweepEntities() {
+        return sweepEntities;
+    }
+    
     public boolean isCancelInventoryMove() {
         return cancelInventoryMove;
     }
@@ -213,6 +367,22 @@ public class Config {
         return cancelContainerTransfer;
     }
     
+    /**
+     * Gets how many blocked transfers within the backoff window put a hopper into backoff
+     * @return The backoff threshold, or 0 to disable backoff
+     */
+    public int getHopperBackoffThreshold() {
+        return hopperBackoffThreshold;
+    }
+    
+    /**
+     * Gets how long a backed-off hopper stops transferring, which is also the window blocked transfers are counted in
+     * @return The backoff length in ticks
+     */
+    public int getHopperBackoffTicks() {
+        return hopperBackoffTicks;
+    }
+    
     /**
      * Gets whether to use name matching for Netherite item detection
      * @return true if using name matching, false otherwise
@@ -229,6 +399,62 @@ public class Config {
         return netheriteItemsList;
     }
     
+    /**
+     * Gets the extra patterns matched against item display names and lore
+     * @return The list of name patterns
+     */
+    public List<String> getNamePatterns() {
+        return namePatterns;
+    }
+    
+    /**
+     * Gets whether name patterns are also matched against item lore
+     * @return true if lore is checked, false otherwise
+     */
+    public boolean isMatchLore() {
+        return matchLore;
+    }
+    
+    /**
+     * Gets how many levels of nested shulker boxes and bundles are inspected
+     * @return The container depth, or 0 to only check top-level items
+     */
+    public int getContainerDepth() {
+        return containerDepth;
+    }
+    
+    /**
+     * Gets how many item verdicts are cached
+     * @return The verdict cache size, or 0 to disable the cache
+     */
+    public int getVerdictCacheSize() {
+        return verdictCacheSize;
+    }
+    
+    /**
+     * Gets the compiled detection rules, in configuration order
+     * @return The list of detection rules
+     */
+    public List<DetectionRule> getDetectionRules() {
+        return detectionRules;
+    }
+    
+    /**
+     * Gets the per-world policy profiles, in configuration order
+     * @return The list of world profiles
+     */
+    public List<WorldProfile> getWorldProfiles() {
+        return worldProfiles;
+    }
+    
+    /**
+     * Gets the permission-group player profiles, in configuration order
+     * @return The list of player profiles
+     */
+    public List<PlayerProfile> getPlayerProfiles() {
+        return playerProfiles;
+    }
+    
     /**
      * Gets whether to replace Ancient Debris when mined
      * @return true if replacing Ancient Debris when mined, false otherwise
@@ -277,6 +503,38 @@ public class Config {
         return maxReplacementsPerChunk;
     }
     
+    /**
+     * Gets the time budget per tick for draining the chunk scan queue
+     * @return The chunk scan budget in milliseconds
+     */
+    public int getChunkScanBudgetMs() {
+        return chunkScanBudgetMs;
+    }
+    
+    /**
+     * Gets how many chunks a container audit works through per tick
+     * @return The number of chunks per tick
+     */
+    public int getAuditChunksPerTick() {
+        return auditChunksPerTick;
+    }
+    
+    /**
+     * Gets the time budget per tick for a container audit on Paper
+     * @return The audit budget in milliseconds
+     */
+    public int getAuditBudgetMs() {
+        return auditBudgetMs;
+    }
+    
+    /**
+     * Gets the number of threads used for scanning chunk snapshots
+     * @return The number of scanner threads, or 0 to use all but one core
+     */
+    public int getScannerThreads() {
+        return scannerThreads;
+    }
+    
     /**
      * Gets the maximum number of locations to store per world
      * @return The maximum number of locations per world
@@ -325,6 +583,46 @@ public class Config {
         return saveReplacedLocations;
     }
     
+    /**
+     * Gets the configured scan policy version that scanned chunks are marked with
+     * @return The scan policy version
+     */
+    public int getScanPolicyVersion() {
+        return scanPolicyVersion;
+    }
+    
+    /**
+     * Gets the worlds whose chunks are scanned for Ancient Debris
+     * @return The world names, or an empty list to scan every Nether world
+     */
+    public List<String> getScanWorlds() {
+        return scanWorlds;
+    }
+    
+    /**
+     * Gets the default lowest Y level scanned for Ancient Debris
+     * @return The minimum Y (inclusive)
+     */
+    public int getScanMinY() {
+        return scanMinY;
+    }
+    
+    /**
+     * Gets the default highest Y level scanned for Ancient Debris
+     * @return The maximum Y (inclusive)
+     */
+    public int getScanMaxY() {
+        return scanMaxY;
+    }
+    
+    /**
+     * Gets the per-world Y windows that override the default scan range
+     * @return Map of world name to {min-y, max-y}
+     */
+    public Map<String, int[]> getScanWorldWindows() {
+        return scanWorldWindows;
+    }
+    
     /**
      * Gets whether to ignore players in creative or spectator mode
      * @return true if ignoring creative and spectator players, false otherwise
@@ -0,0 +1,30 @@
+package top.modpotato.config;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Helpers for reading values out of raw configuration maps, such as the entries of {@code getMapList}
+ */
+public final class ConfigValues {
+    private ConfigValues() {
+    }
+
+    /**
+     * Reads a value that may be written as a single string or as a list
+     * @param value The raw value
+     * @return The value's elements as strings, or an empty list if the value is missing
+     */
+    public static List<String> asStrings(Object value) {
+        if (value instanceof Collection) {
+            List<String> strings = new ArrayList<>();
+            for (Object element : (Collection<?>) value) {
+                strings.add(String.valueOf(element));
+            }
+            return strings;
+        }
+        return value == null ? Collections.emptyList() : Collections.singletonList(value.toString());
+    }
+}
@@ -0,0 +1,241 @@
+package top.modpotato.detection;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Registry;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import top.modpotato.config.ConfigValues;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One compiled entry of {@code detection.rules}.
+ * A rule matches when the item's material is in the rule's material list (if it has one)
+ * and every meta condition holds. Meta conditions are sorted cheapest first, so the
+ * display name and lore are only serialized when the cheaper checks have already passed.
+ */
+public final class DetectionRule {
+    private final String name;
+    private final String reason;
+    private final Set<Material> materials;
+    private final MetaCondition[] conditions;
+
+    /**
+     * A check against the item meta, with a rough relative cost used for ordering
+     */
+    private interface MetaCondition {
+        boolean test(ItemText text);
+
+        int cost();
+    }
+
+    private DetectionRule(String name, Set<Material> materials, List<MetaCondition> conditions) {
+        this.name = name;
+        this.reason = "rule:" + name;
+        this.materials = materials;
+        conditions.sort(Comparator.comparingInt(MetaCondition::cost));
+        this.conditions = conditions.toArray(new MetaCondition[0]);
+    }
+
+    /**
+     * Parses a rule from its configuration map
+     * @param index The position of the rule in the list, used to name unnamed rules
+     * @param map The rule's configuration
+     * @return The compiled rule
+     * @throws IllegalArgumentException If the rule is invalid
+     */
+    public static DetectionRule parse(int index, Map<?, ?> map) {
+        Object nameValue = map.get("name");
+        String name = nameValue != null ? nameValue.toString() : "rule-" + (index + 1);
+
+        // Material pre-filter; no list means the rule applies to every material
+        Set<Material> materials = null;
+        if (map.containsKey("materials")) {
+            materials = EnumSet.noneOf(Material.class);
+            for (String materialName : ConfigValues.asStrings(map.get("materials"))) {
+                Material material = Material.matchMaterial(materialName);
+                if (material == null) {
+                    throw new IllegalArgumentException("unknown material " + materialName);
+                }
+                materials.add(material);
+            }
+        }
+
+        List<MetaCondition> conditions = new ArrayList<>();
+
+        if (map.containsKey("custom-model-data")) {
+            int[] range = parseRange(map.get("custom-model-data").toString());
+            conditions.add(new MetaCondition() {
+                @Override
+                public boolean test(ItemText text) {
+                    // Since 1.21.4 custom model data is a component of float lists; the old integer value
+                    // is its first float, so any float in range matches
+                    ItemMeta meta = text.getMeta();
+                    if (!meta.hasCustomModelDataComponent()) {
+                        return false;
+                    }
+                    for (Float value : meta.getCustomModelDataComponent().getFloats()) {
+                        if (value != null && value >= range[0] && value <= range[1]) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+
+                @Override
+                public int cost() {
+                    return 1;
+                }
+            });
+        }
+
+        if (map.containsKey("pdc-key")) {
+            NamespacedKey key = NamespacedKey.fromString(map.get("pdc-key").toString().toLowerCase());
+            if (key == null) {
+                throw new IllegalArgumentException("invalid pdc-key " + map.get("pdc-key"));
+            }
+            conditions.add(new MetaCondition() {
+                @Override
+                public boolean test(ItemText text) {
+                    return text.getMeta().getPersistentDataContainer().has(key);
+                }
+
+                @Override
+                public int cost() {
+                    return 2;
+                }
+            });
+        }
+
+        if (map.containsKey("enchantment")) {
+            String enchantmentName = map.get("enchantment").toString().toLowerCase();
+            NamespacedKey key = NamespacedKey.fromString(enchantmentName);
+            Enchantment enchantment = key != null ? Registry.ENCHANTMENT.get(key) : null;
+            if (enchantment == null) {
+                throw new IllegalArgumentException("unknown enchantment " + enchantmentName);
+            }
+            conditions.add(new MetaCondition() {
+                @Override
+                public boolean test(ItemText text) {
+                    return text.getMeta().hasEnchant(enchantment);
+                }
+
+                @Override
+                public int cost() {
+                    return 2;
+                }
+            });
+        }
+
+        if (map.containsKey("display-name")) {
+            PatternMatcher matcher = PatternMatcher.compile(ConfigValues.asStrings(map.get("display-name")));
+            conditions.add(new MetaCondition() {
+                @Override
+                public boolean test(ItemText text) {
+                    return matcher.find(text.getDisplayName()) != -1;
+                }
+
+                @Override
+                public int cost() {
+                    return 3;
+                }
+            });
+        }
+
+        if (map.containsKey("lore")) {
+            PatternMatcher matcher = PatternMatcher.compile(ConfigValues.asStrings(map.get("lore")));
+            conditions.add(new MetaCondition() {
+                @Override
+                public boolean test(ItemText text) {
+                    for (String line : text.getLore()) {
+                        if (matcher.find(line) != -1) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+
+                @Override
+                public int cost() {
+                    return 4;
+                }
+            });
+        }
+
+        if (materials == null && conditions.isEmpty()) {
+            throw new IllegalArgumentException("rule has no conditions");
+        }
+
+        return new DetectionRule(name, materials, conditions);
+    }
+
+    /**
+     * Gets the name of the rule
+     * @return The rule name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the match reason reported when this rule fires
+     * @return The match reason
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * Gets whether the rule applies to a material
+     * @param material The material
+     * @return true if the material passes the rule's material pre-filter
+     */
+    public boolean appliesTo(Material material) {
+        return materials == null || materials.contains(material);
+    }
+
+    /**
+     * Gets whether the rule is decided by the material alone
+     * @return true if the rule has no meta conditions
+     */
+    public boolean isMaterialOnly() {
+        return conditions.length == 0;
+    }
+
+    /**
+     * Checks the rule's meta conditions, cheapest first
+     * @param text The item being evaluated
+     * @return true if every condition holds
+     */
+    public boolean matches(ItemText text) {
+        for (MetaCondition condition : conditions) {
+            if (!condition.test(text)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] parseRange(String value) {
+        try {
+            int dash = value.indexOf('-', 1);
+            if (dash == -1) {
+                int single = Integer.parseInt(value.trim());
+                return new int[] {single, single};
+            }
+            return new int[] {
+                Integer.parseInt(value.substring(0, dash).trim()),
+                Integer.parseInt(value.substring(dash + 1).trim())
+            };
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid custom-model-data range " + value);
+        }
+    }
+}
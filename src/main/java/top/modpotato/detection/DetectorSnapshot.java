@@ -0,0 +1,447 @@
+package top.modpotato.detection;
+
+import io.papermc.paper.datacomponent.DataComponentTypes;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.block.ShulkerBox;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.BlockStateMeta;
+import org.bukkit.inventory.meta.BundleMeta;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import top.modpotato.config.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable compiled detection policy.
+ * A snapshot is built from the configuration in one go and never changed afterwards, so any number of
+ * threads can evaluate items against it without locking and always see one consistent policy.
+ * The only mutable state is the container verdict memo, which belongs to this snapshot and is dropped with it.
+ */
+public final class DetectorSnapshot {
+    private static final int MAX_CONTAINER_VERDICTS = 4096;
+    private static final String HOLDS_NETHERITE = "nested";
+
+    private final long version;
+    private final int profileSlot;
+    private final Set<String> netheriteItemNames;
+    private final Set<Material> netheriteItemMaterials;
+
+    // Reason reported for each material by ordinal, or null if the material alone doesn't match
+    private final String[] materialReasons;
+    private final PatternMatcher nameMatcher;
+    private final RuleTree ruleTree;
+    private final boolean matchLore;
+
+    // Container inspection
+    private final boolean[] containerMaterials;
+    private final int containerDepth;
+    private final VerdictCache containerVerdicts = new VerdictCache(MAX_CONTAINER_VERDICTS);
+
+    // Materials that match on their own, and materials that can only match through their meta or contents
+    private final boolean[] materialMatches;
+    private final boolean[] metaCandidates;
+
+    // Shared across snapshots; entries are tagged with the version that produced them
+    private final VerdictCache verdictCache;
+
+    private DetectorSnapshot(long version, int profileSlot, Set<String> netheriteItemNames, Set<Material> netheriteItemMaterials,
+                             String[] materialReasons, PatternMatcher nameMatcher, RuleTree ruleTree, boolean matchLore,
+                             boolean[] containerMaterials, int containerDepth, VerdictCache verdictCache) {
+        this.version = version;
+        this.profileSlot = profileSlot;
+        this.netheriteItemNames = netheriteItemNames;
+        this.netheriteItemMaterials = netheriteItemMaterials;
+        this.materialReasons = materialReasons;
+        this.nameMatcher = nameMatcher;
+        this.ruleTree = ruleTree;
+        this.matchLore = matchLore;
+        this.containerMaterials = containerMaterials;
+        this.containerDepth = containerDepth;
+        this.verdictCache = verdictCache;
+
+        Material[] materials = Material.values();
+        this.materialMatches = new boolean[materials.length];
+        this.metaCandidates = new boolean[materials.length];
+        for (Material material : materials) {
+            int ordinal = material.ordinal();
+            materialMatches[ordinal] = materialReasons[ordinal] != null;
+            // Name patterns apply to every material, but only through a display name or lore, which needs meta
+            metaCandidates[ordinal] = !material.isAir() && (containerMaterials[ordinal] || !nameMatcher.isEmpty()
+                    || ruleTree.needsMeta(material));
+        }
+    }
+
+    /**
+     * Compiles a snapshot from the configuration
+     * @param config The plugin configuration
+     * @param version The version number of the new snapshot
+     * @param verdictCache The verdict cache shared by all snapshots
+     * @return The compiled snapshot
+     */
+    public static DetectorSnapshot compile(Config config, long version, VerdictCache verdictCache) {
+        return compile(config, config.getNetheriteItemsList(), 0, version, verdictCache);
+    }
+
+    /**
+     * Compiles a snapshot for a world profile with its own item list
+     * @param config The plugin configuration
+     * @param customItems The item list to use instead of {@code detection.items}
+     * @param profileSlot A number distinguishing this profile's cached verdicts from other profiles of the same version
+     * @param version The version number of the new snapshot
+     * @param verdictCache The verdict cache shared by all snapshots
+     * @return The compiled snapshot
+     */
+    public static DetectorSnapshot compile(Config config, List<String> customItems, int profileSlot, long version, VerdictCache verdictCache) {
+        boolean useNameMatching = config.isUseNameMatching();
+        Set<String> names = new HashSet<>();
+        Set<Material> itemMaterials = new HashSet<>();
+
+        // Add custom item names from config
+        if (customItems != null) {
+            names.addAll(customItems);
+        }
+
+        // Add material enums if they exist
+        for (String itemName : names) {
+            try {
+                Material material = Material.valueOf(itemName.toUpperCase());
+                itemMaterials.add(material);
+            } catch (IllegalArgumentException ignored) {
+                // Material doesn't exist, that's fine
+            }
+        }
+
+        // Add default Netherite materials if using name matching
+        Material[] materials = Material.values();
+        if (useNameMatching) {
+            for (Material material : materials) {
+                if (material.name().contains("NETHERITE")) {
+                    itemMaterials.add(material);
+                    names.add(material.name());
+                }
+            }
+        }
+
+        // The type-name check only depends on the material, so fold it into the material verdicts
+        String[] reasons = new String[materials.length];
+        for (Material material : materials) {
+            if (itemMaterials.contains(material)) {
+                reasons[material.ordinal()] = "material:" + material.name();
+            } else if (useNameMatching) {
+                String typeName = material.name();
+                for (String netheriteItemName : names) {
+                    if (typeName.contains(netheriteItemName)) {
+                        reasons[material.ordinal()] = "type-name:" + netheriteItemName;
+                        break;
+                    }
+                }
+            }
+        }
+
+        // Rules decided by material alone share the same table
+        RuleTree rules = RuleTree.compile(config.getDetectionRules());
+        for (Material material : materials) {
+            if (reasons[material.ordinal()] == null) {
+                reasons[material.ordinal()] = rules.getMaterialReason(material);
+            }
+        }
+
+        // Item names only match display names when name matching is on; explicit name patterns always do
+        List<String> patterns = new ArrayList<>();
+        if (useNameMatching) {
+            patterns.addAll(names);
+        }
+        patterns.addAll(config.getNamePatterns());
+
+        // Shulker boxes and bundles can hold other items
+        boolean[] containers = new boolean[materials.length];
+        for (Material material : materials) {
+            String name = material.name();
+            containers[material.ordinal()] = !name.startsWith("LEGACY_") && (name.endsWith("SHULKER_BOX") || name.endsWith("BUNDLE"));
+        }
+
+        return new DetectorSnapshot(version, profileSlot, Collections.unmodifiableSet(names), Collections.unmodifiableSet(itemMaterials),
+                reasons, PatternMatcher.compile(patterns), rules, config.isMatchLore(),
+                containers, Math.max(0, config.getContainerDepth()), verdictCache);
+    }
+
+    /**
+     * Gets the version of this snapshot; it increases with every reload
+     * @return The snapshot version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Checks whether an item could match at all, without copying its meta.
+     * An item is a candidate if its material matches on its own, or if a name pattern, meta rule or container check
+     * applies to its material and the item carries meta; items without meta, like plain stacks of blocks, are
+     * skipped even when name matching is on. Used as a cheap pre-filter so scans only evaluate candidate slots.
+     * @param item The item
+     * @return true if the item needs a full check
+     */
+    public boolean isCandidate(ItemStack item) {
+        if (item == null) {
+            return false;
+        }
+        int ordinal = item.getType().ordinal();
+        return materialMatches[ordinal] || (metaCandidates[ordinal] && item.hasItemMeta());
+    }
+
+    /**
+     * Checks if an item is a Netherite item
+     * @param item The item to check
+     * @return true if the item is a Netherite item, false otherwise
+     */
+    public boolean isNetheriteItem(ItemStack item) {
+        return getMatchReason(item) != null;
+    }
+
+    /**
+     * Gets the rule that makes an item a Netherite item, for logging and audits
+     * @param item The item to check
+     * @return A description of the rule that fired, such as "material:NETHERITE_SWORD" or "name:netherite",
+     *         or null if the item is not a Netherite item
+     */
+    public String getMatchReason(ItemStack item) {
+        if (item == null) {
+            return null;
+        }
+
+        // Check by material, type name and material-only rules (single array load)
+        Material type = item.getType();
+        String reason = materialReasons[type.ordinal()];
+        if (reason != null) {
+            return reason;
+        }
+
+        // Only read the meta if a rule or name pattern could still match; items without meta stop here without copying it
+        boolean rulesNeedMeta = ruleTree.needsMeta(type);
+        if ((nameMatcher.isEmpty() && !rulesNeedMeta) || !item.hasItemMeta()) {
+            return null;
+        }
+
+        // Name patterns only read the custom name and lore, which can be checked on the item without copying its meta,
+        // so damaged or enchanted gear with neither stops here
+        if (!rulesNeedMeta && !item.hasData(DataComponentTypes.CUSTOM_NAME)
+                && !(matchLore && item.hasData(DataComponentTypes.LORE))) {
+            return null;
+        }
+
+        // The meta is copied once. A hit skips the plain-text serialization of the name and lore, the pattern scans
+        // and the rule checks; it still pays for the copy and the fingerprint. Profiles compiled for the same version
+        // share the cache, so their verdicts are told apart by slot
+        ItemMeta meta = item.getItemMeta();
+        VerdictCache.Key key = VerdictCache.key(type.ordinal(), profileSlot, fingerprint(meta, rulesNeedMeta));
+        String cached = verdictCache.get(version, key);
+        if (cached != null) {
+            return cached.isEmpty() ? null : cached;
+        }
+
+        reason = matchMeta(type, new ItemText(meta));
+        verdictCache.put(version, key, reason);
+        return reason;
+    }
+
+    /**
+     * Takes the parts of an item's meta a verdict can depend on, for use as a cache key
+     * Name patterns only read the display name and lore; meta rules also read custom model data, data container keys
+     * and enchantments. The parts are kept as values, not hashes, so a hit is exact without holding the whole meta.
+     */
+    private MetaFingerprint fingerprint(ItemMeta meta, boolean rulesNeedMeta) {
+        Component displayName = meta.hasDisplayName() ? meta.displayName() : null;
+        List<Component> lore = (matchLore || rulesNeedMeta) && meta.hasLore() ? meta.lore() : null;
+        if (!rulesNeedMeta) {
+            return new MetaFingerprint(displayName, lore, null, null, null);
+        }
+
+        List<Float> modelData = meta.hasCustomModelDataComponent() ? meta.getCustomModelDataComponent().getFloats() : null;
+        return new MetaFingerprint(displayName, lore, modelData, meta.getPersistentDataContainer().getKeys(),
+                meta.getEnchants().keySet());
+    }
+
+    /**
+     * The meta values an item verdict was computed from; parts the policy doesn't read are null
+     */
+    private record MetaFingerprint(Component displayName, List<Component> lore, List<Float> modelData,
+                                   Set<NamespacedKey> dataKeys, Set<Enchantment> enchantments) {
+    }
+
+    /**
+     * Evaluates the meta rules and name patterns against an item's meta
+     * @param type The item's material
+     * @param text The item's meta, with its text serialized at most once for all checks
+     * @return The match reason, or null if nothing matches
+     */
+    private String matchMeta(Material type, ItemText text) {
+        String reason = ruleTree.matchMeta(type, text);
+        if (reason != null) {
+            return reason;
+        }
+
+        if (nameMatcher.isEmpty()) {
+            return null;
+        }
+
+        int match = nameMatcher.find(text.getDisplayName());
+        if (match != -1) {
+            return "name:" + nameMatcher.getPattern(match);
+        }
+
+        if (matchLore) {
+            for (String line : text.getLore()) {
+                match = nameMatcher.find(line);
+                if (match != -1) {
+                    return "lore:" + nameMatcher.getPattern(match);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Checks if an item is a Netherite item or a container holding one
+     * @param item The item to check
+     * @return true if the item or anything nested inside it is a Netherite item
+     */
+    public boolean containsNetherite(ItemStack item) {
+        return isNetheriteItem(item) || hasNestedNetherite(item);
+    }
+
+    /**
+     * Checks if a shulker box or bundle holds a Netherite item, up to the configured depth
+     * @param item The item to check
+     * @return true if a nested item is a Netherite item
+     */
+    public boolean hasNestedNetherite(ItemStack item) {
+        return hasNestedNetherite(item, containerDepth);
+    }
+
+    private boolean hasNestedNetherite(ItemStack item, int depth) {
+        if (depth <= 0 || item == null || !containerMaterials[item.getType().ordinal()] || !item.hasItemMeta()) {
+            return false;
+        }
+
+        ItemMeta meta = item.getItemMeta();
+
+        // The contents are the verdict's input and live in the meta, so this memo is keyed on the whole meta;
+        // a hit needs an equal meta, so a container can't borrow the verdict of another with the same hash
+        VerdictCache.Key key = VerdictCache.key(item.getType().ordinal(), depth, meta);
+        String cached = containerVerdicts.get(version, key);
+        if (cached != null) {
+            return !cached.isEmpty();
+        }
+
+        boolean verdict = false;
+        for (ItemStack nested : getContents(meta)) {
+            if (nested != null && (isNetheriteItem(nested) || hasNestedNetherite(nested, depth - 1))) {
+                verdict = true;
+                break;
+            }
+        }
+
+        containerVerdicts.put(version, key, verdict ? HOLDS_NETHERITE : null);
+        return verdict;
+    }
+
+    /**
+     * Removes the Netherite items nested in a shulker box or bundle, leaving the container and its other contents.
+     * The item's meta is updated in place; callers holding a copy must write it back to the inventory.
+     * @param item The container item
+     * @return The number of nested stacks removed
+     */
+    public int removeNestedNetherite(ItemStack item) {
+        return removeNestedNetherite(item, containerDepth);
+    }
+
+    private int removeNestedNetherite(ItemStack item, int depth) {
+        // The memoized check keeps clean containers from being rebuilt
+        if (!hasNestedNetherite(item, depth)) {
+            return 0;
+        }
+
+        ItemMeta meta = item.getItemMeta();
+        int removed = 0;
+
+        if (meta instanceof BlockStateMeta blockStateMeta && blockStateMeta.getBlockState() instanceof ShulkerBox shulkerBox) {
+            Inventory inventory = shulkerBox.getInventory();
+            for (int i = 0; i < inventory.getSize(); i++) {
+                ItemStack nested = inventory.getItem(i);
+                if (nested == null) {
+                    continue;
+                }
+                if (isNetheriteItem(nested)) {
+                    inventory.setItem(i, null);
+                    removed++;
+                } else {
+                    int nestedRemoved = removeNestedNetherite(nested, depth - 1);
+                    if (nestedRemoved > 0) {
+                        inventory.setItem(i, nested);
+                        removed += nestedRemoved;
+                    }
+                }
+            }
+            blockStateMeta.setBlockState(shulkerBox);
+        } else if (meta instanceof BundleMeta bundleMeta) {
+            List<ItemStack> kept = new ArrayList<>();
+            for (ItemStack nested : bundleMeta.getItems()) {
+                if (isNetheriteItem(nested)) {
+                    removed++;
+                } else {
+                    removed += removeNestedNetherite(nested, depth - 1);
+                    kept.add(nested);
+                }
+            }
+            bundleMeta.setItems(kept);
+        }
+
+        if (removed > 0) {
+            item.setItemMeta(meta);
+        }
+        return removed;
+    }
+
+    /**
+     * Gets the items stored in a container item's meta
+     * @param meta The item meta
+     * @return The stored items, possibly containing nulls
+     */
+    private static List<ItemStack> getContents(ItemMeta meta) {
+        if (meta instanceof BlockStateMeta blockStateMeta && blockStateMeta.hasBlockState()
+                && blockStateMeta.getBlockState() instanceof ShulkerBox shulkerBox) {
+            return Arrays.asList(shulkerBox.getInventory().getContents());
+        }
+        if (meta instanceof BundleMeta bundleMeta) {
+            return bundleMeta.getItems();
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Gets the set of Netherite item names
+     * @return The unmodifiable set of Netherite item names
+     */
+    public Set<String> getNetheriteItemNames() {
+        return netheriteItemNames;
+    }
+
+    /**
+     * Gets the set of Netherite item materials
+     * @return The unmodifiable set of Netherite item materials
+     */
+    public Set<Material> getNetheriteItemMaterials() {
+        return netheriteItemMaterials;
+    }
+}
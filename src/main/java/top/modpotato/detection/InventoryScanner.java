@@ -0,0 +1,114 @@
+package top.modpotato.detection;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Single-pass inventory scanning shared by the inventory sweep, the count path and audits.
+ * Each slot is read once by index, which for a player inventory also covers the armor and offhand slots;
+ * slots whose material can't match are skipped before any meta is read, and matches are cleared by index.
+ */
+public final class InventoryScanner {
+    private static final Predicate<Material> ALLOW_NONE = material -> false;
+
+    private InventoryScanner() {
+    }
+
+    /**
+     * Removes Netherite items from an inventory, including items nested in shulker boxes and bundles
+     * @param snapshot The detection policy to apply
+     * @param inventory The inventory to clean
+     * @return The number of stacks removed
+     */
+    public static int remove(DetectorSnapshot snapshot, Inventory inventory) {
+        return remove(snapshot, inventory, ALLOW_NONE);
+    }
+
+    /**
+     * Removes Netherite items from an inventory, keeping top-level stacks of allowed materials
+     * Allowed stacks are kept as they are; Netherite nested in containers is still removed.
+     * @param snapshot The detection policy to apply
+     * @param inventory The inventory to clean
+     * @param allowed Materials the inventory's owner may keep
+     * @return The number of stacks removed
+     */
+    public static int remove(DetectorSnapshot snapshot, Inventory inventory, Predicate<Material> allowed) {
+        int removed = 0;
+
+        for (int slot = 0, size = inventory.getSize(); slot < size; slot++) {
+            ItemStack item = inventory.getItem(slot);
+            if (item == null || !snapshot.isCandidate(item)) {
+                continue;
+            }
+
+            if (snapshot.isNetheriteItem(item) && !allowed.test(item.getType())) {
+                inventory.setItem(slot, null);
+                removed++;
+                continue;
+            }
+
+            // Only the nested Netherite is removed; the container, allowed or not, keeps its other contents
+            int nestedRemoved = snapshot.removeNestedNetherite(item);
+            if (nestedRemoved > 0) {
+                inventory.setItem(slot, item);
+                removed += nestedRemoved;
+            }
+        }
+
+        return removed;
+    }
+
+    /**
+     * Counts the slots holding a Netherite item or a container with one inside
+     * @param snapshot The detection policy to apply
+     * @param inventory The inventory to check
+     * @return The number of matching slots
+     */
+    public static int count(DetectorSnapshot snapshot, Inventory inventory) {
+        return count(snapshot, inventory, ALLOW_NONE);
+    }
+
+    /**
+     * Counts the slots holding a Netherite item or a container with one inside
+     * Stacks of allowed materials only count if Netherite is nested inside them, matching what {@link #remove} takes out.
+     * @param snapshot The detection policy to apply
+     * @param inventory The inventory to check
+     * @param allowed Materials the inventory's owner may keep
+     * @return The number of matching slots
+     */
+    public static int count(DetectorSnapshot snapshot, Inventory inventory, Predicate<Material> allowed) {
+        int count = 0;
+
+        for (int slot = 0, size = inventory.getSize(); slot < size; slot++) {
+            ItemStack item = inventory.getItem(slot);
+            if (item == null || !snapshot.isCandidate(item)) {
+                continue;
+            }
+            boolean match = allowed.test(item.getType()) ? snapshot.hasNestedNetherite(item) : snapshot.containsNetherite(item);
+            if (match) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Visits every slot holding a Netherite item or a container with one inside
+     * @param snapshot The detection policy to apply
+     * @param inventory The inventory to check
+     * @param visitor Called with each matching item and its slot index
+     */
+    public static void forEachMatch(DetectorSnapshot snapshot, Inventory inventory, ObjIntConsumer<ItemStack> visitor) {
+        for (int slot = 0, size = inventory.getSize(); slot < size; slot++) {
+            ItemStack item = inventory.getItem(slot);
+            if (item != null && snapshot.isCandidate(item) && snapshot.containsNetherite(item)) {
+                visitor.accept(item, slot);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package top.modpotato.detection;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The meta of one item being evaluated, with its display name and lore serialized to plain text on first use.
+ * Lets every rule and the name matcher share a single {@code getItemMeta()} copy and a single serialization.
+ */
+public final class ItemText {
+    private final ItemMeta meta;
+    private String displayName;
+    private boolean displayNameResolved;
+    private List<String> lore;
+
+    /**
+     * Creates a new ItemText
+     * @param meta The item meta, read once by the caller
+     */
+    public ItemText(ItemMeta meta) {
+        this.meta = meta;
+    }
+
+    /**
+     * Gets the item meta
+     * @return The item meta
+     */
+    public ItemMeta getMeta() {
+        return meta;
+    }
+
+    /**
+     * Gets the plain-text display name
+     * @return The display name, or null if the item has none
+     */
+    public String getDisplayName() {
+        if (!displayNameResolved) {
+            displayNameResolved = true;
+            if (meta.hasDisplayName()) {
+                displayName = PlainTextComponentSerializer.plainText().serialize(meta.displayName());
+            }
+        }
+        return displayName;
+    }
+
+    /**
+     * Gets the plain-text lore lines
+     * @return The lore lines, empty if the item has none
+     */
+    public List<String> getLore() {
+        if (lore == null) {
+            if (meta.hasLore()) {
+                List<String> lines = new ArrayList<>();
+                for (Component line : meta.lore()) {
+                    lines.add(PlainTextComponentSerializer.plainText().serialize(line));
+                }
+                lore = lines;
+            } else {
+                lore = Collections.emptyList();
+            }
+        }
+        return lore;
+    }
+}
@@ -0,0 +1,168 @@
+package top.modpotato.detection;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeSet;
+
+/**
+ * Case-insensitive multi-pattern substring matcher.
+ * The patterns are compiled into a single Aho-Corasick automaton, flattened into a transition table,
+ * so a text is checked against every pattern in one linear pass regardless of how many patterns there are.
+ * Instances are immutable and safe to share between threads.
+ */
+public final class PatternMatcher {
+    private static final PatternMatcher EMPTY = new PatternMatcher(new String[0], new char[0], new int[1], new int[] {-1});
+
+    private final String[] patterns;
+    // Sorted distinct folded characters of all patterns; a character's index + 1 is its column in the table
+    private final char[] alphabet;
+    // transitions[state * (alphabet.length + 1) + column] is the next state; column 0 is any other character
+    private final int[] transitions;
+    // Index of the pattern that ends at a state (following failure links), or -1
+    private final int[] matches;
+
+    private PatternMatcher(String[] patterns, char[] alphabet, int[] transitions, int[] matches) {
+        this.patterns = patterns;
+        this.alphabet = alphabet;
+        this.transitions = transitions;
+        this.matches = matches;
+    }
+
+    /**
+     * Compiles a set of patterns; empty and duplicate patterns are ignored
+     * @param patterns The patterns to match
+     * @return The compiled matcher
+     */
+    public static PatternMatcher compile(Collection<String> patterns) {
+        List<String> kept = new ArrayList<>();
+        TreeSet<Character> characters = new TreeSet<>();
+        for (String pattern : patterns) {
+            if (pattern == null || pattern.isEmpty() || kept.contains(pattern)) {
+                continue;
+            }
+            kept.add(pattern);
+            for (int i = 0; i < pattern.length(); i++) {
+                characters.add(fold(pattern.charAt(i)));
+            }
+        }
+        if (kept.isEmpty()) {
+            return EMPTY;
+        }
+
+        char[] alphabet = new char[characters.size()];
+        int a = 0;
+        for (char c : characters) {
+            alphabet[a++] = c;
+        }
+
+        // Build the trie
+        List<Map<Character, Integer>> trie = new ArrayList<>();
+        List<Integer> output = new ArrayList<>();
+        trie.add(new HashMap<>());
+        output.add(-1);
+        for (int p = 0; p < kept.size(); p++) {
+            String pattern = kept.get(p);
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = fold(pattern.charAt(i));
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.get(state).put(c, next);
+                    trie.add(new HashMap<>());
+                    output.add(-1);
+                }
+                state = next;
+            }
+            // Keep the first pattern that ends here, so configuration order decides which rule is reported
+            if (output.get(state) == -1) {
+                output.set(state, p);
+            }
+        }
+
+        // Breadth-first pass computing failure links and the flattened transition table
+        int width = alphabet.length + 1;
+        int[] transitions = new int[trie.size() * width];
+        int[] failure = new int[trie.size()];
+        int[] matches = new int[trie.size()];
+        matches[0] = output.get(0);
+
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int column = 1; column < width; column++) {
+            Integer child = trie.get(0).get(alphabet[column - 1]);
+            if (child != null) {
+                failure[child] = 0;
+                matches[child] = output.get(child);
+                transitions[column] = child;
+                queue.add(child);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int column = 1; column < width; column++) {
+                Integer child = trie.get(state).get(alphabet[column - 1]);
+                int fallback = transitions[failure[state] * width + column];
+                if (child == null) {
+                    transitions[state * width + column] = fallback;
+                    continue;
+                }
+                failure[child] = fallback;
+                matches[child] = output.get(child) != -1 ? output.get(child) : matches[fallback];
+                transitions[state * width + column] = child;
+                queue.add(child);
+            }
+        }
+
+        return new PatternMatcher(kept.toArray(new String[0]), alphabet, transitions, matches);
+    }
+
+    /**
+     * Finds the pattern occurrence that ends earliest in a text, ignoring case
+     * @param text The text to search
+     * @return The index of the matching pattern, or -1 if none occurs
+     */
+    public int find(CharSequence text) {
+        if (patterns.length == 0 || text == null) {
+            return -1;
+        }
+
+        int width = alphabet.length + 1;
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            int column = Arrays.binarySearch(alphabet, fold(text.charAt(i))) + 1;
+            state = column > 0 ? transitions[state * width + column] : 0;
+            if (matches[state] != -1) {
+                return matches[state];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets a compiled pattern
+     * @param index The pattern index returned by {@link #find(CharSequence)}
+     * @return The pattern as configured
+     */
+    public String getPattern(int index) {
+        return patterns[index];
+    }
+
+    /**
+     * Gets whether the matcher has no patterns and never matches
+     * @return true if there are no patterns
+     */
+    public boolean isEmpty() {
+        return patterns.length == 0;
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
@@ -0,0 +1,103 @@
+package top.modpotato.detection;
+
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The configured detection rules compiled into a per-material decision table.
+ * The first level is indexed by material ordinal: rules decided by material alone are resolved there,
+ * and each material keeps only the rules that can still apply to it, in configuration order.
+ * Materials that no meta rule applies to are decided without reading the item meta.
+ */
+public final class RuleTree {
+    private static final DetectionRule[] NO_RULES = new DetectionRule[0];
+
+    private final String[] materialReasons;
+    private final DetectionRule[][] metaRules;
+    private final int ruleCount;
+
+    private RuleTree(String[] materialReasons, DetectionRule[][] metaRules, int ruleCount) {
+        this.materialReasons = materialReasons;
+        this.metaRules = metaRules;
+        this.ruleCount = ruleCount;
+    }
+
+    /**
+     * Compiles a list of rules
+     * @param rules The rules in configuration order
+     * @return The compiled tree
+     */
+    public static RuleTree compile(List<DetectionRule> rules) {
+        Material[] materials = Material.values();
+        String[] materialReasons = new String[materials.length];
+        DetectionRule[][] metaRules = new DetectionRule[materials.length][];
+
+        // Materials with the same candidate rules share one array
+        Map<List<DetectionRule>, DetectionRule[]> shared = new HashMap<>();
+
+        for (Material material : materials) {
+            List<DetectionRule> candidates = new ArrayList<>();
+            for (DetectionRule rule : rules) {
+                if (!rule.appliesTo(material)) {
+                    continue;
+                }
+                if (rule.isMaterialOnly()) {
+                    materialReasons[material.ordinal()] = rule.getReason();
+                    candidates.clear();
+                    break;
+                }
+                candidates.add(rule);
+            }
+            metaRules[material.ordinal()] = candidates.isEmpty()
+                    ? NO_RULES
+                    : shared.computeIfAbsent(candidates, list -> list.toArray(new DetectionRule[0]));
+        }
+
+        return new RuleTree(materialReasons, metaRules, rules.size());
+    }
+
+    /**
+     * Gets the rule that matches a material without looking at the item meta
+     * @param material The material
+     * @return The match reason, or null if no material-only rule applies
+     */
+    public String getMaterialReason(Material material) {
+        return materialReasons[material.ordinal()];
+    }
+
+    /**
+     * Gets whether any rule needs the item meta for a material
+     * @param material The material
+     * @return true if the meta has to be read to finish evaluating the rules
+     */
+    public boolean needsMeta(Material material) {
+        return metaRules[material.ordinal()].length > 0;
+    }
+
+    /**
+     * Evaluates the meta rules that apply to a material
+     * @param material The material
+     * @param text The item being evaluated
+     * @return The match reason, or null if no rule matches
+     */
+    public String matchMeta(Material material, ItemText text) {
+        for (DetectionRule rule : metaRules[material.ordinal()]) {
+            if (rule.matches(text)) {
+                return rule.getReason();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of compiled rules
+     * @return The rule count
+     */
+    public int getRuleCount() {
+        return ruleCount;
+    }
+}
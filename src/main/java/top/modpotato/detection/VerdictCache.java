@@ -0,0 +1,217 @@
+package top.modpotato.detection;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of item verdicts, keyed by material and a fingerprint of the item's meta.
+ * A fingerprint holds the values a verdict was computed from, such as the display name and lore components, and a
+ * hit compares them with {@code equals}, so two items that merely share a hash never share a verdict.
+ * The cache is split into stripes by key hash, each with its own lock and
+ * LRU order, so region threads on Folia only contend when they look up items landing in the same stripe.
+ * Entries are tied to a detector policy version; the first lookup under a new version empties a stripe,
+ * so a reload can never serve a verdict from the old policy.
+ */
+public final class VerdictCache {
+    /**
+     * Cached value meaning the item was evaluated and did not match
+     */
+    public static final String NO_MATCH = "";
+
+    private static final int STRIPES = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Cache key: a material, a variant number (such as a world profile slot) and a meta fingerprint
+     */
+    public static final class Key {
+        private final int materialOrdinal;
+        private final int variant;
+        private final Object fingerprint;
+        private final int hash;
+
+        private Key(int materialOrdinal, int variant, Object fingerprint) {
+            this.materialOrdinal = materialOrdinal;
+            this.variant = variant;
+            this.fingerprint = fingerprint;
+            this.hash = 31 * (31 * materialOrdinal + variant) + fingerprint.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return hash == other.hash && materialOrdinal == other.materialOrdinal && variant == other.variant
+                    && fingerprint.equals(other.fingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * One independently locked part of the cache
+     */
+    private static final class Stripe {
+        private final LinkedHashMap<Key, String> entries;
+        private int capacity;
+        private long version = -1;
+
+        Stripe(int capacity) {
+            this.capacity = capacity;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+                    return size() > Stripe.this.capacity;
+                }
+            };
+        }
+    }
+
+    /**
+     * Creates a new VerdictCache
+     * @param capacity The maximum number of entries, or 0 to disable caching
+     */
+    public VerdictCache(int capacity) {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(0);
+        }
+        setCapacity(capacity);
+    }
+
+    /**
+     * Builds the cache key for an item.
+     * The fingerprint is kept in the key and compared on every hit, so it must have value equality and must not
+     * change afterwards; it should hold only what the verdict depends on, since every entry keeps it alive.
+     * @param materialOrdinal The item's material ordinal
+     * @param variant A number telling apart verdicts computed differently for the same item, such as a profile slot
+     * @param fingerprint The values of the item's meta the verdict was computed from
+     * @return The cache key
+     */
+    public static Key key(int materialOrdinal, int variant, Object fingerprint) {
+        return new Key(materialOrdinal, variant, fingerprint);
+    }
+
+    private Stripe stripeFor(Key key) {
+        int hash = key.hash;
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    /**
+     * Looks up a verdict
+     * @param policyVersion The version of the policy doing the lookup
+     * @param key The cache key
+     * @return The cached match reason, {@link #NO_MATCH}, or null if the item is not cached
+     */
+    public String get(long policyVersion, Key key) {
+        Stripe stripe = stripeFor(key);
+
+        String verdict;
+        synchronized (stripe) {
+            if (stripe.capacity == 0) {
+                return null;
+            }
+            if (stripe.version != policyVersion) {
+                stripe.entries.clear();
+                stripe.version = policyVersion;
+            }
+            verdict = stripe.entries.get(key);
+        }
+
+        if (verdict != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return verdict;
+    }
+
+    /**
+     * Stores a verdict
+     * @param policyVersion The version of the policy that produced the verdict
+     * @param key The cache key
+     * @param reason The match reason, or null if the item did not match
+     */
+    public void put(long policyVersion, Key key, String reason) {
+        Stripe stripe = stripeFor(key);
+
+        synchronized (stripe) {
+            // Drop verdicts computed by a policy that has since been replaced
+            if (stripe.capacity == 0 || stripe.version != policyVersion) {
+                return;
+            }
+            stripe.entries.put(key, reason != null ? reason : NO_MATCH);
+        }
+    }
+
+    /**
+     * Changes the maximum number of entries, evicting the oldest if needed
+     * @param capacity The new capacity, or 0 to disable caching
+     */
+    public void setCapacity(int capacity) {
+        int total = Math.max(0, capacity);
+        for (int i = 0; i < STRIPES; i++) {
+            Stripe stripe = stripes[i];
+            synchronized (stripe) {
+                // Spread the capacity over the stripes, giving the remainder to the first ones
+                stripe.capacity = total / STRIPES + (i < total % STRIPES ? 1 : 0);
+                while (stripe.entries.size() > stripe.capacity) {
+                    stripe.entries.remove(stripe.entries.keySet().iterator().next());
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of cached verdicts
+     * @return The cache size
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.entries.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Gets the number of lookups answered from the cache
+     * @return The hit count
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of lookups that had to evaluate the item
+     * @return The miss count
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the share of lookups answered from the cache
+     * @return The hit rate between 0 and 1
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+}
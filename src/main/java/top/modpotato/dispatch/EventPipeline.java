@@ -0,0 +1,134 @@
+package top.modpotato.dispatch;
+
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Single dispatch layer for the plugin's enforcement events
+ * The pipeline is compiled from the configuration whenever listeners are (re)registered: only the checks that are
+ * enabled are added, and each event type and priority gets one handler chain registered with the server.
+ * A disabled check therefore costs nothing at all, and once a handler cancels an event the rest of the chain
+ * skips it, as does the server for events another plugin already cancelled.
+ */
+public final class EventPipeline implements Listener {
+    /**
+     * Priority used for enforcement handlers, so protection plugins running at normal priority decide first
+     */
+    public static final EventPriority ENFORCEMENT_PRIORITY = EventPriority.HIGH;
+
+    private final Map<ChainKey, List<Handler>> chains = new LinkedHashMap<>();
+    private int handlerCount;
+    private boolean registered;
+
+    private record ChainKey(Class<? extends Event> type, EventPriority priority) {
+    }
+
+    private record Handler(Consumer<Event> action, boolean ignoreCancelled) {
+    }
+
+    /**
+     * Adds an enforcement handler that only sees events nobody has cancelled yet
+     * @param type The event type
+     * @param handler The handler
+     * @param <T> The event type
+     * @return This pipeline
+     */
+    public <T extends Event> EventPipeline on(Class<T> type, Consumer<? super T> handler) {
+        return on(type, ENFORCEMENT_PRIORITY, true, handler);
+    }
+
+    /**
+     * Adds a handler to the chain for an event type and priority
+     * @param type The event type
+     * @param priority The priority of the chain
+     * @param ignoreCancelled Whether the handler skips cancelled events
+     * @param handler The handler
+     * @param <T> The event type
+     * @return This pipeline
+     */
+    public <T extends Event> EventPipeline on(Class<T> type, EventPriority priority, boolean ignoreCancelled, Consumer<? super T> handler) {
+        if (registered) {
+            throw new IllegalStateException("Handlers can't be added after the pipeline is registered");
+        }
+
+        Consumer<Event> action = event -> {
+            // Subclasses sharing the handler list (such as CraftItemEvent) are delivered too, so filter by type
+            if (type.isInstance(event)) {
+                handler.accept(type.cast(event));
+            }
+        };
+        chains.computeIfAbsent(new ChainKey(type, priority), key -> new ArrayList<>()).add(new Handler(action, ignoreCancelled));
+        handlerCount++;
+        return this;
+    }
+
+    /**
+     * Registers one executor per handler chain with the server
+     * @param plugin The plugin owning the handlers
+     */
+    public void register(Plugin plugin) {
+        if (registered) {
+            return;
+        }
+        registered = true;
+
+        for (Map.Entry<ChainKey, List<Handler>> entry : chains.entrySet()) {
+            Handler[] handlers = entry.getValue().toArray(new Handler[0]);
+
+            // Let the server skip cancelled events unless a handler in the chain wants them
+            boolean ignoreCancelled = true;
+            for (Handler handler : handlers) {
+                ignoreCancelled &= handler.ignoreCancelled();
+            }
+
+            plugin.getServer().getPluginManager().registerEvent(entry.getKey().type(), this, entry.getKey().priority(),
+                    (listener, event) -> dispatch(handlers, event), plugin, ignoreCancelled);
+        }
+    }
+
+    /**
+     * Unregisters all handler chains
+     */
+    public void unregister() {
+        if (registered) {
+            HandlerList.unregisterAll(this);
+            registered = false;
+        }
+    }
+
+    /**
+     * Gets the number of handler chains registered with the server
+     * @return The chain count
+     */
+    public int getChainCount() {
+        return chains.size();
+    }
+
+    /**
+     * Gets the number of handlers across all chains
+     * @return The handler count
+     */
+    public int getHandlerCount() {
+        return handlerCount;
+    }
+
+    private static void dispatch(Handler[] handlers, Event event) {
+        for (Handler handler : handlers) {
+            // A handler earlier in the chain may have cancelled the event
+            if (handler.ignoreCancelled() && event instanceof Cancellable cancellable && cancellable.isCancelled()) {
+                continue;
+            }
+            handler.action().accept(event);
+        }
+    }
+}
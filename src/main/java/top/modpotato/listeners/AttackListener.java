@@ -1,66 +1,49 @@
 package top.modpotato.listeners;
 
-import org.bukkit.GameMode;
 import org.bukkit.entity.Player;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.inventory.ItemStack;
 
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import top.modpotato.config.Config;
-import top.modpotato.util.NetheriteDetector;
+import top.modpotato.policy.PlayerAction;
+import top.modpotato.policy.PolicyCheck;
+import top.modpotato.policy.PolicyEnforcer;
 
 /**
  * Prevents attacking with Netherite weapons
  */
-public class AttackListener implements Listener {
-    private final NetheriteDetector netheriteDetector;
+public class AttackListener {
+    private static final Component ATTACK_BLOCKED = Component.text("Attacking with Netherite items is not allowed!").color(NamedTextColor.RED);
+
+    private final PolicyEnforcer policyEnforcer;
     private final Config config;
     
     /**
      * Creates a new AttackListener
-     * @param netheriteDetector The Netherite detector
+     * @param policyEnforcer Decides whether the check applies to a player
      * @param config The configuration
      */
-    public AttackListener(NetheriteDetector netheriteDetector, Config config) {
-        this.netheriteDetector = netheriteDetector;
+    public AttackListener(PolicyEnforcer policyEnforcer, Config config) {
+        this.policyEnforcer = policyEnforcer;
         this.config = config;
     }
     
-    @EventHandler
     public void onAttack(EntityDamageByEntityEvent event) {
         if (!(event.getDamager() instanceof Player)) {
             return;
         }
 
         Player player = (Player) event.getDamager();
-        
-        // Skip players with bypass permission
-        if (player.hasPermission("antinetherite.bypass")) {
-            return;
-        }
-        
-        // Skip players in creative or spectator mode if configured to do so
-        if (config.isIgnoreCreativeSpectator() && 
-            (player.getGameMode() == GameMode.CREATIVE || player.getGameMode() == GameMode.SPECTATOR)) {
-            return;
-        }
-        
-        // Skip if attack cancellation is disabled
-        if (!config.isCancelAttack()) {
-            return;
-        }
-        
         ItemStack item = player.getInventory().getItemInMainHand();
 
-        if (item != null && netheriteDetector.isNetheriteItem(item)) {
+        if (policyEnforcer.shouldEnforce(player, PolicyCheck.ATTACK, PlayerAction.ATTACK, item)) {
             event.setCancelled(true);
             
             // Only notify the player if configured to do so
             if (config.isNotifyPlayers()) {
-                player.sendMessage(Component.text("Attacking with Netherite items is not allowed!").color(NamedTextColor.RED));
+                player.sendMessage(ATTACK_BLOCKED);
             }
         }
     }
@@ -1,45 +1,66 @@
 package top.modpotato.listeners;
 
-import org.bukkit.GameMode;
+import org.bukkit.Location;
 import org.bukkit.entity.HumanEntity;
 import org.bukkit.entity.Player;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryMoveItemEvent;
 import org.bukkit.inventory.ItemStack;
 
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import top.modpotato.config.Config;
-import top.modpotato.util.NetheriteDetector;
+import top.modpotato.detection.DetectorSnapshot;
+import top.modpotato.policy.PolicyCheck;
+import top.modpotato.policy.WorldPolicies;
+import top.modpotato.policy.WorldPolicy;
+import top.modpotato.util.HopperBackoff;
+import top.modpotato.util.PlayerExemptions;
 
 /**
  * Prevents automated container (hopper, hopper minecart, etc.) transfers of Netherite items
  * when enabled via configuration. This plugs the bypass where players could insert Netherite
  * into containers via hoppers to avoid direct movement restrictions.
  */
-public class ContainerTransferListener implements Listener {
-    private final NetheriteDetector detector;
+public class ContainerTransferListener {
+    private static final Component TRANSFER_BLOCKED = Component.text("Automated transfer of Netherite items is blocked!").color(NamedTextColor.RED);
+
+    private final WorldPolicies worldPolicies;
     private final Config config;
+    private final HopperBackoff hopperBackoff;
+    private final PlayerExemptions playerExemptions;
 
-    public ContainerTransferListener(NetheriteDetector detector, Config config) {
-        this.detector = detector;
+    public ContainerTransferListener(WorldPolicies worldPolicies, Config config, HopperBackoff hopperBackoff, PlayerExemptions playerExemptions) {
+        this.worldPolicies = worldPolicies;
         this.config = config;
+        this.hopperBackoff = hopperBackoff;
+        this.playerExemptions = playerExemptions;
     }
 
-    @EventHandler
     public void onInventoryMoveItem(InventoryMoveItemEvent event) {
-        if (!config.isCancelContainerTransfer()) {
-            return; // feature disabled
+        ItemStack item = event.getItem();
+        if (item == null) {
+            return;
         }
 
-        ItemStack item = event.getItem();
-        if (item == null || !detector.isNetheriteItem(item)) {
+        // Skip worlds where this check is off
+        Location location = event.getSource().getLocation();
+        if (location == null || location.getWorld() == null) {
+            return;
+        }
+        WorldPolicy policy = worldPolicies.get(location.getWorld());
+        if (!policy.isEnabled(PolicyCheck.CONTAINER_TRANSFER)) {
+            return;
+        }
+
+        // Most transfers are decided by the material table and a meta presence check, without copying the item's meta
+        DetectorSnapshot snapshot = policy.getSnapshot();
+        if (!snapshot.isCandidate(item) || !snapshot.containsNetherite(item)) {
             return; // not netherite
         }
 
-        // Cancel the automated move
+        // Cancel the automated move and back off hoppers that keep retrying
         event.setCancelled(true);
+        hopperBackoff.recordBlocked(event.getInitiator());
 
         // Attempt to notify a nearby player viewing the source or destination (optional UX)
         // Only notify if configured to notify players
@@ -55,10 +76,9 @@ public class ContainerTransferListener implements Listener {
         } else if (!event.getDestination().getViewers().isEmpty()) {
             notify = event.getDestination().getViewers().get(0);
         }
-        if (notify instanceof Player player) {
-            if (!(config.isIgnoreCreativeSpectator() && (player.getGameMode() == GameMode.CREATIVE || player.getGameMode() == GameMode.SPECTATOR))) {
-                player.sendMessage(Component.text("Automated transfer of Netherite items is blocked!").color(NamedTextColor.RED));
-            }
+        // Exempt players (bypass, ignored, or in an ignored gamemode) aren't told about blocked transfers
+        if (notify instanceof Player player && !playerExemptions.isExempt(player)) {
+            player.sendMessage(TRANSFER_BLOCKED);
         }
     }
 }
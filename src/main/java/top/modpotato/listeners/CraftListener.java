@@ -1,65 +1,48 @@
 package top.modpotato.listeners;
 
-import org.bukkit.GameMode;
 import org.bukkit.entity.Player;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.CraftItemEvent;
 import org.bukkit.inventory.ItemStack;
 
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import top.modpotato.config.Config;
-import top.modpotato.util.NetheriteDetector;
+import top.modpotato.policy.PlayerAction;
+import top.modpotato.policy.PolicyCheck;
+import top.modpotato.policy.PolicyEnforcer;
 
 /**
  * Prevents crafting of Netherite items
  */
-public class CraftListener implements Listener {
-    private final NetheriteDetector netheriteDetector;
+public class CraftListener {
+    private static final Component CRAFT_BLOCKED = Component.text("Crafting Netherite items is not allowed!").color(NamedTextColor.RED);
+
+    private final PolicyEnforcer policyEnforcer;
     private final Config config;
     
     /**
      * Creates a new CraftListener
-     * @param netheriteDetector The Netherite detector
+     * @param policyEnforcer Decides whether the check applies to a player
      * @param config The configuration
      */
-    public CraftListener(NetheriteDetector netheriteDetector, Config config) {
-        this.netheriteDetector = netheriteDetector;
+    public CraftListener(PolicyEnforcer policyEnforcer, Config config) {
+        this.policyEnforcer = policyEnforcer;
         this.config = config;
     }
     
-    @EventHandler
     public void onCraftItem(CraftItemEvent event) {
         if (!(event.getWhoClicked() instanceof Player)) {
             return;
         }
         
         Player player = (Player) event.getWhoClicked();
-        
-        // Skip players with bypass permission
-        if (player.hasPermission("antinetherite.bypass")) {
-            return;
-        }
-        
-        // Skip players in creative or spectator mode if configured to do so
-        if (config.isIgnoreCreativeSpectator() && 
-            (player.getGameMode() == GameMode.CREATIVE || player.getGameMode() == GameMode.SPECTATOR)) {
-            return;
-        }
-        
-        // Skip if crafting cancellation is disabled
-        if (!config.isCancelCraft()) {
-            return;
-        }
-        
         ItemStack result = event.getRecipe().getResult();
-        if (netheriteDetector.isNetheriteItem(result)) {
+        if (policyEnforcer.shouldEnforce(player, PolicyCheck.CRAFT, PlayerAction.CRAFT, result)) {
             event.setCancelled(true);
             
             // Only notify the player if configured to do so
             if (config.isNotifyPlayers()) {
-                player.sendMessage(Component.text("Crafting Netherite items is not allowed!").color(NamedTextColor.RED));
+                player.sendMessage(CRAFT_BLOCKED);
             }
         }
     }
@@ -1,12 +1,14 @@
 package top.modpotato.listeners;
 
 import org.bukkit.entity.Player;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerDropItemEvent;
 import org.bukkit.inventory.ItemStack;
 import top.modpotato.config.Config;
-import top.modpotato.util.NetheriteDetector;
+import top.modpotato.detection.DetectorSnapshot;
+import top.modpotato.policy.PolicyCheck;
+import top.modpotato.policy.WorldPolicies;
+import top.modpotato.policy.WorldPolicy;
+import top.modpotato.util.PlayerExemptions;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 
@@ -15,52 +17,63 @@ import net.kyori.adventure.text.format.NamedTextColor;
  * This listener can either cancel drop events or remove dropped Netherite items
  * based on the configuration
  */
-public class DropListener implements Listener {
-    
-    private final boolean removeDropped;
-    private final NetheriteDetector netheriteDetector;
+public class DropListener {
+    private static final Component DROP_REMOVED = Component.text("Dropped Netherite item has been removed!").color(NamedTextColor.RED);
+    private static final Component DROP_BLOCKED = Component.text("Dropping Netherite items is not allowed!").color(NamedTextColor.RED);
+
+    private final WorldPolicies worldPolicies;
     private final Config config;
+    private final PlayerExemptions playerExemptions;
     
     /**
      * Creates a new DropListener
-     * @param removeDropped Whether to handle dropped Netherite items
-     * @param netheriteDetector The Netherite detector
+     * @param worldPolicies The per-world policies
      * @param config The plugin configuration
+     * @param playerExemptions The cached player exemptions
      */
-    public DropListener(boolean removeDropped, NetheriteDetector netheriteDetector, Config config) {
-        this.removeDropped = removeDropped;
-        this.netheriteDetector = netheriteDetector;
+    public DropListener(WorldPolicies worldPolicies, Config config, PlayerExemptions playerExemptions) {
+        this.worldPolicies = worldPolicies;
         this.config = config;
+        this.playerExemptions = playerExemptions;
     }
     
-    @EventHandler
     public void onDrop(PlayerDropItemEvent event) {
-        if (!removeDropped) {
+        Player player = event.getPlayer();
+        
+        // Skip worlds where this check is off
+        WorldPolicy policy = worldPolicies.get(player.getWorld());
+        if (!policy.isEnabled(PolicyCheck.DROP)) {
             return;
         }
         
-        Player player = event.getPlayer();
-        
         // Skip players with bypass permission
-        if (player.hasPermission("antinetherite.bypass")) {
+        if (playerExemptions.hasBypass(player)) {
             return;
         }
         
+        DetectorSnapshot snapshot = policy.getSnapshot();
+        
         ItemStack item = event.getItemDrop().getItemStack();
-        if (item != null && netheriteDetector.isNetheriteItem(item)) {
+        if (item != null && snapshot.containsNetherite(item)) {
             if (config.isEnableDestructiveActions()) {
-                // Remove the dropped item entity (destructive)
-                event.getItemDrop().remove();
+                if (snapshot.isNetheriteItem(item)) {
+                    // Remove the dropped item entity (destructive)
+                    event.getItemDrop().remove();
+                } else {
+                    // Only strip the Netherite nested in a dropped shulker box or bundle
+                    snapshot.removeNestedNetherite(item);
+                    event.getItemDrop().setItemStack(item);
+                }
                 
                 // Always notify for destructive actions
-                event.getPlayer().sendMessage(Component.text("Dropped Netherite item has been removed!").color(NamedTextColor.RED));
+                event.getPlayer().sendMessage(DROP_REMOVED);
             } else {
                 // Cancel the drop event (non-destructive)
                 event.setCancelled(true);
                 
                 // Only notify if configured to do so
                 if (config.isNotifyPlayers()) {
-                    event.getPlayer().sendMessage(Component.text("Dropping Netherite items is not allowed!").color(NamedTextColor.RED));
+                    event.getPlayer().sendMessage(DROP_BLOCKED);
                 }
             }
         }
@@ -0,0 +1,183 @@
+package top.modpotato.listeners;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.entity.ArmorStand;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.ItemFrame;
+import org.bukkit.entity.Player;
+import org.bukkit.event.entity.ItemSpawnEvent;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.inventory.EntityEquipment;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
+
+import top.modpotato.detection.DetectorSnapshot;
+import top.modpotato.policy.PlayerAction;
+import top.modpotato.policy.PolicyCheck;
+import top.modpotato.policy.WorldPolicies;
+import top.modpotato.policy.WorldPolicy;
+import top.modpotato.util.PlayerExemptions;
+
+/**
+ * Removes Netherite held by entities: item entities on the ground, item frames and armor stands
+ * Item entities are checked as they spawn, which covers death drops, explosions and dispensers; entities already in
+ * the world are checked when their chunk's entities load. Both events fire on the thread that owns the entities,
+ * so on Folia every check stays inside its region and nothing walks a world's entity list.
+ * Death drops of exempt players, and of players whose profile lets them hold the item, are marked before they spawn
+ * and left alone, matching the inventory sweep. Item frames and armor stands don't record who filled them, so the
+ * chunk load sweep removes their Netherite regardless of any player's exemption or profile.
+ * Only registered in destructive mode, since the only way to stop these items is to delete them.
+ */
+public class EntitySweepListener {
+    private static final EquipmentSlot[] ARMOR_STAND_SLOTS = {
+        EquipmentSlot.HAND, EquipmentSlot.OFF_HAND, EquipmentSlot.HEAD,
+        EquipmentSlot.CHEST, EquipmentSlot.LEGS, EquipmentSlot.FEET
+    };
+
+    private static final String KEPT_MARKER = "kept_death_drop";
+
+    private final WorldPolicies worldPolicies;
+    private final PlayerExemptions playerExemptions;
+    private final NamespacedKey keptKey;
+
+    /**
+     * Creates a new EntitySweepListener
+     * @param plugin The plugin instance, used to name the death drop marker
+     * @param worldPolicies The per-world policies
+     * @param playerExemptions The cached player exemptions
+     */
+    public EntitySweepListener(Plugin plugin, WorldPolicies worldPolicies, PlayerExemptions playerExemptions) {
+        this.worldPolicies = worldPolicies;
+        this.playerExemptions = playerExemptions;
+        this.keptKey = new NamespacedKey(plugin, KEPT_MARKER);
+    }
+
+    /**
+     * Marks the Netherite death drops a player was allowed to keep, so {@link #onItemSpawn} leaves them on the ground
+     * Death drops have no thrower, so without the mark they could not be told apart from any other spawned item.
+     */
+    public void onPlayerDeath(PlayerDeathEvent event) {
+        Player player = event.getEntity();
+
+        // Skip worlds where this check is off
+        WorldPolicy policy = worldPolicies.get(player.getWorld());
+        if (!policy.isEnabled(PolicyCheck.ENTITY_SWEEP)) {
+            return;
+        }
+
+        DetectorSnapshot snapshot = policy.getSnapshot();
+        boolean exempt = playerExemptions.isExempt(player);
+        for (ItemStack item : event.getDrops()) {
+            if (item == null || !snapshot.isCandidate(item)) {
+                continue;
+            }
+
+            // Profiles only cover the top-level stack, so nested Netherite is still stripped for non-exempt players
+            if (exempt || (snapshot.isNetheriteItem(item) && playerExemptions.isAllowed(player, PlayerAction.HOLD, item.getType()))) {
+                item.editMeta(meta -> meta.getPersistentDataContainer().set(keptKey, PersistentDataType.BYTE, (byte) 1));
+            }
+        }
+    }
+
+    /**
+     * Removes Netherite item entities as they spawn
+     * Items thrown by a player are left to the drop handling, which honours the bypass permission, and death drops
+     * marked by {@link #onPlayerDeath} are unmarked and kept.
+     */
+    public void onItemSpawn(ItemSpawnEvent event) {
+        Item itemEntity = event.getEntity();
+        if (itemEntity.getThrower() != null) {
+            return;
+        }
+
+        // Remove the mark so the kept item stacks with unmarked copies again
+        ItemStack item = itemEntity.getItemStack();
+        if (item.hasItemMeta() && item.getItemMeta().getPersistentDataContainer().has(keptKey)) {
+            item.editMeta(meta -> meta.getPersistentDataContainer().remove(keptKey));
+            itemEntity.setItemStack(item);
+            return;
+        }
+
+        // Skip worlds where this check is off and items whose material can't match
+        WorldPolicy policy = worldPolicies.get(itemEntity.getWorld());
+        if (!policy.isEnabled(PolicyCheck.ENTITY_SWEEP) || !policy.getSnapshot().isCandidate(item)) {
+            return;
+        }
+
+        DetectorSnapshot snapshot = policy.getSnapshot();
+        if (snapshot.isNetheriteItem(item)) {
+            event.setCancelled(true);
+        } else if (snapshot.removeNestedNetherite(item) > 0) {
+            // Only strip the Netherite nested in a shulker box or bundle
+            itemEntity.setItemStack(item);
+        }
+    }
+
+    /**
+     * Cleans the item entities, item frames and armor stands of a chunk when its entities load
+     */
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        // Skip worlds where this check is off
+        WorldPolicy policy = worldPolicies.get(event.getWorld());
+        if (!policy.isEnabled(PolicyCheck.ENTITY_SWEEP)) {
+            return;
+        }
+
+        DetectorSnapshot snapshot = policy.getSnapshot();
+        for (Entity entity : event.getEntities()) {
+            if (entity instanceof Item itemEntity) {
+                sweepItemEntity(snapshot, itemEntity);
+            } else if (entity instanceof ItemFrame itemFrame) {
+                sweepItemFrame(snapshot, itemFrame);
+            } else if (entity instanceof ArmorStand armorStand) {
+                sweepArmorStand(snapshot, armorStand);
+            }
+        }
+    }
+
+    private void sweepItemEntity(DetectorSnapshot snapshot, Item itemEntity) {
+        ItemStack item = itemEntity.getItemStack();
+        if (!snapshot.isCandidate(item)) {
+            return;
+        }
+
+        if (snapshot.isNetheriteItem(item)) {
+            itemEntity.remove();
+        } else if (snapshot.removeNestedNetherite(item) > 0) {
+            itemEntity.setItemStack(item);
+        }
+    }
+
+    private void sweepItemFrame(DetectorSnapshot snapshot, ItemFrame itemFrame) {
+        ItemStack item = itemFrame.getItem();
+        if (!snapshot.isCandidate(item)) {
+            return;
+        }
+
+        if (snapshot.isNetheriteItem(item)) {
+            itemFrame.setItem(null);
+        } else if (snapshot.removeNestedNetherite(item) > 0) {
+            itemFrame.setItem(item);
+        }
+    }
+
+    private void sweepArmorStand(DetectorSnapshot snapshot, ArmorStand armorStand) {
+        EntityEquipment equipment = armorStand.getEquipment();
+        for (EquipmentSlot slot : ARMOR_STAND_SLOTS) {
+            ItemStack item = equipment.getItem(slot);
+            if (!snapshot.isCandidate(item)) {
+                continue;
+            }
+
+            if (snapshot.isNetheriteItem(item)) {
+                equipment.setItem(slot, null);
+            } else if (snapshot.removeNestedNetherite(item) > 0) {
+                equipment.setItem(slot, item);
+            }
+        }
+    }
+}
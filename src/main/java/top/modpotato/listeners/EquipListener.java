@@ -1,9 +1,7 @@
 package top.modpotato.listeners;
 
-import org.bukkit.GameMode;
 import org.bukkit.entity.Player;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.Listener;
+import org.bukkit.event.Event;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.block.BlockDispenseArmorEvent;
 import org.bukkit.event.inventory.ClickType;
@@ -16,55 +14,52 @@ import org.bukkit.inventory.ItemStack;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import top.modpotato.config.Config;
-import top.modpotato.util.NetheriteDetector;
+import top.modpotato.policy.Enforcement;
+import top.modpotato.policy.PlayerAction;
+import top.modpotato.policy.PolicyCheck;
+import top.modpotato.policy.PolicyEnforcer;
 
 /**
  * Prevents equipping Netherite armor through any standard method
  * (cursor placement, shift-click, number key swap, drag, right-click, dispenser)
  */
-public class EquipListener implements Listener {
-    private final NetheriteDetector netheriteDetector;
+public class EquipListener {
+    private static final Component EQUIP_BLOCKED = Component.text("Equipping Netherite armor is not allowed!").color(NamedTextColor.RED);
+    private static final Component ARMOR_LOCKED = Component.text("Netherite armor cannot be interacted with!").color(NamedTextColor.RED);
+    private static final Component DISPENSE_BLOCKED = Component.text("Dispensed Netherite armor is blocked!").color(NamedTextColor.RED);
+
+    private final PolicyEnforcer policyEnforcer;
     private final Config config;
 
-    public EquipListener(NetheriteDetector netheriteDetector, Config config) {
-        this.netheriteDetector = netheriteDetector;
+    public EquipListener(PolicyEnforcer policyEnforcer, Config config) {
+        this.policyEnforcer = policyEnforcer;
         this.config = config;
     }
 
     /**
      * Handles inventory clicks: direct armor slot placement, shift-click, number key swaps.
      */
-    @EventHandler
     public void onInventoryClick(InventoryClickEvent event) {
         if (!(event.getWhoClicked() instanceof Player player)) {
             return;
         }
         
-        // Skip players with bypass permission
-        if (player.hasPermission("antinetherite.bypass")) {
-            return;
-        }
-        
-        if (shouldIgnore(player)) {
-            return;
-        }
-        
-        // Skip if equip cancellation is disabled
-        if (!config.isCancelEquip()) {
+        Enforcement enforcement = policyEnforcer.forPlayer(player, PolicyCheck.EQUIP);
+        if (enforcement == null) {
             return;
         }
 
         // Direct placement into armor slot (cursor -> slot) OR interacting with existing armor
         if (event.getSlotType() == SlotType.ARMOR) {
             ItemStack cursor = event.getCursor();
-            if (isNetheriteArmor(cursor)) {
-                cancelClick(event, player, "Equipping Netherite armor is not allowed!");
+            if (isNetheriteArmor(enforcement, cursor)) {
+                cancelClick(event, player, EQUIP_BLOCKED);
                 return;
             }
             // Prevent picking up / swapping a netherite armor piece once there (optional policy)
             ItemStack current = event.getCurrentItem();
-            if (isNetheriteArmor(current)) {
-                cancelClick(event, player, "Netherite armor cannot be interacted with!");
+            if (isNetheriteArmor(enforcement, current)) {
+                cancelClick(event, player, ARMOR_LOCKED);
                 return;
             }
         }
@@ -72,8 +67,8 @@ public class EquipListener implements Listener {
         // Shift-click auto-equip from inventory
         if (event.isShiftClick()) {
             ItemStack current = event.getCurrentItem();
-            if (isNetheriteArmor(current)) {
-                cancelClick(event, player, "Equipping Netherite armor is not allowed!");
+            if (isNetheriteArmor(enforcement, current)) {
+                cancelClick(event, player, EQUIP_BLOCKED);
                 return;
             }
         }
@@ -83,8 +78,8 @@ public class EquipListener implements Listener {
             int hotbar = event.getHotbarButton();
             if (hotbar >= 0) {
                 ItemStack hotbarItem = player.getInventory().getItem(hotbar);
-                if (isNetheriteArmor(hotbarItem)) {
-                    cancelClick(event, player, "Equipping Netherite armor is not allowed!");
+                if (isNetheriteArmor(enforcement, hotbarItem)) {
+                    cancelClick(event, player, EQUIP_BLOCKED);
                 }
             }
         }
@@ -93,113 +88,85 @@ public class EquipListener implements Listener {
     /**
      * Blocks dragging a Netherite armor piece that could land in an armor slot.
      */
-    @EventHandler
     public void onInventoryDrag(InventoryDragEvent event) {
         if (!(event.getWhoClicked() instanceof Player player)) {
             return;
         }
         
-        // Skip players with bypass permission
-        if (player.hasPermission("antinetherite.bypass")) {
-            return;
-        }
-        
-        if (shouldIgnore(player)) {
-            return;
-        }
-        
-        // Skip if equip cancellation is disabled
-        if (!config.isCancelEquip()) {
+        Enforcement enforcement = policyEnforcer.forPlayer(player, PolicyCheck.EQUIP);
+        if (enforcement == null) {
             return;
         }
 
         ItemStack dragged = event.getOldCursor();
-        if (isNetheriteArmor(dragged)) {
+        if (isNetheriteArmor(enforcement, dragged)) {
             event.setCancelled(true);
-            notifyPlayer(player, "Equipping Netherite armor is not allowed!");
+            notifyPlayer(player, EQUIP_BLOCKED);
         }
     }
 
     /**
      * Blocks right-click auto-equip from hand.
+     * Right-clicks on air arrive already cancelled, so this handler also sees cancelled events and only
+     * skips those where using the held item was denied.
      */
-    @EventHandler
     public void onPlayerInteract(PlayerInteractEvent event) {
         Action action = event.getAction();
         if (action != Action.RIGHT_CLICK_AIR && action != Action.RIGHT_CLICK_BLOCK) {
             return;
         }
-        Player player = event.getPlayer();
-        
-        // Skip players with bypass permission
-        if (player.hasPermission("antinetherite.bypass")) {
+        if (event.useItemInHand() == Event.Result.DENY) {
             return;
         }
-        
-        if (shouldIgnore(player)) {
+        Player player = event.getPlayer();
+        Enforcement enforcement = policyEnforcer.forPlayer(player, PolicyCheck.EQUIP);
+        if (enforcement == null) {
             return;
         }
         
-        // Skip if equip cancellation is disabled
-        if (!config.isCancelEquip()) {
-            return;
-        }
         ItemStack item = event.getItem();
-        if (isNetheriteArmor(item)) {
+        if (isNetheriteArmor(enforcement, item)) {
             event.setCancelled(true);
-            notifyPlayer(player, "Equipping Netherite armor is not allowed!");
+            notifyPlayer(player, EQUIP_BLOCKED);
         }
     }
 
     /**
      * Blocks dispenser attempts to equip Netherite armor onto players.
      */
-    @EventHandler
     public void onBlockDispenseArmor(BlockDispenseArmorEvent event) {
-        if (!isNetheriteArmor(event.getItem())) {
-            return;
-        }
         if (!(event.getTargetEntity() instanceof Player player)) {
             return;
         }
         
-        // Skip players with bypass permission
-        if (player.hasPermission("antinetherite.bypass")) {
-            return;
-        }
-        
-        if (shouldIgnore(player)) {
+        Enforcement enforcement = policyEnforcer.forPlayer(player, PolicyCheck.EQUIP);
+        if (enforcement == null) {
             return;
         }
         
-        // Skip if equip cancellation is disabled
-        if (!config.isCancelEquip()) {
+        if (!isNetheriteArmor(enforcement, event.getItem())) {
             return;
         }
         event.setCancelled(true);
-        notifyPlayer(player, "Dispensed Netherite armor is blocked!");
+        notifyPlayer(player, DISPENSE_BLOCKED);
     }
 
-    private boolean isNetheriteArmor(ItemStack item) {
-        if (item == null) return false;
-        if (!netheriteDetector.isNetheriteItem(item)) return false;
+    private boolean isNetheriteArmor(Enforcement enforcement, ItemStack item) {
+        // Armor the player's profile allows them to equip is not treated as Netherite here
+        if (!enforcement.blocks(PlayerAction.EQUIP, item)) return false;
         String n = item.getType().name();
         return n.endsWith("_HELMET") || n.endsWith("_CHESTPLATE") || n.endsWith("_LEGGINGS") || n.endsWith("_BOOTS");
     }
 
-    private boolean shouldIgnore(Player player) {
-        return config.isIgnoreCreativeSpectator() &&
-                (player.getGameMode() == GameMode.CREATIVE || player.getGameMode() == GameMode.SPECTATOR);
-    }
 
-    private void cancelClick(InventoryClickEvent event, Player player, String message) {
+    private void cancelClick(InventoryClickEvent event, Player player, Component message) {
         event.setCancelled(true);
         notifyPlayer(player, message);
     }
 
-    private void notifyPlayer(Player player, String message) {
+    private void notifyPlayer(Player player, Component message) {
         if (config.isNotifyPlayers()) {
-            player.sendMessage(Component.text(message).color(NamedTextColor.RED));
+            player.sendMessage(message);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package top.modpotato.listeners;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerCommandSendEvent;
+import org.bukkit.event.player.PlayerGameModeChangeEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import top.modpotato.Main;
+import top.modpotato.scheduler.NetheriteRemover;
+import top.modpotato.util.PlayerExemptions;
+
+/**
+ * Keeps the cached player exemptions up to date
+ * Events are only a fast path: a permission change no event reports is picked up by the inventory sweep, which
+ * refreshes entries older than {@link PlayerExemptions#MAX_AGE_SECONDS}.
+ * When a refresh takes an exemption or allowance away, the player's inventory is marked dirty so the sweep
+ * looks at it on its next pass instead of waiting for the full scan interval.
+ */
+public class ExemptionListener implements Listener {
+    private final Main plugin;
+    private final PlayerExemptions playerExemptions;
+
+    /**
+     * Creates a new ExemptionListener
+     * @param plugin The plugin instance
+     * @param playerExemptions The exemption cache to maintain
+     */
+    public ExemptionListener(Main plugin, PlayerExemptions playerExemptions) {
+        this.plugin = plugin;
+        this.playerExemptions = playerExemptions;
+    }
+
+    /**
+     * Computes a player's exemption before other listeners see them
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoin(PlayerJoinEvent event) {
+        playerExemptions.refresh(event.getPlayer());
+    }
+
+    /**
+     * Recomputes a player's exemption for their new gamemode
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onGameModeChange(PlayerGameModeChangeEvent event) {
+        if (playerExemptions.refresh(event.getPlayer(), event.getNewGameMode())) {
+            markDirty(event.getPlayer());
+        }
+    }
+
+    /**
+     * Recomputes a player's exemption when they change worlds, for per-world permissions
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        if (playerExemptions.refresh(event.getPlayer())) {
+            markDirty(event.getPlayer());
+        }
+    }
+
+    /**
+     * Recomputes a player's exemption when their commands are resent
+     * Some permission plugins resend the command tree after changing a player's permissions, so this picks up
+     * those changes early; changes made without a resend are caught by the sweep's periodic refresh.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPermissionsChanged(PlayerCommandSendEvent event) {
+        if (playerExemptions.refresh(event.getPlayer())) {
+            markDirty(event.getPlayer());
+        }
+    }
+
+    /**
+     * Drops a player's cached exemption when they leave
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        playerExemptions.forget(event.getPlayer());
+    }
+
+    private void markDirty(Player player) {
+        NetheriteRemover netheriteRemover = plugin.getNetheriteRemover();
+        if (netheriteRemover != null) {
+            netheriteRemover.markDirty(player);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package top.modpotato.listeners;
+
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.ServerCommandEvent;
+
+import top.modpotato.scheduler.NetheriteRemover;
+
+/**
+ * Marks player inventories dirty when items can enter them, so the periodic sweep only scans players whose
+ * inventories may have changed
+ */
+public class InventoryDirtyListener implements Listener {
+    private final NetheriteRemover netheriteRemover;
+
+    /**
+     * Creates a new InventoryDirtyListener
+     * @param netheriteRemover The remover whose sweep is driven by these events
+     */
+    public InventoryDirtyListener(NetheriteRemover netheriteRemover) {
+        this.netheriteRemover = netheriteRemover;
+    }
+
+    /**
+     * Marks a player dirty after picking up an item
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPickup(EntityPickupItemEvent event) {
+        if (event.getEntity() instanceof Player player) {
+            netheriteRemover.markDirty(player);
+        }
+    }
+
+    /**
+     * Marks a player dirty after clicking in an inventory
+     * Crafting and creative inventory actions are subclasses of this event and are covered here too
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onClick(InventoryClickEvent event) {
+        markDirty(event.getWhoClicked());
+    }
+
+    /**
+     * Marks a player dirty after dragging items in an inventory
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDrag(InventoryDragEvent event) {
+        markDirty(event.getWhoClicked());
+    }
+
+    /**
+     * Marks a player dirty and schedules their sweep (a bucket on Paper, a player task on Folia) when they join
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        netheriteRemover.track(event.getPlayer());
+    }
+
+    /**
+     * Marks a player dirty when they change worlds
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        netheriteRemover.markDirty(event.getPlayer());
+    }
+
+    /**
+     * Drops a player's sweep state and retires their bucket slot or Folia task when they leave
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        netheriteRemover.forget(event.getPlayer());
+    }
+
+    /**
+     * Marks everyone dirty when a player runs an item-giving command
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerCommand(PlayerCommandPreprocessEvent event) {
+        if (isGiveCommand(event.getMessage())) {
+            netheriteRemover.markAllDirty();
+        }
+    }
+
+    /**
+     * Marks everyone dirty when the console runs an item-giving command
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onServerCommand(ServerCommandEvent event) {
+        if (isGiveCommand(event.getCommand())) {
+            netheriteRemover.markAllDirty();
+        }
+    }
+
+    private void markDirty(HumanEntity entity) {
+        if (entity instanceof Player player) {
+            netheriteRemover.markDirty(player);
+        }
+    }
+
+    /**
+     * Checks whether a command line runs /give or /item, with or without a namespace
+     * The targets may be selectors, so every player is marked rather than parsing them
+     * @param commandLine The command line, with or without a leading slash
+     * @return true if the command can give items
+     */
+    private static boolean isGiveCommand(String commandLine) {
+        String label = commandLine.startsWith("/") ? commandLine.substring(1) : commandLine;
+        int space = label.indexOf(' ');
+        if (space != -1) {
+            label = label.substring(0, space);
+        }
+        int colon = label.indexOf(':');
+        if (colon != -1) {
+            label = label.substring(colon + 1);
+        }
+        return label.equalsIgnoreCase("give") || label.equalsIgnoreCase("item");
+    }
+}
@@ -1,9 +1,6 @@
 package top.modpotato.listeners;
 
-import org.bukkit.GameMode;
 import org.bukkit.entity.Player;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.ClickType;
 import org.bukkit.event.inventory.InventoryAction;
 import org.bukkit.event.inventory.InventoryClickEvent;
@@ -13,70 +10,62 @@ import org.bukkit.inventory.ItemStack;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import top.modpotato.config.Config;
-import top.modpotato.util.NetheriteDetector;
+import top.modpotato.policy.Enforcement;
+import top.modpotato.policy.PlayerAction;
+import top.modpotato.policy.PolicyCheck;
+import top.modpotato.policy.PolicyEnforcer;
 
 /**
  * Prevents players from moving Netherite items in inventories
  */
-public class InventoryMoveListener implements Listener {
-    private final NetheriteDetector netheriteDetector;
+public class InventoryMoveListener {
+    private static final Component MOVE_BLOCKED = Component.text("Moving Netherite items is not allowed!").color(NamedTextColor.RED);
+
+    private final PolicyEnforcer policyEnforcer;
     private final Config config;
     
     /**
      * Creates a new InventoryMoveListener
-     * @param netheriteDetector The Netherite detector
+     * @param policyEnforcer Decides whether the check applies to a player
      * @param config The configuration
      */
-    public InventoryMoveListener(NetheriteDetector netheriteDetector, Config config) {
-        this.netheriteDetector = netheriteDetector;
+    public InventoryMoveListener(PolicyEnforcer policyEnforcer, Config config) {
+        this.policyEnforcer = policyEnforcer;
         this.config = config;
     }
     
     @SuppressWarnings("removal")
-    @EventHandler
     public void onInventoryClick(InventoryClickEvent event) {
         if (!(event.getWhoClicked() instanceof Player)) {
             return;
         }
         
         Player player = (Player) event.getWhoClicked();
-        
-        // Skip players with bypass permission
-        if (player.hasPermission("antinetherite.bypass")) {
-            return;
-        }
-        
-        // Skip players in creative or spectator mode if configured to do so
-        if (config.isIgnoreCreativeSpectator() && 
-            (player.getGameMode() == GameMode.CREATIVE || player.getGameMode() == GameMode.SPECTATOR)) {
-            return;
-        }
-        
-        // Skip if inventory move cancellation is disabled
-        if (!config.isCancelInventoryMove()) {
+        Enforcement enforcement = policyEnforcer.forPlayer(player, PolicyCheck.INVENTORY_MOVE);
+        if (enforcement == null) {
             return;
         }
         
         // Check current item
         ItemStack currentItem = event.getCurrentItem();
-        if (currentItem != null && netheriteDetector.isNetheriteItem(currentItem)) {
+        if (isBlocked(enforcement, currentItem)) {
             event.setCancelled(true);
             
             // Only notify the player if configured to do so
             if (config.isNotifyPlayers()) {
-                player.sendMessage(Component.text("Moving Netherite items is not allowed!").color(NamedTextColor.RED));
+                player.sendMessage(MOVE_BLOCKED);
             }
             return;
         }
         
         // Check cursor item
         ItemStack cursorItem = event.getCursor();
-        if (cursorItem != null && netheriteDetector.isNetheriteItem(cursorItem)) {
+        if (isBlocked(enforcement, cursorItem)) {
             event.setCancelled(true);
             
             // Only notify the player if configured to do so
             if (config.isNotifyPlayers()) {
-                player.sendMessage(Component.text("Moving Netherite items is not allowed!").color(NamedTextColor.RED));
+                player.sendMessage(MOVE_BLOCKED);
             }
             return;
         }
@@ -86,10 +75,10 @@ public class InventoryMoveListener implements Listener {
             int hotbarSlot = event.getHotbarButton();
             if (hotbarSlot >= 0 && hotbarSlot < 9) {
                 ItemStack hotbarItem = player.getInventory().getItem(hotbarSlot);
-                if (hotbarItem != null && netheriteDetector.isNetheriteItem(hotbarItem)) {
+                if (isBlocked(enforcement, hotbarItem)) {
                     event.setCancelled(true);
                     if (config.isNotifyPlayers()) {
-                        player.sendMessage(Component.text("Moving Netherite items is not allowed!").color(NamedTextColor.RED));
+                        player.sendMessage(MOVE_BLOCKED);
                     }
                     return;
                 }
@@ -102,10 +91,10 @@ public class InventoryMoveListener implements Listener {
             int hotbarSlot = event.getHotbarButton();
             if (hotbarSlot >= 0 && hotbarSlot < 9) {
                 ItemStack hotbarItem = player.getInventory().getItem(hotbarSlot);
-                if (hotbarItem != null && netheriteDetector.isNetheriteItem(hotbarItem)) {
+                if (isBlocked(enforcement, hotbarItem)) {
                     event.setCancelled(true);
                     if (config.isNotifyPlayers()) {
-                        player.sendMessage(Component.text("Moving Netherite items is not allowed!").color(NamedTextColor.RED));
+                        player.sendMessage(MOVE_BLOCKED);
                     }
                     return;
                 }
@@ -114,60 +103,57 @@ public class InventoryMoveListener implements Listener {
         
         // Handle collect to cursor (double-click to collect all of same type)
         if (action == InventoryAction.COLLECT_TO_CURSOR) {
-            if (cursorItem != null && netheriteDetector.isNetheriteItem(cursorItem)) {
+            if (isBlocked(enforcement, cursorItem)) {
                 event.setCancelled(true);
                 if (config.isNotifyPlayers()) {
-                    player.sendMessage(Component.text("Moving Netherite items is not allowed!").color(NamedTextColor.RED));
+                    player.sendMessage(MOVE_BLOCKED);
                 }
                 return;
             }
         }
     }
     
-    @EventHandler
     public void onInventoryDrag(InventoryDragEvent event) {
         if (!(event.getWhoClicked() instanceof Player)) {
             return;
         }
         
         Player player = (Player) event.getWhoClicked();
-        
-        // Skip players with bypass permission
-        if (player.hasPermission("antinetherite.bypass")) {
-            return;
-        }
-        
-        // Skip players in creative or spectator mode if configured to do so
-        if (config.isIgnoreCreativeSpectator() && 
-            (player.getGameMode() == GameMode.CREATIVE || player.getGameMode() == GameMode.SPECTATOR)) {
-            return;
-        }
-        
-        // Skip if inventory move cancellation is disabled
-        if (!config.isCancelInventoryMove()) {
+        Enforcement enforcement = policyEnforcer.forPlayer(player, PolicyCheck.INVENTORY_MOVE);
+        if (enforcement == null) {
             return;
         }
         
         ItemStack draggedItem = event.getOldCursor();
-        if (draggedItem != null && netheriteDetector.isNetheriteItem(draggedItem)) {
+        if (isBlocked(enforcement, draggedItem)) {
             event.setCancelled(true);
             
             // Only notify the player if configured to do so
             if (config.isNotifyPlayers()) {
-                player.sendMessage(Component.text("Moving Netherite items is not allowed!").color(NamedTextColor.RED));
+                player.sendMessage(MOVE_BLOCKED);
             }
             return;
         }
         
         // Also check new items map for some drag types (safety check)
         for (ItemStack newItem : event.getNewItems().values()) {
-            if (newItem != null && netheriteDetector.isNetheriteItem(newItem)) {
+            if (isBlocked(enforcement, newItem)) {
                 event.setCancelled(true);
                 if (config.isNotifyPlayers()) {
-                    player.sendMessage(Component.text("Moving Netherite items is not allowed!").color(NamedTextColor.RED));
+                    player.sendMessage(MOVE_BLOCKED);
                 }
                 return;
             }
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Checks whether moving an item is blocked for a player
+     * @param enforcement The policy to enforce on the player
+     * @param item The item
+     * @return true if the item holds Netherite the player's profile doesn't allow them to move
+     */
+    private boolean isBlocked(Enforcement enforcement, ItemStack item) {
+        return enforcement.blocksWithContents(PlayerAction.MOVE, item);
+    }
+}
@@ -1,54 +1,75 @@
 package top.modpotato.listeners;
 
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
-import org.bukkit.World.Environment;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
 import org.bukkit.entity.Player;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.EventPriority;
-import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockDamageEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
 import org.bukkit.event.world.ChunkLoadEvent;
-import org.bukkit.GameMode;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
 
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import top.modpotato.util.DebrisStorage;
 import top.modpotato.config.Config;
+import top.modpotato.policy.PolicyCheck;
+import top.modpotato.policy.PolicyEnforcer;
+import top.modpotato.policy.WorldPolicies;
+import top.modpotato.scheduler.ChunkScanQueue;
+import top.modpotato.util.WorldScanBounds;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Logger;
 
 /**
  * Handles mining of Ancient Debris and converts it to Netherrack
  */
-public class MiningListener implements Listener {
+public class MiningListener {
+    private static final BlockFace[] NEIGHBOUR_FACES = {
+        BlockFace.UP, BlockFace.DOWN, BlockFace.NORTH, BlockFace.SOUTH, BlockFace.EAST, BlockFace.WEST
+    };
+    private static final Component DEBRIS_CONVERTED = Component.text("Ancient Debris has been converted to Netherrack!").color(NamedTextColor.RED);
+
     private final DebrisStorage debrisStorage;
-    private final boolean replaceAncientDebris;
-    private final boolean replaceOnChunkLoad;
+    private final ChunkScanQueue chunkScanQueue;
+    private final WorldScanBounds worldScanBounds;
+    private final WorldPolicies worldPolicies;
     private final boolean onlyReplaceGeneratedChunks;
     private final Logger logger;
     private final Config config;
+    private final PolicyEnforcer policyEnforcer;
     
     /**
      * Creates a new MiningListener
      * @param debrisStorage The debris storage
-     * @param replaceAncientDebris Whether to replace Ancient Debris when mined
-     * @param replaceOnChunkLoad Whether to replace Ancient Debris when chunks are loaded
+     * @param chunkScanQueue The queue that chunk scans are handed to
+     * @param worldScanBounds The per-world scan bounds table
+     * @param worldPolicies The per-world policies
      * @param onlyReplaceGeneratedChunks Whether to only replace Ancient Debris in generated chunks
      * @param config The plugin configuration
+     * @param policyEnforcer Decides whether debris replacement applies to a player
      */
     public MiningListener(DebrisStorage debrisStorage, 
-                          boolean replaceAncientDebris, 
-                          boolean replaceOnChunkLoad,
+                          ChunkScanQueue chunkScanQueue,
+                          WorldScanBounds worldScanBounds,
+                          WorldPolicies worldPolicies,
                           boolean onlyReplaceGeneratedChunks,
-                          Config config) {
+                          Config config,
+                          PolicyEnforcer policyEnforcer) {
         this.debrisStorage = debrisStorage;
-        this.replaceAncientDebris = replaceAncientDebris;
-        this.replaceOnChunkLoad = replaceOnChunkLoad;
+        this.chunkScanQueue = chunkScanQueue;
+        this.worldScanBounds = worldScanBounds;
+        this.worldPolicies = worldPolicies;
         this.onlyReplaceGeneratedChunks = onlyReplaceGeneratedChunks;
         this.config = config;
+        this.policyEnforcer = policyEnforcer;
         this.logger = Bukkit.getLogger();
     }
     
@@ -56,12 +77,7 @@ public class MiningListener implements Listener {
      * Handles block damage events to replace Ancient Debris with Netherrack
      * This is triggered when a player starts breaking a block
      */
-    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onBlockDamage(BlockDamageEvent event) {
-        if (!replaceAncientDebris) {
-            return;
-        }
-        
         Block block = event.getBlock();
         
         // Skip if the block is not Ancient Debris
@@ -70,15 +86,7 @@ public class MiningListener implements Listener {
         }
         
         Player player = event.getPlayer();
-        
-        // Skip players with bypass permission
-        if (player.hasPermission("antinetherite.bypass")) {
-            return;
-        }
-        
-        // Skip if player is in creative or spectator mode and we're ignoring those modes
-        if (config.isIgnoreCreativeSpectator() && 
-            (player.getGameMode() == GameMode.CREATIVE || player.getGameMode() == GameMode.SPECTATOR)) {
+        if (!policyEnforcer.appliesTo(player, PolicyCheck.DEBRIS)) {
             return;
         }
         
@@ -98,7 +106,7 @@ public class MiningListener implements Listener {
             
             // Notify the player if configured to do so
             if (config.isNotifyPlayers()) {
-                player.sendMessage(Component.text("Ancient Debris has been converted to Netherrack!").color(NamedTextColor.RED));
+                player.sendMessage(DEBRIS_CONVERTED);
             }
             
             // Cancel the event
@@ -110,75 +118,93 @@ public class MiningListener implements Listener {
     }
     
     /**
-     * Handles chunk load events to replace Ancient Debris with Netherrack
+     * Handles block explosions (beds and respawn anchors) that would expose Ancient Debris
      */
-    @EventHandler(priority = EventPriority.NORMAL)
-    public void onChunkLoad(ChunkLoadEvent event) {
-        if (!replaceOnChunkLoad) {
+    public void onBlockExplode(BlockExplodeEvent event) {
+        handleExplosion(event.getBlock().getWorld(), event.blockList());
+    }
+    
+    /**
+     * Handles entity explosions (TNT, creepers, end crystals) that would expose Ancient Debris
+     */
+    public void onEntityExplode(EntityExplodeEvent event) {
+        handleExplosion(event.getEntity().getWorld(), event.blockList());
+    }
+    
+    /**
+     * Replaces the Ancient Debris an explosion is about to expose with Netherrack
+     * Ancient Debris resists explosions, so it never appears in the block list itself; bed and TNT mining work by
+     * clearing the blocks around it. The block list is walked once, every face neighbour of a destroyed block is
+     * checked, and the replaced positions are stored in one batch.
+     * @param world The world the explosion is in
+     * @param blocks The blocks the explosion will destroy
+     */
+    private void handleExplosion(World world, List<Block> blocks) {
+        // Skip worlds where debris replacement is off
+        if (!worldPolicies.get(world).isEnabled(PolicyCheck.DEBRIS)) {
             return;
         }
         
+        List<Location> replaced = new ArrayList<>();
+        try {
+            for (Block destroyed : blocks) {
+                for (BlockFace face : NEIGHBOUR_FACES) {
+                    Block neighbour = destroyed.getRelative(face);
+                    // Neighbours at the edge of the blast may belong to another region on Folia
+                    if (neighbour.getType() != Material.ANCIENT_DEBRIS || !Bukkit.isOwnedByCurrentRegion(neighbour)) {
+                        continue;
+                    }
+                    // Once replaced the block is Netherrack, so a debris block next to several destroyed blocks is only recorded once
+                    neighbour.setType(Material.NETHERRACK);
+                    replaced.add(neighbour.getLocation());
+                }
+            }
+        } catch (Exception e) {
+            // Log the error but don't crash the plugin
+            logger.warning("Error replacing Ancient Debris in an explosion in " + world.getName() + ": " + e.getMessage());
+        }
+        
+        if (!replaced.isEmpty() && config.isSaveReplacedLocations()) {
+            debrisStorage.addLocations(world, replaced);
+        }
+    }
+    
+    /**
+     * Handles chunk load events by queueing the chunk for Ancient Debris replacement
+     */
+    public void onChunkLoad(ChunkLoadEvent event) {
         // Check if we should only process newly generated chunks
         if (onlyReplaceGeneratedChunks && !event.isNewChunk()) {
             return;
         }
         
-        // Only process nether chunks since Ancient Debris only generates in the Nether
-        World world = event.getWorld();
-        if (world.getEnvironment() != Environment.NETHER) {
+        // Skip worlds where debris replacement is off
+        if (!worldPolicies.get(event.getWorld()).isEnabled(PolicyCheck.DEBRIS)) {
             return;
         }
         
-        try {
-            int replacementCount = 0;
-            int maxReplacements = config.getMaxReplacementsPerChunk();
-            
-            // Get all blocks in the chunk
-            for (int x = 0; x < 16; x++) {
-                for (int z = 0; z < 16; z++) {
-                    // Ancient Debris only generates in the Nether between Y=8 and Y=119
-                    for (int y = 8; y < 120; y++) {
-                        // Limit the number of replacements per chunk to prevent lag
-                        // Unless maxReplacements is -1, which means no limit
-                        if (maxReplacements != -1 && replacementCount >= maxReplacements) {
-                            logger.warning("Too many Ancient Debris found in chunk at " + 
-                                          event.getChunk().getX() + "," + event.getChunk().getZ() + 
-                                          " in world " + world.getName() + 
-                                          ". Limiting replacements to " + maxReplacements);
-                            return;
-                        }
-                        
-                        Block block = event.getChunk().getBlock(x, y, z);
-                        if (block.getType() == Material.ANCIENT_DEBRIS) {
-                            // Skip if we've already processed this location
-                            if (debrisStorage.containsLocation(block.getLocation())) {
-                                continue;
-                            }
-                            
-                            // Replace the block with Netherrack
-                            block.setType(Material.NETHERRACK);
-                            replacementCount++;
-                            
-                            // Store the location if configured to do so
-                            if (config.isSaveReplacedLocations()) {
-                                debrisStorage.addLocation(block.getLocation());
-                            }
-                        }
-                    }
-                }
-            }
-            
-            if (replacementCount > 0 && config.isLogDebrisReplacements()) {
-                logger.info("Replaced " + replacementCount + " Ancient Debris in chunk at " + 
-                           event.getChunk().getX() + "," + event.getChunk().getZ() + 
-                           " in world " + world.getName());
-            }
-        } catch (Exception e) {
-            // Log the error but don't crash the plugin
-            logger.warning("Error replacing Ancient Debris in chunk at " + 
-                          event.getChunk().getX() + "," + event.getChunk().getZ() + 
-                          " in world " + world.getName() + ": " + e.getMessage());
+        // Only process worlds with scan bounds; the table is precomputed when the world loads
+        WorldScanBounds.Bounds bounds = worldScanBounds.get(event.getWorld());
+        if (bounds == null) {
+            return;
         }
+        
+        // Queue the scan; it is drained under a per-tick budget instead of inside the event
+        chunkScanQueue.enqueue(event.getChunk(), bounds);
+    }
+    
+    /**
+     * Computes the scan bounds of a world when it loads
+     */
+    public void onWorldLoad(WorldLoadEvent event) {
+        worldScanBounds.load(event.getWorld());
+    }
+    
+    /**
+     * Drops the scan bounds of a world when it unloads
+     */
+    public void onWorldUnload(WorldUnloadEvent event) {
+        worldScanBounds.unload(event.getWorld());
     }
     
     /**
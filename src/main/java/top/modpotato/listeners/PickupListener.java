@@ -1,65 +1,54 @@
 package top.modpotato.listeners;
 
-import org.bukkit.GameMode;
 import org.bukkit.entity.Player;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityPickupItemEvent;
 import org.bukkit.inventory.ItemStack;
 
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import top.modpotato.config.Config;
-import top.modpotato.util.NetheriteDetector;
+import top.modpotato.policy.Enforcement;
+import top.modpotato.policy.PlayerAction;
+import top.modpotato.policy.PolicyCheck;
+import top.modpotato.policy.PolicyEnforcer;
 
 /**
  * Prevents players from picking up Netherite items
  */
-public class PickupListener implements Listener {
-    private final NetheriteDetector netheriteDetector;
+public class PickupListener {
+    private static final Component PICKUP_BLOCKED = Component.text("Picking up Netherite items is not allowed!").color(NamedTextColor.RED);
+
+    private final PolicyEnforcer policyEnforcer;
     private final Config config;
     
     /**
      * Creates a new PickupListener
-     * @param netheriteDetector The Netherite detector
+     * @param policyEnforcer Decides whether the check applies to a player
      * @param config The configuration
      */
-    public PickupListener(NetheriteDetector netheriteDetector, Config config) {
-        this.netheriteDetector = netheriteDetector;
+    public PickupListener(PolicyEnforcer policyEnforcer, Config config) {
+        this.policyEnforcer = policyEnforcer;
         this.config = config;
     }
     
-    @EventHandler
     public void onPickup(EntityPickupItemEvent event) {
         if (!(event.getEntity() instanceof Player)) {
             return;
         }
         
         Player player = (Player) event.getEntity();
-        
-        // Skip players with bypass permission
-        if (player.hasPermission("antinetherite.bypass")) {
-            return;
-        }
-        
-        // Skip players in creative or spectator mode if configured to do so
-        if (config.isIgnoreCreativeSpectator() && 
-            (player.getGameMode() == GameMode.CREATIVE || player.getGameMode() == GameMode.SPECTATOR)) {
-            return;
-        }
-        
-        // Skip if pickup cancellation is disabled
-        if (!config.isCancelPickup()) {
+        Enforcement enforcement = policyEnforcer.forPlayer(player, PolicyCheck.PICKUP);
+        if (enforcement == null) {
             return;
         }
         
         ItemStack item = event.getItem().getItemStack();
-        if (item != null && netheriteDetector.isNetheriteItem(item)) {
+        if (enforcement.blocksWithContents(PlayerAction.PICKUP, item)) {
             event.setCancelled(true);
             
             // Only notify the player if configured to do so
             if (config.isNotifyPlayers()) {
-                player.sendMessage(Component.text("Picking up Netherite items is not allowed!").color(NamedTextColor.RED));
+                player.sendMessage(PICKUP_BLOCKED);
             }
         }
     }
@@ -0,0 +1,152 @@
+package top.modpotato.listeners;
+
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.entity.VillagerAcquireTradeEvent;
+import org.bukkit.event.entity.VillagerReplenishTradeEvent;
+import org.bukkit.event.inventory.InventoryOpenEvent;
+import org.bukkit.event.inventory.PrepareSmithingEvent;
+import org.bukkit.event.world.LootGenerateEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.Merchant;
+import org.bukkit.inventory.MerchantInventory;
+import org.bukkit.inventory.MerchantRecipe;
+
+import top.modpotato.detection.DetectorSnapshot;
+import top.modpotato.policy.PlayerAction;
+import top.modpotato.policy.PolicyCheck;
+import top.modpotato.policy.PolicyEnforcer;
+import top.modpotato.policy.WorldPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stops Netherite at the points where it enters the world: smithing table upgrades, generated loot
+ * (bastion chests and other loot tables) and villager and wandering trader offers.
+ * Offers are blocked as a merchant acquires or restocks them, which has no player to exempt, and
+ * offers the merchant already had are removed when a player who isn't exempt opens the trade screen.
+ * Every item is first checked against the material table and for meta, so ordinary results are
+ * cleared without copying their meta.
+ */
+public class SourceListener {
+    private final PolicyEnforcer policyEnforcer;
+
+    /**
+     * Creates a new SourceListener
+     * @param policyEnforcer Decides whether a check applies to a player or world
+     */
+    public SourceListener(PolicyEnforcer policyEnforcer) {
+        this.policyEnforcer = policyEnforcer;
+    }
+
+    /**
+     * Clears smithing table results that are Netherite, such as diamond gear upgraded with an ingot
+     */
+    public void onPrepareSmithing(PrepareSmithingEvent event) {
+        ItemStack result = event.getResult();
+        if (result == null) {
+            return;
+        }
+
+        if (!(event.getView().getPlayer() instanceof Player player)) {
+            return;
+        }
+
+        // A profile allowing the result to be crafted also allows the upgrade
+        if (policyEnforcer.shouldEnforce(player, PolicyCheck.SMITHING, PlayerAction.CRAFT, result)) {
+            event.setResult(null);
+        }
+    }
+
+    /**
+     * Filters Netherite out of generated loot before it is placed in a container or dropped
+     */
+    public void onLootGenerate(LootGenerateEvent event) {
+        // Skip worlds where this check is off
+        WorldPolicy policy = policyEnforcer.getPolicy(event.getWorld());
+        if (!policy.isEnabled(PolicyCheck.LOOT)) {
+            return;
+        }
+
+        // Loot opened by an exempt player is left alone
+        Entity looter = event.getEntity();
+        if (looter instanceof Player player && policyEnforcer.isExempt(player)) {
+            return;
+        }
+
+        DetectorSnapshot snapshot = policy.getSnapshot();
+        event.getLoot().removeIf(item -> item != null
+                && snapshot.isCandidate(item)
+                && snapshot.containsNetherite(item));
+    }
+
+    /**
+     * Cancels villager and wandering trader offers that sell Netherite
+     */
+    public void onVillagerAcquireTrade(VillagerAcquireTradeEvent event) {
+        // Skip worlds where this check is off
+        WorldPolicy policy = policyEnforcer.getPolicy(event.getEntity().getWorld());
+        if (!policy.isEnabled(PolicyCheck.TRADE)) {
+            return;
+        }
+
+        if (sellsNetherite(policy.getSnapshot(), event.getRecipe())) {
+            event.setCancelled(true);
+        }
+    }
+
+    /**
+     * Cancels restocking of villager offers that sell Netherite, so offers made before filtering was on run out
+     */
+    public void onVillagerReplenishTrade(VillagerReplenishTradeEvent event) {
+        // Skip worlds where this check is off
+        WorldPolicy policy = policyEnforcer.getPolicy(event.getEntity().getWorld());
+        if (!policy.isEnabled(PolicyCheck.TRADE)) {
+            return;
+        }
+
+        if (sellsNetherite(policy.getSnapshot(), event.getRecipe())) {
+            event.setCancelled(true);
+        }
+    }
+
+    /**
+     * Removes offers that sell Netherite from a merchant as a player opens its trade screen
+     * This covers offers the merchant had before filtering was on, or that came from another plugin.
+     * The offers are removed before they are sent to the player, so they never show up.
+     */
+    public void onInventoryOpen(InventoryOpenEvent event) {
+        if (!(event.getInventory() instanceof MerchantInventory merchantInventory)) {
+            return;
+        }
+        if (!(event.getPlayer() instanceof Player player)) {
+            return;
+        }
+
+        // Exempt players see the merchant's offers unchanged
+        if (!policyEnforcer.appliesTo(player, PolicyCheck.TRADE)) {
+            return;
+        }
+
+        DetectorSnapshot snapshot = policyEnforcer.getPolicy(player.getWorld()).getSnapshot();
+        Merchant merchant = merchantInventory.getMerchant();
+        List<MerchantRecipe> recipes = merchant.getRecipes();
+        List<MerchantRecipe> kept = new ArrayList<>(recipes.size());
+        for (MerchantRecipe recipe : recipes) {
+            if (!sellsNetherite(snapshot, recipe)) {
+                kept.add(recipe);
+            }
+        }
+
+        // Leave the merchant untouched when none of its offers sell Netherite
+        if (kept.size() != recipes.size()) {
+            merchant.setRecipes(kept);
+        }
+    }
+
+    private static boolean sellsNetherite(DetectorSnapshot snapshot, MerchantRecipe recipe) {
+        ItemStack result = recipe.getResult();
+        return snapshot.isCandidate(result) && snapshot.containsNetherite(result);
+    }
+}
@@ -0,0 +1,39 @@
+package top.modpotato.policy;
+
+import org.bukkit.inventory.ItemStack;
+
+import top.modpotato.detection.DetectorSnapshot;
+
+/**
+ * What to enforce on one player for one check: the detection policy of the player's world and the player's profile
+ * Resolved by {@link PolicyEnforcer#forPlayer}, which only returns one when the check applies to the player.
+ * @param snapshot The detection policy of the player's world
+ * @param profile The player's combined profile
+ */
+public record Enforcement(DetectorSnapshot snapshot, PlayerProfile profile) {
+    /**
+     * Checks whether an item is Netherite the player's profile doesn't allow for an action
+     * @param action The action
+     * @param item The item, or null
+     * @return true if the action with this item must be blocked
+     */
+    public boolean blocks(PlayerAction action, ItemStack item) {
+        return item != null && snapshot.isNetheriteItem(item) && !profile.isAllowed(action, item.getType());
+    }
+
+    /**
+     * Checks whether an item holds Netherite the player's profile doesn't allow for an action, counting the contents
+     * of shulker boxes and bundles; the allowance covers the stack itself, not Netherite nested inside it
+     * @param action The action
+     * @param item The item, or null
+     * @return true if the action with this item must be blocked
+     */
+    public boolean blocksWithContents(PlayerAction action, ItemStack item) {
+        if (item == null) {
+            return false;
+        }
+        return profile.isAllowed(action, item.getType())
+                ? snapshot.hasNestedNetherite(item)
+                : snapshot.containsNetherite(item);
+    }
+}
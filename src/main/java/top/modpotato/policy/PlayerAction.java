@@ -0,0 +1,41 @@
+package top.modpotato.policy;
+
+/**
+ * An action a player profile can allow for specific materials
+ */
+public enum PlayerAction {
+    CRAFT("craft"),
+    EQUIP("equip"),
+    ATTACK("attack"),
+    PICKUP("pickup"),
+    MOVE("move"),
+    HOLD("hold");
+
+    private final String configName;
+
+    PlayerAction(String configName) {
+        this.configName = configName;
+    }
+
+    /**
+     * Gets the name used for this action in the configuration
+     * @return The config name
+     */
+    public String getConfigName() {
+        return configName;
+    }
+
+    /**
+     * Looks up an action by its config name
+     * @param name The config name, case-insensitive
+     * @return The action, or null if no action has that name
+     */
+    public static PlayerAction fromConfigName(String name) {
+        for (PlayerAction action : values()) {
+            if (action.configName.equalsIgnoreCase(name)) {
+                return action;
+            }
+        }
+        return null;
+    }
+}
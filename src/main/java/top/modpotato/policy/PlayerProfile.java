@@ -0,0 +1,147 @@
+package top.modpotato.policy;
+
+import org.bukkit.Material;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A permission-group profile as written in {@code player-profiles}
+ * A profile lists, per action, the Netherite materials its players may still use, and is granted with the
+ * {@code antinetherite.profile.<name>} permission. Each action's materials are held as a bitset indexed by
+ * material ordinal, so checking whether an action is allowed is a single bit test.
+ */
+public final class PlayerProfile {
+    private static final String PERMISSION_PREFIX = "antinetherite.profile.";
+    private static final int MATERIAL_COUNT = Material.values().length;
+
+    /**
+     * The profile of players without any profile permission; it allows nothing
+     */
+    public static final PlayerProfile NONE = new PlayerProfile("none", emptyBits());
+
+    private final String name;
+    private final BitSet[] allowed;
+
+    private PlayerProfile(String name, BitSet[] allowed) {
+        this.name = name;
+        this.allowed = allowed;
+    }
+
+    /**
+     * Parses a profile from its configuration section
+     * @param name The profile name
+     * @param map The profile's settings, mapping action names to material lists
+     * @return The parsed profile
+     * @throws IllegalArgumentException If the profile names an unknown action or material
+     */
+    public static PlayerProfile parse(String name, Map<?, ?> map) {
+        BitSet[] allowed = emptyBits();
+
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            String actionName = String.valueOf(entry.getKey());
+            PlayerAction action = PlayerAction.fromConfigName(actionName);
+            if (action == null) {
+                throw new IllegalArgumentException("unknown action " + actionName);
+            }
+
+            Collection<?> materialNames = entry.getValue() instanceof Collection
+                    ? (Collection<?>) entry.getValue()
+                    : Collections.singletonList(entry.getValue());
+            for (Object value : materialNames) {
+                String materialName = String.valueOf(value);
+                if (materialName.equals("*")) {
+                    allowed[action.ordinal()].set(0, MATERIAL_COUNT);
+                    continue;
+                }
+                Material material = Material.matchMaterial(materialName);
+                if (material == null) {
+                    throw new IllegalArgumentException("unknown material " + materialName);
+                }
+                allowed[action.ordinal()].set(material.ordinal());
+            }
+        }
+
+        return new PlayerProfile(name, allowed);
+    }
+
+    /**
+     * Combines the profiles a player holds; a material is allowed if any of them allows it
+     * @param profiles The profiles to combine
+     * @return The combined profile, or {@link #NONE} if the list is empty
+     */
+    public static PlayerProfile merge(List<PlayerProfile> profiles) {
+        if (profiles.isEmpty()) {
+            return NONE;
+        }
+        if (profiles.size() == 1) {
+            return profiles.get(0);
+        }
+
+        BitSet[] allowed = emptyBits();
+        StringBuilder name = new StringBuilder();
+        for (PlayerProfile profile : profiles) {
+            for (int i = 0; i < allowed.length; i++) {
+                allowed[i].or(profile.allowed[i]);
+            }
+            if (name.length() > 0) {
+                name.append('+');
+            }
+            name.append(profile.name);
+        }
+        return new PlayerProfile(name.toString(), allowed);
+    }
+
+    /**
+     * Checks whether this profile allows an action with a material
+     * @param action The action
+     * @param material The material
+     * @return true if the action is allowed for the material
+     */
+    public boolean isAllowed(PlayerAction action, Material material) {
+        return allowed[action.ordinal()].get(material.ordinal());
+    }
+
+    /**
+     * Checks whether this profile allows everything another profile allows
+     * @param other The other profile
+     * @return true if no action and material allowed by the other profile is missing here
+     */
+    public boolean covers(PlayerProfile other) {
+        for (int i = 0; i < allowed.length; i++) {
+            BitSet missing = (BitSet) other.allowed[i].clone();
+            missing.andNot(allowed[i]);
+            if (!missing.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the profile name
+     * @return The name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the permission that grants this profile
+     * @return The permission node
+     */
+    public String getPermission() {
+        return PERMISSION_PREFIX + name;
+    }
+
+    private static BitSet[] emptyBits() {
+        BitSet[] bits = new BitSet[PlayerAction.values().length];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = new BitSet();
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,48 @@
+package top.modpotato.policy;
+
+/**
+ * A check that a world profile can turn off
+ */
+public enum PolicyCheck {
+    CRAFT("craft"),
+    SMITHING("smithing"),
+    EQUIP("equip"),
+    ATTACK("attack"),
+    PICKUP("pickup"),
+    DROP("drop"),
+    LOOT("loot"),
+    TRADE("trade"),
+    INVENTORY_MOVE("inventory-move"),
+    CONTAINER_TRANSFER("container-transfer"),
+    INVENTORY_SWEEP("inventory-sweep"),
+    ENTITY_SWEEP("entity-sweep"),
+    DEBRIS("debris");
+
+    private final String configName;
+
+    PolicyCheck(String configName) {
+        this.configName = configName;
+    }
+
+    /**
+     * Gets the name used for this check in the configuration
+     * @return The config name
+     */
+    public String getConfigName() {
+        return configName;
+    }
+
+    /**
+     * Looks up a check by its config name
+     * @param name The config name, case-insensitive
+     * @return The check, or null if no check has that name
+     */
+    public static PolicyCheck fromConfigName(String name) {
+        for (PolicyCheck check : values()) {
+            if (check.configName.equalsIgnoreCase(name)) {
+                return check;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,83 @@
+package top.modpotato.policy;
+
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import top.modpotato.util.PlayerExemptions;
+
+/**
+ * Decides whether a check applies to a player, so listeners resolve it with one call
+ * A check applies when it is on in the player's world and the player is not exempt (ignored, holding
+ * {@code antinetherite.bypass} or, when configured, in creative or spectator mode).
+ */
+public final class PolicyEnforcer {
+    private final WorldPolicies worldPolicies;
+    private final PlayerExemptions playerExemptions;
+
+    /**
+     * Creates a new PolicyEnforcer
+     * @param worldPolicies The per-world policies
+     * @param playerExemptions The cached player exemptions
+     */
+    public PolicyEnforcer(WorldPolicies worldPolicies, PlayerExemptions playerExemptions) {
+        this.worldPolicies = worldPolicies;
+        this.playerExemptions = playerExemptions;
+    }
+
+    /**
+     * Checks whether a check applies to a player, for checks that don't look at an item
+     * @param player The player
+     * @param check The check
+     * @return true if the check is on in the player's world and the player is not exempt
+     */
+    public boolean appliesTo(Player player, PolicyCheck check) {
+        return worldPolicies.get(player.getWorld()).isEnabled(check) && !playerExemptions.isExempt(player);
+    }
+
+    /**
+     * Resolves what to enforce on a player for a check
+     * @param player The player
+     * @param check The check
+     * @return The detection policy and profile to apply, or null if the check is off in the player's world or the
+     *         player is exempt
+     */
+    public Enforcement forPlayer(Player player, PolicyCheck check) {
+        WorldPolicy policy = worldPolicies.get(player.getWorld());
+        if (!policy.isEnabled(check) || playerExemptions.isExempt(player)) {
+            return null;
+        }
+        return new Enforcement(policy.getSnapshot(), playerExemptions.getProfile(player));
+    }
+
+    /**
+     * Checks whether a player's action with one item must be blocked
+     * @param player The player
+     * @param check The check guarding the action
+     * @param action The action, for the player's profile
+     * @param item The item, or null
+     * @return true if the check applies to the player and the item is Netherite their profile doesn't allow
+     */
+    public boolean shouldEnforce(Player player, PolicyCheck check, PlayerAction action, ItemStack item) {
+        Enforcement enforcement = forPlayer(player, check);
+        return enforcement != null && enforcement.blocks(action, item);
+    }
+
+    /**
+     * Gets the compiled policy of a world, for checks that don't involve a player
+     * @param world The world
+     * @return The world's policy
+     */
+    public WorldPolicy getPolicy(World world) {
+        return worldPolicies.get(world);
+    }
+
+    /**
+     * Checks if a player is exempt from the restrictions
+     * @param player The player
+     * @return true if the player should be ignored
+     */
+    public boolean isExempt(Player player) {
+        return playerExemptions.isExempt(player);
+    }
+}
@@ -0,0 +1,95 @@
+package top.modpotato.policy;
+
+import org.bukkit.World;
+
+import top.modpotato.config.Config;
+import top.modpotato.util.NetheriteDetector;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Lookup table of compiled world policies, keyed by world UID
+ * The profiles in {@code world-profiles} are compiled on reload, and each world's policy is resolved by name the
+ * first time it is asked for and then cached by UID, so listeners and the sweeper find it with a single map lookup.
+ * A reload publishes a new table in one write, so a lookup never mixes the old and new profiles.
+ */
+public class WorldPolicies {
+    private static final String DEFAULT_PROFILE = "default";
+
+    private final Config config;
+    private final NetheriteDetector netheriteDetector;
+    private final Logger logger;
+    private volatile Table table;
+
+    private static final class Table {
+        private final WorldPolicy defaultPolicy;
+        private final Map<String, WorldPolicy> byName;
+        private final Map<UUID, WorldPolicy> byWorld = new ConcurrentHashMap<>();
+
+        private Table(WorldPolicy defaultPolicy, Map<String, WorldPolicy> byName) {
+            this.defaultPolicy = defaultPolicy;
+            this.byName = byName;
+        }
+
+        private WorldPolicy get(World world) {
+            WorldPolicy policy = byWorld.get(world.getUID());
+            if (policy == null) {
+                policy = byName.getOrDefault(world.getName(), defaultPolicy);
+                byWorld.put(world.getUID(), policy);
+            }
+            return policy;
+        }
+    }
+
+    /**
+     * Creates a new WorldPolicies
+     * @param config The plugin configuration
+     * @param netheriteDetector The detector profiles compile their item lists with
+     * @param logger The logger for profile warnings
+     */
+    public WorldPolicies(Config config, NetheriteDetector netheriteDetector, Logger logger) {
+        this.config = config;
+        this.netheriteDetector = netheriteDetector;
+        this.logger = logger;
+        rebuild();
+    }
+
+    /**
+     * Recompiles the profiles from the configuration and the current detection policy
+     */
+    public void rebuild() {
+        WorldPolicy defaultPolicy = new WorldPolicy(DEFAULT_PROFILE, false, Collections.emptySet(), netheriteDetector.getSnapshot());
+        Map<String, WorldPolicy> byName = new HashMap<>();
+
+        int profileSlot = 0;
+        for (WorldProfile profile : config.getWorldProfiles()) {
+            profileSlot++;
+            WorldPolicy policy = new WorldPolicy(profile.getName(), profile.isExempt(), profile.getDisabledChecks(),
+                    profile.getItems() != null ? netheriteDetector.compileProfile(profile.getItems(), profileSlot) : netheriteDetector.getSnapshot());
+
+            for (String worldName : profile.getWorlds()) {
+                WorldPolicy previous = byName.put(worldName, policy);
+                if (previous != null) {
+                    logger.warning("World " + worldName + " is listed in profiles " + previous.getProfileName() + " and "
+                            + profile.getName() + "; using " + profile.getName());
+                }
+            }
+        }
+
+        table = new Table(defaultPolicy, byName);
+    }
+
+    /**
+     * Gets the policy for a world
+     * @param world The world
+     * @return The world's policy
+     */
+    public WorldPolicy get(World world) {
+        return table.get(world);
+    }
+}
@@ -0,0 +1,58 @@
+package top.modpotato.policy;
+
+import top.modpotato.detection.DetectorSnapshot;
+
+import java.util.Set;
+
+/**
+ * Compiled policy for one world: which checks run there and which detection set applies
+ */
+public final class WorldPolicy {
+    private final String profileName;
+    private final boolean exempt;
+    private final boolean[] enabledChecks;
+    private final DetectorSnapshot snapshot;
+
+    WorldPolicy(String profileName, boolean exempt, Set<PolicyCheck> disabledChecks, DetectorSnapshot snapshot) {
+        this.profileName = profileName;
+        this.exempt = exempt;
+        this.snapshot = snapshot;
+        this.enabledChecks = new boolean[PolicyCheck.values().length];
+        for (PolicyCheck check : PolicyCheck.values()) {
+            enabledChecks[check.ordinal()] = !exempt && !disabledChecks.contains(check);
+        }
+    }
+
+    /**
+     * Checks whether a check runs in this world
+     * @param check The check
+     * @return true if the check is enabled
+     */
+    public boolean isEnabled(PolicyCheck check) {
+        return enabledChecks[check.ordinal()];
+    }
+
+    /**
+     * Gets whether the plugin ignores this world entirely
+     * @return true if the world is exempt
+     */
+    public boolean isExempt() {
+        return exempt;
+    }
+
+    /**
+     * Gets the detection policy that applies in this world
+     * @return The detector snapshot
+     */
+    public DetectorSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Gets the name of the profile this policy was compiled from
+     * @return The profile name, or "default" for worlds without a profile
+     */
+    public String getProfileName() {
+        return profileName;
+    }
+}
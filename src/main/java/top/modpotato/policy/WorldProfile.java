@@ -0,0 +1,101 @@
+package top.modpotato.policy;
+
+import top.modpotato.config.ConfigValues;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A per-world policy profile as written in {@code world-profiles}
+ * Profiles are parsed once on reload and compiled into {@link WorldPolicy} entries by {@link WorldPolicies}.
+ */
+public final class WorldProfile {
+    private final String name;
+    private final List<String> worlds;
+    private final boolean exempt;
+    private final Set<PolicyCheck> disabledChecks;
+    private final List<String> items;
+
+    private WorldProfile(String name, List<String> worlds, boolean exempt, Set<PolicyCheck> disabledChecks, List<String> items) {
+        this.name = name;
+        this.worlds = worlds;
+        this.exempt = exempt;
+        this.disabledChecks = disabledChecks;
+        this.items = items;
+    }
+
+    /**
+     * Parses a profile from its configuration section
+     * @param name The profile name
+     * @param map The profile's settings
+     * @return The parsed profile
+     * @throws IllegalArgumentException If the profile names an unknown check
+     */
+    public static WorldProfile parse(String name, Map<?, ?> map) {
+        List<String> worlds = ConfigValues.asStrings(map.get("worlds"));
+        boolean exempt = Boolean.parseBoolean(String.valueOf(map.get("exempt")));
+
+        Set<PolicyCheck> disabledChecks = EnumSet.noneOf(PolicyCheck.class);
+        for (String checkName : ConfigValues.asStrings(map.get("disabled-checks"))) {
+            PolicyCheck check = PolicyCheck.fromConfigName(checkName);
+            if (check == null) {
+                throw new IllegalArgumentException("unknown check " + checkName);
+            }
+            disabledChecks.add(check);
+        }
+
+        // replace-debris: false is shorthand for disabling the debris check
+        if (map.containsKey("replace-debris") && !Boolean.parseBoolean(String.valueOf(map.get("replace-debris")))) {
+            disabledChecks.add(PolicyCheck.DEBRIS);
+        }
+
+        // No item list means the world uses the global detection set
+        List<String> items = map.containsKey("items") ? ConfigValues.asStrings(map.get("items")) : null;
+
+        return new WorldProfile(name, Collections.unmodifiableList(worlds), exempt,
+                Collections.unmodifiableSet(disabledChecks), items != null ? Collections.unmodifiableList(items) : null);
+    }
+
+    /**
+     * Gets the profile name
+     * @return The name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the names of the worlds this profile applies to
+     * @return The world names
+     */
+    public List<String> getWorlds() {
+        return worlds;
+    }
+
+    /**
+     * Gets whether the plugin ignores these worlds entirely
+     * @return true if the worlds are exempt
+     */
+    public boolean isExempt() {
+        return exempt;
+    }
+
+    /**
+     * Gets the checks turned off in these worlds
+     * @return The disabled checks
+     */
+    public Set<PolicyCheck> getDisabledChecks() {
+        return disabledChecks;
+    }
+
+    /**
+     * Gets the detection item list used in these worlds
+     * @return The item list, or null to use {@code detection.items}
+     */
+    public List<String> getItems() {
+        return items;
+    }
+}
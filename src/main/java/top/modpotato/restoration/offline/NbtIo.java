@@ -0,0 +1,243 @@
+package top.modpotato.restoration.offline;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Minimal reader and writer for the Named Binary Tag format used inside region files.
+ * Compounds are read as {@link LinkedHashMap}s, lists as {@link NbtList}s and every other
+ * tag as its boxed Java value or primitive array, so a chunk can be edited and written back unchanged.
+ */
+final class NbtIo {
+    static final byte TAG_END = 0;
+    static final byte TAG_BYTE = 1;
+    static final byte TAG_SHORT = 2;
+    static final byte TAG_INT = 3;
+    static final byte TAG_LONG = 4;
+    static final byte TAG_FLOAT = 5;
+    static final byte TAG_DOUBLE = 6;
+    static final byte TAG_BYTE_ARRAY = 7;
+    static final byte TAG_STRING = 8;
+    static final byte TAG_LIST = 9;
+    static final byte TAG_COMPOUND = 10;
+    static final byte TAG_INT_ARRAY = 11;
+    static final byte TAG_LONG_ARRAY = 12;
+
+    // Guards against corrupt data sending the reader into unbounded recursion
+    private static final int MAX_DEPTH = 512;
+
+    private NbtIo() {
+    }
+
+    /**
+     * A list tag that remembers its element type, so empty lists survive a round trip
+     */
+    static final class NbtList extends ArrayList<Object> {
+        private static final long serialVersionUID = 1L;
+        private final byte elementType;
+
+        NbtList(byte elementType) {
+            this.elementType = elementType;
+        }
+
+        byte getElementType() {
+            return elementType;
+        }
+    }
+
+    /**
+     * Reads an unnamed root compound
+     * @param in The input to read from
+     * @return The root compound
+     * @throws IOException If the data is not a valid NBT compound
+     */
+    static Map<String, Object> readRoot(DataInput in) throws IOException {
+        byte type = in.readByte();
+        if (type != TAG_COMPOUND) {
+            throw new IOException("Root tag is not a compound (type " + type + ")");
+        }
+        in.readUTF(); // Root name, always empty for chunks
+        return readCompound(in, 0);
+    }
+
+    /**
+     * Writes an unnamed root compound
+     * @param out The output to write to
+     * @param root The root compound
+     * @throws IOException If writing fails
+     */
+    static void writeRoot(DataOutput out, Map<String, Object> root) throws IOException {
+        out.writeByte(TAG_COMPOUND);
+        out.writeUTF("");
+        writeCompound(out, root);
+    }
+
+    private static Map<String, Object> readCompound(DataInput in, int depth) throws IOException {
+        Map<String, Object> compound = new LinkedHashMap<>();
+        while (true) {
+            byte type = in.readByte();
+            if (type == TAG_END) {
+                return compound;
+            }
+            String name = in.readUTF();
+            compound.put(name, readPayload(in, type, depth + 1));
+        }
+    }
+
+    private static Object readPayload(DataInput in, byte type, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("NBT nested too deeply");
+        }
+
+        switch (type) {
+            case TAG_BYTE:
+                return in.readByte();
+            case TAG_SHORT:
+                return in.readShort();
+            case TAG_INT:
+                return in.readInt();
+            case TAG_LONG:
+                return in.readLong();
+            case TAG_FLOAT:
+                return in.readFloat();
+            case TAG_DOUBLE:
+                return in.readDouble();
+            case TAG_BYTE_ARRAY: {
+                byte[] value = new byte[readLength(in)];
+                in.readFully(value);
+                return value;
+            }
+            case TAG_STRING:
+                return in.readUTF();
+            case TAG_LIST: {
+                byte elementType = in.readByte();
+                int length = readLength(in);
+                NbtList list = new NbtList(elementType);
+                for (int i = 0; i < length; i++) {
+                    list.add(readPayload(in, elementType, depth + 1));
+                }
+                return list;
+            }
+            case TAG_COMPOUND:
+                return readCompound(in, depth);
+            case TAG_INT_ARRAY: {
+                int[] value = new int[readLength(in)];
+                for (int i = 0; i < value.length; i++) {
+                    value[i] = in.readInt();
+                }
+                return value;
+            }
+            case TAG_LONG_ARRAY: {
+                long[] value = new long[readLength(in)];
+                for (int i = 0; i < value.length; i++) {
+                    value[i] = in.readLong();
+                }
+                return value;
+            }
+            default:
+                throw new IOException("Unknown NBT tag type " + type);
+        }
+    }
+
+    private static int readLength(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Negative NBT length " + length);
+        }
+        return length;
+    }
+
+    private static void writeCompound(DataOutput out, Map<String, Object> compound) throws IOException {
+        for (Map.Entry<String, Object> entry : compound.entrySet()) {
+            byte type = typeOf(entry.getValue());
+            out.writeByte(type);
+            out.writeUTF(entry.getKey());
+            writePayload(out, type, entry.getValue());
+        }
+        out.writeByte(TAG_END);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writePayload(DataOutput out, byte type, Object value) throws IOException {
+        switch (type) {
+            case TAG_BYTE:
+                out.writeByte((Byte) value);
+                break;
+            case TAG_SHORT:
+                out.writeShort((Short) value);
+                break;
+            case TAG_INT:
+                out.writeInt((Integer) value);
+                break;
+            case TAG_LONG:
+                out.writeLong((Long) value);
+                break;
+            case TAG_FLOAT:
+                out.writeFloat((Float) value);
+                break;
+            case TAG_DOUBLE:
+                out.writeDouble((Double) value);
+                break;
+            case TAG_BYTE_ARRAY: {
+                byte[] array = (byte[]) value;
+                out.writeInt(array.length);
+                out.write(array);
+                break;
+            }
+            case TAG_STRING:
+                out.writeUTF((String) value);
+                break;
+            case TAG_LIST: {
+                NbtList list = (NbtList) value;
+                byte elementType = list.isEmpty() ? list.getElementType() : typeOf(list.get(0));
+                out.writeByte(elementType);
+                out.writeInt(list.size());
+                for (Object element : list) {
+                    writePayload(out, elementType, element);
+                }
+                break;
+            }
+            case TAG_COMPOUND:
+                writeCompound(out, (Map<String, Object>) value);
+                break;
+            case TAG_INT_ARRAY: {
+                int[] array = (int[]) value;
+                out.writeInt(array.length);
+                for (int element : array) {
+                    out.writeInt(element);
+                }
+                break;
+            }
+            case TAG_LONG_ARRAY: {
+                long[] array = (long[]) value;
+                out.writeInt(array.length);
+                for (long element : array) {
+                    out.writeLong(element);
+                }
+                break;
+            }
+            default:
+                throw new IOException("Unknown NBT tag type " + type);
+        }
+    }
+
+    private static byte typeOf(Object value) throws IOException {
+        if (value instanceof Byte) return TAG_BYTE;
+        if (value instanceof Short) return TAG_SHORT;
+        if (value instanceof Integer) return TAG_INT;
+        if (value instanceof Long) return TAG_LONG;
+        if (value instanceof Float) return TAG_FLOAT;
+        if (value instanceof Double) return TAG_DOUBLE;
+        if (value instanceof byte[]) return TAG_BYTE_ARRAY;
+        if (value instanceof String) return TAG_STRING;
+        if (value instanceof NbtList) return TAG_LIST;
+        if (value instanceof Map) return TAG_COMPOUND;
+        if (value instanceof int[]) return TAG_INT_ARRAY;
+        if (value instanceof long[]) return TAG_LONG_ARRAY;
+        throw new IOException("Unsupported NBT value " + (value == null ? "null" : value.getClass().getName()));
+    }
+}
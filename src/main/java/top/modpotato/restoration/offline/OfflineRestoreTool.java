@@ -0,0 +1,348 @@
+package top.modpotato.restoration.offline;
+
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import top.modpotato.util.BlockScanner;
+
+/**
+ * Offline restoration of replaced Ancient Debris directly into region files.
+ * Must be run while the server is stopped, from the server directory:
+ * <pre>
+ * java -jar AntiNetherite.jar [--server &lt;dir&gt;] [--world &lt;name&gt;] [--threads &lt;n&gt;] [--dry-run]
+ * </pre>
+ * Stored locations are grouped by region file and each region file is rewritten in parallel.
+ * Restored worlds are removed from debris_storage.yml, exactly like a live restoration.
+ */
+public final class OfflineRestoreTool {
+    private static final String STORAGE_PATH = "plugins/AntiNetherite/debris_storage.yml";
+    private static final String USAGE = "Usage: java -jar AntiNetherite.jar [--server <dir>] [--world <name>] [--threads <n>] [--dry-run]";
+
+    private OfflineRestoreTool() {
+    }
+
+    public static void main(String[] args) {
+        Path serverDir = Paths.get(".");
+        String worldFilter = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean dryRun = false;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--server":
+                        serverDir = Paths.get(requireValue(args, ++i));
+                        break;
+                    case "--world":
+                        worldFilter = requireValue(args, ++i);
+                        break;
+                    case "--threads":
+                        String value = requireValue(args, ++i);
+                        try {
+                            threads = Math.max(1, Integer.parseInt(value));
+                        } catch (NumberFormatException e) {
+                            throw new IllegalArgumentException("Invalid thread count: " + value);
+                        }
+                        break;
+                    case "--dry-run":
+                        dryRun = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument: " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        try {
+            int restored = new OfflineRestoreTool().run(serverDir, worldFilter, threads, dryRun);
+            System.out.println((dryRun ? "Would restore " : "Restored ") + restored + " Ancient Debris blocks");
+        } catch (Exception e) {
+            System.err.println("Offline restoration failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static String requireValue(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    /**
+     * Restores every stored world found in the server directory
+     * @param serverDir The server directory containing the world folders
+     * @param worldFilter The world folder name to restore, or null for all worlds
+     * @param threads The number of region files to rewrite in parallel
+     * @param dryRun Whether to only count changes without writing anything
+     * @return The number of blocks restored
+     * @throws IOException If the storage file or a region file cannot be processed
+     */
+    int run(Path serverDir, String worldFilter, int threads, boolean dryRun) throws IOException, InterruptedException {
+        Path storageFile = serverDir.resolve(STORAGE_PATH);
+        if (!Files.exists(storageFile)) {
+            throw new IOException("No debris storage found at " + storageFile);
+        }
+
+        Map<UUID, List<String>> storage = readStorage(storageFile);
+        Map<UUID, Path> worldFolders = findWorldFolders(serverDir);
+        int totalRestored = 0;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // Worlds are only taken out of storage once they are fully rewritten, so a failure part way through
+            // still records the worlds that completed
+            for (Map.Entry<UUID, List<String>> entry : new ArrayList<>(storage.entrySet())) {
+                Path worldFolder = worldFolders.get(entry.getKey());
+                if (worldFolder == null) {
+                    System.out.println("Skipping world " + entry.getKey() + ": no world folder with that UID");
+                    continue;
+                }
+                if (worldFilter != null && !worldFolder.getFileName().toString().equals(worldFilter)) {
+                    continue;
+                }
+
+                try (FileChannel lockChannel = FileChannel.open(worldFolder.resolve("session.lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                     FileLock lock = lockChannel.tryLock()) {
+                    if (lock == null) {
+                        System.err.println("Skipping world " + worldFolder.getFileName() + ": it is locked, stop the server first");
+                        continue;
+                    }
+
+                    List<String> remaining = new ArrayList<>();
+                    totalRestored += restoreWorld(worldFolder, entry.getValue(), remaining, executor, dryRun);
+                    if (remaining.isEmpty()) {
+                        storage.remove(entry.getKey());
+                    } else {
+                        storage.put(entry.getKey(), remaining);
+                        System.out.println(remaining.size() + " locations in " + worldFolder.getFileName()
+                                + " are in chunks that cannot be edited offline and were kept for live restoration");
+                    }
+                } catch (IOException e) {
+                    // The world keeps all of its locations for a later run or a live restoration
+                    System.err.println("Skipping world " + worldFolder.getFileName() + ": " + e.getMessage());
+                }
+            }
+        } finally {
+            executor.shutdown();
+            if (!dryRun) {
+                writeStorage(storageFile, storage);
+            }
+        }
+        return totalRestored;
+    }
+
+    /**
+     * Restores one world, rewriting each affected region file on the executor
+     * @return The number of blocks restored
+     */
+    private int restoreWorld(Path worldFolder, List<String> locations, List<String> remaining,
+                             ExecutorService executor, boolean dryRun) throws IOException, InterruptedException {
+        Path regionDir = findRegionDir(worldFolder);
+        if (regionDir == null) {
+            throw new IOException("No region folder for the world's dimension in " + worldFolder);
+        }
+
+        // region key -> chunk index in region -> packed positions
+        Map<Long, Map<Integer, List<Long>>> byRegion = new HashMap<>();
+        for (String locString : locations) {
+            long packed;
+            try {
+                packed = parseLocation(locString);
+            } catch (IllegalArgumentException e) {
+                System.out.println("Dropping invalid location " + locString);
+                continue;
+            }
+            int chunkX = BlockScanner.unpackX(packed) >> 4;
+            int chunkZ = BlockScanner.unpackZ(packed) >> 4;
+            long regionKey = ((long) (chunkX >> 5) << 32) | ((chunkZ >> 5) & 0xFFFFFFFFL);
+            int chunkIndex = (chunkX & 31) + (chunkZ & 31) * 32;
+            byRegion.computeIfAbsent(regionKey, k -> new HashMap<>())
+                    .computeIfAbsent(chunkIndex, k -> new ArrayList<>())
+                    .add(packed);
+        }
+
+        System.out.println("Restoring " + locations.size() + " locations across " + byRegion.size()
+                + " region files in " + worldFolder.getFileName());
+
+        RegionFileRewriter rewriter = new RegionFileRewriter(dryRun);
+        AtomicInteger done = new AtomicInteger();
+        Map<Long, Future<RegionFileRewriter.Result>> futures = new LinkedHashMap<>();
+        for (Map.Entry<Long, Map<Integer, List<Long>>> region : byRegion.entrySet()) {
+            int regionX = (int) (region.getKey() >> 32);
+            int regionZ = (int) (long) region.getKey();
+            Path regionFile = regionDir.resolve("r." + regionX + "." + regionZ + ".mca");
+            futures.put(region.getKey(), executor.submit(() -> {
+                RegionFileRewriter.Result result = rewriter.rewrite(regionFile, region.getValue());
+                System.out.println("[" + done.incrementAndGet() + "/" + byRegion.size() + "] " + regionFile.getFileName()
+                        + ": restored " + result.restored + ", already changed " + result.notNetherrack);
+                return result;
+            }));
+        }
+
+        int restored = 0;
+        for (Map.Entry<Long, Future<RegionFileRewriter.Result>> future : futures.entrySet()) {
+            try {
+                RegionFileRewriter.Result result = future.getValue().get();
+                restored += result.restored;
+                for (long packed : result.unsupported) {
+                    remaining.add(BlockScanner.unpackX(packed) + "," + BlockScanner.unpackY(packed) + "," + BlockScanner.unpackZ(packed));
+                }
+            } catch (java.util.concurrent.ExecutionException e) {
+                // Keep every location of a failed region so nothing is lost from storage
+                System.err.println("Failed to rewrite region " + (future.getKey() >> 32) + "," + (int) (long) future.getKey()
+                        + ": " + e.getCause().getMessage());
+                for (List<Long> positions : byRegion.get(future.getKey()).values()) {
+                    for (long packed : positions) {
+                        remaining.add(BlockScanner.unpackX(packed) + "," + BlockScanner.unpackY(packed) + "," + BlockScanner.unpackZ(packed));
+                    }
+                }
+            }
+        }
+        return restored;
+    }
+
+    /**
+     * Finds the region folder of a world's own dimension.
+     * Bukkit keeps every world in its own folder and stores its chunks by dimension: an overworld in
+     * {@code region}, a Nether world in {@code DIM-1/region} and an End world in {@code DIM1/region}.
+     * Only overworlds get a top-level region folder, so one being present decides the dimension; a DIM-1 or DIM1
+     * folder next to it is left over from a vanilla world and doesn't belong to this world.
+     */
+    private static Path findRegionDir(Path worldFolder) {
+        Path overworld = worldFolder.resolve("region");
+        if (Files.isDirectory(overworld)) {
+            return overworld;
+        }
+
+        Path nether = worldFolder.resolve("DIM-1").resolve("region");
+        Path end = worldFolder.resolve("DIM1").resolve("region");
+        boolean isNether = Files.isDirectory(nether);
+        boolean isEnd = Files.isDirectory(end);
+        if (isNether && isEnd) {
+            System.err.println("World " + worldFolder.getFileName() + " has both Nether and End region folders, cannot tell its dimension");
+            return null;
+        }
+        return isNether ? nether : isEnd ? end : null;
+    }
+
+    /**
+     * Maps world UIDs to their folders by reading each folder's uid.dat
+     */
+    private static Map<UUID, Path> findWorldFolders(Path serverDir) throws IOException {
+        Map<UUID, Path> folders = new HashMap<>();
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(serverDir, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                Path uidFile = dir.resolve("uid.dat");
+                if (!Files.isRegularFile(uidFile)) {
+                    continue;
+                }
+                try (InputStream in = Files.newInputStream(uidFile); DataInputStream data = new DataInputStream(in)) {
+                    folders.put(new UUID(data.readLong(), data.readLong()), dir);
+                } catch (IOException e) {
+                    System.out.println("Could not read " + uidFile + ": " + e.getMessage());
+                }
+            }
+        }
+        return folders;
+    }
+
+    /**
+     * Reads debris_storage.yml, which holds one list of "x,y,z" strings per world UID
+     */
+    static Map<UUID, List<String>> readStorage(Path storageFile) throws IOException {
+        Map<UUID, List<String>> storage = new LinkedHashMap<>();
+        List<String> current = null;
+        for (String line : Files.readAllLines(storageFile, StandardCharsets.UTF_8)) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            if (trimmed.startsWith("- ")) {
+                if (current != null) {
+                    current.add(unquote(trimmed.substring(2).trim()));
+                }
+            } else if (trimmed.endsWith(":") || trimmed.endsWith(": []")) {
+                String key = unquote(trimmed.substring(0, trimmed.indexOf(':')).trim());
+                try {
+                    current = new ArrayList<>();
+                    storage.put(UUID.fromString(key), current);
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Invalid UUID in debris_storage.yml: " + key);
+                    current = null;
+                }
+            }
+        }
+        return storage;
+    }
+
+    /**
+     * Atomically writes debris_storage.yml in the same layout the plugin uses
+     */
+    static void writeStorage(Path storageFile, Map<UUID, List<String>> storage) throws IOException {
+        Path temp = storageFile.resolveSibling(storageFile.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<UUID, List<String>> entry : storage.entrySet()) {
+                writer.write(entry.getKey().toString());
+                writer.write(entry.getValue().isEmpty() ? ": []" : ":");
+                writer.newLine();
+                for (String location : entry.getValue()) {
+                    writer.write("- '" + location + "'");
+                    writer.newLine();
+                }
+            }
+        }
+        Files.move(temp, storageFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && (value.charAt(0) == '\'' || value.charAt(0) == '"')
+                && value.charAt(value.length() - 1) == value.charAt(0)) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    /**
+     * Parses a stored "x,y,z" location into a packed block position
+     * @throws IllegalArgumentException If the location string is invalid
+     */
+    static long parseLocation(String locString) {
+        String[] parts = locString.split(",");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid location format: " + locString);
+        }
+        try {
+            return BlockScanner.pack(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()), Integer.parseInt(parts[2].trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid location format: " + locString, e);
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package top.modpotato.restoration.offline;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import top.modpotato.util.BlockScanner;
+
+/**
+ * Rewrites a single Anvil region file, turning stored Netherrack positions back into Ancient Debris
+ * by editing the block-state palettes and packed data arrays of each affected chunk section.
+ * The new region file is written next to the original and atomically moved over it.
+ */
+final class RegionFileRewriter {
+    private static final int SECTOR_BYTES = 4096;
+    private static final int CHUNKS_PER_REGION = 1024;
+    private static final int MAX_SECTORS_PER_CHUNK = 255;
+
+    private static final byte COMPRESSION_GZIP = 1;
+    private static final byte COMPRESSION_ZLIB = 2;
+    private static final byte COMPRESSION_NONE = 3;
+    private static final byte COMPRESSION_EXTERNAL_FLAG = (byte) 0x80;
+
+    // First data version using the 1.18+ "sections" / "block_states" chunk layout
+    private static final int MIN_DATA_VERSION = 2860;
+
+    private static final String NETHERRACK = "minecraft:netherrack";
+    private static final String ANCIENT_DEBRIS = "minecraft:ancient_debris";
+
+    // Where CraftBukkit keeps a chunk's persistent data, and the plugin's scan marker inside it
+    private static final String BUKKIT_VALUES = "ChunkBukkitValues";
+    private static final String SCANNED_MARKER = "antinetherite:scanned_policy";
+
+    private final boolean dryRun;
+
+    /**
+     * Creates a new RegionFileRewriter
+     * @param dryRun Whether to only count changes without writing anything
+     */
+    RegionFileRewriter(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    /**
+     * Outcome of rewriting one region file
+     */
+    static final class Result {
+        int restored;
+        int notNetherrack;
+        int missingChunks;
+        int chunksRewritten;
+        // Positions in chunks this tool cannot edit (old format, external or LZ4 storage)
+        final List<Long> unsupported = new ArrayList<>();
+    }
+
+    /**
+     * Restores the given positions in a region file
+     * @param regionFile The region file to rewrite
+     * @param positionsByChunk Packed block positions keyed by chunk index within the region (x + z * 32)
+     * @return The result of the rewrite
+     * @throws IOException If the region file cannot be read or written
+     */
+    Result rewrite(Path regionFile, Map<Integer, List<Long>> positionsByChunk) throws IOException {
+        Result result = new Result();
+
+        if (!Files.exists(regionFile)) {
+            // Region was never generated, nothing to restore
+            for (List<Long> positions : positionsByChunk.values()) {
+                result.missingChunks++;
+                result.notNetherrack += positions.size();
+            }
+            return result;
+        }
+
+        byte[] original = Files.readAllBytes(regionFile);
+        if (original.length < SECTOR_BYTES * 2) {
+            throw new IOException("Region file " + regionFile.getFileName() + " is truncated");
+        }
+        ByteBuffer header = ByteBuffer.wrap(original, 0, SECTOR_BYTES * 2);
+
+        // Payload (length prefix + compression byte + data) for every chunk in the new file
+        byte[][] payloads = new byte[CHUNKS_PER_REGION][];
+        int[] timestamps = new int[CHUNKS_PER_REGION];
+        int now = (int) (System.currentTimeMillis() / 1000L);
+
+        for (int index = 0; index < CHUNKS_PER_REGION; index++) {
+            int location = header.getInt(index * 4);
+            timestamps[index] = header.getInt(SECTOR_BYTES + index * 4);
+            List<Long> positions = positionsByChunk.get(index);
+
+            int sectorOffset = location >>> 8;
+            int sectorCount = location & 0xFF;
+            if (sectorOffset == 0 || sectorCount == 0) {
+                if (positions != null) {
+                    result.missingChunks++;
+                    result.notNetherrack += positions.size();
+                }
+                continue;
+            }
+
+            int start = sectorOffset * SECTOR_BYTES;
+            if (start + 5 > original.length) {
+                throw new IOException("Chunk " + index + " in " + regionFile.getFileName() + " points past the end of the file");
+            }
+            int length = ByteBuffer.wrap(original, start, 4).getInt();
+            if (length <= 0 || start + 4 + length > original.length) {
+                throw new IOException("Chunk " + index + " in " + regionFile.getFileName() + " has an invalid length");
+            }
+
+            byte[] payload = new byte[4 + length];
+            System.arraycopy(original, start, payload, 0, payload.length);
+            payloads[index] = payload;
+
+            if (positions == null) {
+                continue;
+            }
+
+            Result chunkResult = new Result();
+            byte[] rewritten = rewriteChunk(payload, positions, chunkResult);
+            if (rewritten != null && (rewritten.length + SECTOR_BYTES - 1) / SECTOR_BYTES > MAX_SECTORS_PER_CHUNK) {
+                // Would need an external .mcc file; leave the chunk for live restoration instead
+                result.unsupported.addAll(positions);
+                continue;
+            }
+
+            result.restored += chunkResult.restored;
+            result.notNetherrack += chunkResult.notNetherrack;
+            result.unsupported.addAll(chunkResult.unsupported);
+            if (rewritten != null) {
+                payloads[index] = rewritten;
+                timestamps[index] = now;
+                result.chunksRewritten++;
+            }
+        }
+
+        if (!dryRun && result.chunksRewritten > 0) {
+            writeAtomically(regionFile, payloads, timestamps);
+        }
+        return result;
+    }
+
+    /**
+     * Restores the given positions in one chunk
+     * @param payload The original chunk payload
+     * @param positions The packed block positions inside this chunk
+     * @param result The result to record counts in
+     * @return The new payload, or null if nothing changed
+     */
+    private byte[] rewriteChunk(byte[] payload, List<Long> positions, Result result) throws IOException {
+        byte compression = payload[4];
+        if ((compression & COMPRESSION_EXTERNAL_FLAG) != 0
+                || (compression != COMPRESSION_GZIP && compression != COMPRESSION_ZLIB && compression != COMPRESSION_NONE)) {
+            result.unsupported.addAll(positions);
+            return null;
+        }
+
+        Map<String, Object> root = readChunk(payload);
+        Object dataVersion = root.get("DataVersion");
+        Object sections = root.get("sections");
+        if (!(dataVersion instanceof Integer) || (Integer) dataVersion < MIN_DATA_VERSION || !(sections instanceof NbtIo.NbtList)) {
+            result.unsupported.addAll(positions);
+            return null;
+        }
+
+        // Group the positions by section so each section is unpacked only once
+        Map<Integer, List<Long>> bySection = new HashMap<>();
+        for (long packed : positions) {
+            bySection.computeIfAbsent(Math.floorDiv(BlockScanner.unpackY(packed), 16), k -> new ArrayList<>()).add(packed);
+        }
+
+        boolean changed = false;
+        for (Object element : (NbtIo.NbtList) sections) {
+            if (!(element instanceof Map)) {
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> section = (Map<String, Object>) element;
+            Object sectionY = section.get("Y");
+            if (!(sectionY instanceof Byte)) {
+                continue;
+            }
+            List<Long> sectionPositions = bySection.remove((int) (Byte) sectionY);
+            if (sectionPositions == null) {
+                continue;
+            }
+            int restored = restoreSection(section, sectionPositions);
+            result.restored += restored;
+            result.notNetherrack += sectionPositions.size() - restored;
+            changed |= restored > 0;
+        }
+
+        // Positions in sections that don't exist are air, not Netherrack
+        for (List<Long> missing : bySection.values()) {
+            result.notNetherrack += missing.size();
+        }
+
+        if (!changed) {
+            return null;
+        }
+
+        // Drop the scan marker so replace-on-chunk-load scans the restored chunk again
+        Object bukkitValues = root.get(BUKKIT_VALUES);
+        if (bukkitValues instanceof Map) {
+            ((Map<?, ?>) bukkitValues).remove(SCANNED_MARKER);
+        }
+        return writeChunk(root);
+    }
+
+    /**
+     * Replaces Netherrack with Ancient Debris at the given positions in one chunk section
+     * @param section The section compound
+     * @param positions The packed block positions inside this section
+     * @return The number of blocks restored
+     */
+    @SuppressWarnings("unchecked")
+    private int restoreSection(Map<String, Object> section, List<Long> positions) {
+        Object blockStatesTag = section.get("block_states");
+        if (!(blockStatesTag instanceof Map)) {
+            return 0;
+        }
+        Map<String, Object> blockStates = (Map<String, Object>) blockStatesTag;
+        Object paletteTag = blockStates.get("palette");
+        if (!(paletteTag instanceof NbtIo.NbtList)) {
+            return 0;
+        }
+        NbtIo.NbtList palette = (NbtIo.NbtList) paletteTag;
+
+        int netherrackId = paletteIndex(palette, NETHERRACK);
+        if (netherrackId < 0) {
+            return 0;
+        }
+
+        int[] blocks = unpack(blockStates.get("data"), palette.size());
+        if (blocks == null) {
+            return 0;
+        }
+
+        int debrisId = paletteIndex(palette, ANCIENT_DEBRIS);
+        int restored = 0;
+        for (long packed : positions) {
+            int x = BlockScanner.unpackX(packed) & 15;
+            int y = BlockScanner.unpackY(packed) & 15;
+            int z = BlockScanner.unpackZ(packed) & 15;
+            int index = (y << 8) | (z << 4) | x;
+            if (blocks[index] != netherrackId) {
+                continue;
+            }
+            if (debrisId < 0) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("Name", ANCIENT_DEBRIS);
+                palette.add(entry);
+                debrisId = palette.size() - 1;
+            }
+            blocks[index] = debrisId;
+            restored++;
+        }
+
+        if (restored > 0) {
+            blockStates.put("data", pack(blocks, palette.size()));
+        }
+        return restored;
+    }
+
+    private static int paletteIndex(NbtIo.NbtList palette, String name) {
+        for (int i = 0; i < palette.size(); i++) {
+            Object entry = palette.get(i);
+            if (entry instanceof Map && name.equals(((Map<?, ?>) entry).get("Name"))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the bits per entry for a block-state palette of the given size
+     */
+    private static int bitsFor(int paletteSize) {
+        if (paletteSize <= 1) {
+            return 0;
+        }
+        return Math.max(4, 32 - Integer.numberOfLeadingZeros(paletteSize - 1));
+    }
+
+    /**
+     * Unpacks a block-state data array into one palette index per block
+     * @return The palette indices, or null if the array doesn't match the palette
+     */
+    private static int[] unpack(Object dataTag, int paletteSize) {
+        int[] blocks = new int[4096];
+        int bits = bitsFor(paletteSize);
+        if (bits == 0) {
+            return blocks; // Single-value section, every block is palette entry 0
+        }
+        if (!(dataTag instanceof long[])) {
+            return null;
+        }
+        long[] data = (long[]) dataTag;
+        int perLong = 64 / bits;
+        if (data.length != (4096 + perLong - 1) / perLong) {
+            return null;
+        }
+        long mask = (1L << bits) - 1;
+        for (int i = 0; i < 4096; i++) {
+            blocks[i] = (int) ((data[i / perLong] >>> ((i % perLong) * bits)) & mask);
+        }
+        return blocks;
+    }
+
+    /**
+     * Packs palette indices into a block-state data array, entries never span two longs
+     */
+    private static long[] pack(int[] blocks, int paletteSize) {
+        int bits = bitsFor(paletteSize);
+        int perLong = 64 / bits;
+        long[] data = new long[(4096 + perLong - 1) / perLong];
+        for (int i = 0; i < 4096; i++) {
+            data[i / perLong] |= ((long) blocks[i]) << ((i % perLong) * bits);
+        }
+        return data;
+    }
+
+    private static Map<String, Object> readChunk(byte[] payload) throws IOException {
+        InputStream raw = new ByteArrayInputStream(payload, 5, payload.length - 5);
+        InputStream in;
+        switch (payload[4]) {
+            case COMPRESSION_GZIP:
+                in = new GZIPInputStream(raw);
+                break;
+            case COMPRESSION_ZLIB:
+                in = new InflaterInputStream(raw);
+                break;
+            default:
+                in = raw;
+                break;
+        }
+        try (DataInputStream data = new DataInputStream(new BufferedInputStream(in))) {
+            return NbtIo.readRoot(data);
+        }
+    }
+
+    private static byte[] writeChunk(Map<String, Object> root) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16384);
+        bytes.write(new byte[5]); // Length and compression, filled in below
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            NbtIo.writeRoot(out, root);
+        }
+        byte[] payload = bytes.toByteArray();
+        ByteBuffer.wrap(payload, 0, 5).putInt(payload.length - 4).put(COMPRESSION_ZLIB);
+        return payload;
+    }
+
+    /**
+     * Lays the chunks out sequentially in a temporary file and atomically replaces the region file with it
+     */
+    private static void writeAtomically(Path regionFile, byte[][] payloads, int[] timestamps) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(SECTOR_BYTES * 2);
+        int nextSector = 2;
+        for (int index = 0; index < CHUNKS_PER_REGION; index++) {
+            if (payloads[index] == null) {
+                continue;
+            }
+            int sectors = (payloads[index].length + SECTOR_BYTES - 1) / SECTOR_BYTES;
+            header.putInt(index * 4, (nextSector << 8) | sectors);
+            header.putInt(SECTOR_BYTES + index * 4, timestamps[index]);
+            nextSector += sectors;
+        }
+
+        Path temp = regionFile.resolveSibling(regionFile.getFileName() + ".antinetherite.tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            header.rewind();
+            writeFully(channel, header);
+            for (byte[] payload : payloads) {
+                if (payload == null) {
+                    continue;
+                }
+                int padded = ((payload.length + SECTOR_BYTES - 1) / SECTOR_BYTES) * SECTOR_BYTES;
+                ByteBuffer buffer = ByteBuffer.allocate(padded);
+                buffer.put(payload).rewind();
+                writeFully(channel, buffer);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, regionFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
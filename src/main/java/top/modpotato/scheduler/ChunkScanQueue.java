@@ -0,0 +1,384 @@
+package top.modpotato.scheduler;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.scheduler.BukkitTask;
+
+import top.modpotato.Main;
+import top.modpotato.config.Config;
+import top.modpotato.util.BlockScanner;
+import top.modpotato.util.DebrisStorage;
+import top.modpotato.util.WorldScanBounds;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Deduplicating work queue for replacing Ancient Debris in loaded chunks.
+ * Chunk loads only enqueue work. Each job snapshots its chunk on the owning thread, hands the snapshot
+ * to the shared {@link BlockScanner}, and then replaces the hits under a per-tick time budget;
+ * a chunk that doesn't finish in one slice carries on in the next one instead of being abandoned.
+ * Finished chunks are marked with the scan policy version in their persistent data container,
+ * so they are not scanned again until the policy changes or debris is restored in them.
+ */
+public class ChunkScanQueue {
+    /**
+     * Key of the persistent data marker holding the policy version a chunk was fully scanned under
+     */
+    public static final String SCANNED_MARKER = "scanned_policy";
+
+    private final Main plugin;
+    private final boolean isFolia;
+    private final DebrisStorage debrisStorage;
+    private final Config config;
+    private final BlockScanner blockScanner;
+    private final Logger logger;
+    private final NamespacedKey scannedKey;
+
+    // Pending jobs keyed by world and chunk, so a chunk loaded twice is only scanned once
+    private final Map<String, ChunkScanJob> pending = new ConcurrentHashMap<>();
+    // Drain order on Paper; Folia jobs run on their own region instead
+    private final Queue<ChunkScanJob> queue = new ConcurrentLinkedQueue<>();
+
+    private BukkitTask drainTask;
+    private volatile boolean running = false;
+
+    // Metrics
+    private final AtomicLong chunksCleaned = new AtomicLong();
+    private final AtomicLong chunksSkipped = new AtomicLong();
+    private final AtomicLong debrisReplaced = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    /**
+     * Creates a new ChunkScanQueue
+     * @param plugin The plugin instance
+     * @param isFolia Whether the server is running on Folia
+     * @param debrisStorage The debris storage
+     * @param config The plugin configuration
+     * @param blockScanner The shared block scanner
+     */
+    public ChunkScanQueue(Main plugin, boolean isFolia, DebrisStorage debrisStorage, Config config, BlockScanner blockScanner) {
+        this.plugin = plugin;
+        this.isFolia = isFolia;
+        this.debrisStorage = debrisStorage;
+        this.config = config;
+        this.blockScanner = blockScanner;
+        this.logger = plugin.getLogger();
+        this.scannedKey = new NamespacedKey(plugin, SCANNED_MARKER);
+    }
+
+    /**
+     * Outcome of running one slice of a job
+     */
+    private enum SliceResult {
+        // The job is finished or was dropped
+        DONE,
+        // The job ran out of budget and needs another slice
+        YIELDED,
+        // The job is waiting for its off-thread scan and will be resubmitted when it completes
+        SCANNING
+    }
+
+    /**
+     * A chunk waiting to be scanned, with its scan hits and the hit the replacement will resume from
+     */
+    private static class ChunkScanJob {
+        final String key;
+        final World world;
+        final int chunkX;
+        final int chunkZ;
+        final WorldScanBounds.Bounds bounds;
+        final long enqueuedAt;
+        volatile long[] hits;
+        boolean scanning = false;
+        int cursor = 0;
+        int replaced = 0;
+
+        ChunkScanJob(String key, World world, int chunkX, int chunkZ, WorldScanBounds.Bounds bounds) {
+            this.key = key;
+            this.world = world;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.bounds = bounds;
+            this.enqueuedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Starts draining the queue
+     */
+    public void start() {
+        stop();
+        running = true;
+
+        if (!isFolia) {
+            // On Paper, drain a budgeted slice of the queue every tick
+            drainTask = Bukkit.getScheduler().runTaskTimer(plugin, this::drainPaper, 1L, 1L);
+        }
+    }
+
+    /**
+     * Stops draining the queue and drops all pending work
+     */
+    public void stop() {
+        running = false;
+
+        if (drainTask != null) {
+            drainTask.cancel();
+            drainTask = null;
+        }
+
+        queue.clear();
+        pending.clear();
+    }
+
+    /**
+     * Queues a chunk for scanning, ignoring chunks that are already queued
+     * @param chunk The loaded chunk
+     * @param bounds The scan bounds of the chunk's world
+     */
+    public void enqueue(Chunk chunk, WorldScanBounds.Bounds bounds) {
+        if (!running) {
+            return;
+        }
+
+        // Skip chunks that were already fully scanned under the current policy
+        Integer scannedVersion = chunk.getPersistentDataContainer().get(scannedKey, PersistentDataType.INTEGER);
+        if (scannedVersion != null && scannedVersion == bounds.getPolicyVersion()) {
+            chunksSkipped.incrementAndGet();
+            return;
+        }
+
+        World world = chunk.getWorld();
+        String key = world.getUID() + ":" + chunk.getX() + "," + chunk.getZ();
+        ChunkScanJob job = new ChunkScanJob(key, world, chunk.getX(), chunk.getZ(), bounds);
+        if (pending.putIfAbsent(key, job) != null) {
+            return;
+        }
+
+        if (isFolia) {
+            // Folia: the chunk can only be touched from its own region, so schedule there
+            Bukkit.getRegionScheduler().run(plugin, world, job.chunkX, job.chunkZ, task -> runFoliaSlice(job));
+        } else {
+            queue.add(job);
+        }
+    }
+
+    /**
+     * Drains the queue on Paper until the tick budget is spent, giving each job at most one slice per tick
+     */
+    private void drainPaper() {
+        long deadline = System.nanoTime() + getBudgetNanos();
+        int jobsThisTick = queue.size();
+
+        while (jobsThisTick-- > 0 && System.nanoTime() < deadline) {
+            ChunkScanJob job = queue.poll();
+            if (job == null) {
+                break;
+            }
+            if (runSlice(job, deadline) == SliceResult.YIELDED) {
+                queue.add(job);
+            }
+        }
+    }
+
+    /**
+     * Runs one slice of a job on its Folia region and reschedules it for the next tick if unfinished
+     * @param job The job to run
+     */
+    private void runFoliaSlice(ChunkScanJob job) {
+        if (!running) {
+            return;
+        }
+
+        if (runSlice(job, System.nanoTime() + getBudgetNanos()) == SliceResult.YIELDED) {
+            Bukkit.getRegionScheduler().runDelayed(plugin, job.world, job.chunkX, job.chunkZ, task -> runFoliaSlice(job), 1L);
+        }
+    }
+
+    /**
+     * Puts a job back in line once its off-thread scan has completed
+     * @param job The scanned job
+     */
+    private void resubmit(ChunkScanJob job) {
+        // Drop results for jobs that were cleared by a stop or restart while scanning
+        if (!running || pending.get(job.key) != job) {
+            return;
+        }
+
+        if (isFolia) {
+            Bukkit.getRegionScheduler().run(plugin, job.world, job.chunkX, job.chunkZ, task -> runFoliaSlice(job));
+        } else {
+            queue.add(job);
+        }
+    }
+
+    /**
+     * Runs one slice of a job: the first slice snapshots the chunk and starts the scan,
+     * later slices replace the hits it found
+     * @param job The job to run
+     * @param deadline The System.nanoTime() at which the slice must yield
+     * @return The outcome of the slice
+     */
+    private SliceResult runSlice(ChunkScanJob job, long deadline) {
+        // The chunk unloaded while queued; it will be queued again when it loads
+        if (!job.world.isChunkLoaded(job.chunkX, job.chunkZ)) {
+            pending.remove(job.key);
+            return SliceResult.DONE;
+        }
+
+        try {
+            Chunk chunk = job.world.getChunkAt(job.chunkX, job.chunkZ);
+
+            long[] hits = job.hits;
+            if (hits == null) {
+                if (!job.scanning) {
+                    job.scanning = true;
+                    ChunkSnapshot snapshot = chunk.getChunkSnapshot(false, false, false);
+                    blockScanner.scan(snapshot, job.bounds.getMinY(), job.bounds.getMaxY(), type -> type == Material.ANCIENT_DEBRIS)
+                            .whenComplete((result, error) -> {
+                                if (error != null) {
+                                    logger.warning("Error scanning chunk at " + job.chunkX + "," + job.chunkZ +
+                                                   " in world " + job.world.getName() + ": " + error.getMessage());
+                                    pending.remove(job.key);
+                                    return;
+                                }
+                                job.hits = result;
+                                resubmit(job);
+                            });
+                }
+                return SliceResult.SCANNING;
+            }
+
+            int maxReplacements = config.getMaxReplacementsPerChunk();
+            int replacedThisSlice = 0;
+
+            while (job.cursor < hits.length) {
+                // Yield once the slice is out of time or replacements
+                if ((maxReplacements != -1 && replacedThisSlice >= maxReplacements) || System.nanoTime() >= deadline) {
+                    return SliceResult.YIELDED;
+                }
+
+                long packed = hits[job.cursor++];
+                Block block = chunk.getBlock(BlockScanner.unpackX(packed) & 15, BlockScanner.unpackY(packed), BlockScanner.unpackZ(packed) & 15);
+
+                // The snapshot may be stale, so check the live block before replacing it
+                if (block.getType() != Material.ANCIENT_DEBRIS) {
+                    continue;
+                }
+
+                // Skip if we've already processed this location
+                if (debrisStorage.containsLocation(block.getLocation())) {
+                    continue;
+                }
+
+                // Replace the block with Netherrack
+                block.setType(Material.NETHERRACK);
+                replacedThisSlice++;
+                job.replaced++;
+
+                // Store the location if configured to do so
+                if (config.isSaveReplacedLocations()) {
+                    debrisStorage.addLocation(block.getLocation());
+                }
+            }
+
+            // Mark the chunk so later loads skip the scan until the policy changes
+            chunk.getPersistentDataContainer().set(scannedKey, PersistentDataType.INTEGER, job.bounds.getPolicyVersion());
+        } catch (Exception e) {
+            // Log the error but don't crash the plugin; the chunk is left unmarked and not counted as cleaned
+            logger.warning("Error replacing Ancient Debris in chunk at " + job.chunkX + "," + job.chunkZ +
+                           " in world " + job.world.getName() + ": " + e.getMessage());
+            pending.remove(job.key);
+            debrisReplaced.addAndGet(job.replaced);
+            return SliceResult.DONE;
+        }
+
+        complete(job);
+        return SliceResult.DONE;
+    }
+
+    /**
+     * Records a finished job
+     * @param job The finished job
+     */
+    private void complete(ChunkScanJob job) {
+        pending.remove(job.key);
+
+        long latency = System.nanoTime() - job.enqueuedAt;
+        chunksCleaned.incrementAndGet();
+        debrisReplaced.addAndGet(job.replaced);
+        totalLatencyNanos.addAndGet(latency);
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+
+        if (job.replaced > 0 && config.isLogDebrisReplacements()) {
+            logger.info("Replaced " + job.replaced + " Ancient Debris in chunk at " +
+                        job.chunkX + "," + job.chunkZ + " in world " + job.world.getName());
+        }
+    }
+
+    private long getBudgetNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(1, config.getChunkScanBudgetMs()));
+    }
+
+    /**
+     * Gets the number of chunks waiting to be scanned
+     * @return The queue depth
+     */
+    public int getQueueDepth() {
+        return pending.size();
+    }
+
+    /**
+     * Gets the number of chunks fully scanned since startup
+     * @return The number of cleaned chunks
+     */
+    public long getChunksCleaned() {
+        return chunksCleaned.get();
+    }
+
+    /**
+     * Gets the number of chunk loads skipped because the chunk was already scanned under the current policy
+     * @return The number of skipped chunks
+     */
+    public long getChunksSkipped() {
+        return chunksSkipped.get();
+    }
+
+    /**
+     * Gets the number of Ancient Debris blocks replaced by chunk scans since startup
+     * @return The number of replaced blocks
+     */
+    public long getDebrisReplaced() {
+        return debrisReplaced.get();
+    }
+
+    /**
+     * Gets the average time from chunk load to cleaned chunk
+     * @return The average latency in milliseconds
+     */
+    public double getAverageLatencyMs() {
+        long cleaned = chunksCleaned.get();
+        return cleaned == 0 ? 0.0 : totalLatencyNanos.get() / (cleaned * 1_000_000.0);
+    }
+
+    /**
+     * Gets the longest time from chunk load to cleaned chunk
+     * @return The maximum latency in milliseconds
+     */
+    public double getMaxLatencyMs() {
+        return maxLatencyNanos.get() / 1_000_000.0;
+    }
+}
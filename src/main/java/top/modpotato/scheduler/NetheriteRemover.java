@@ -1,54 +1,223 @@
 package top.modpotato.scheduler;
 
 import org.bukkit.Bukkit;
+import org.bukkit.Material;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.ItemStack;
 import org.bukkit.scheduler.BukkitTask;
 
 import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
 import top.modpotato.Main;
 import top.modpotato.config.Config;
-import top.modpotato.util.NetheriteDetector;
+import top.modpotato.detection.DetectorSnapshot;
+import top.modpotato.detection.InventoryScanner;
+import top.modpotato.policy.PlayerAction;
+import top.modpotato.policy.PlayerProfile;
+import top.modpotato.policy.PolicyCheck;
+import top.modpotato.policy.WorldPolicy;
+import top.modpotato.policy.WorldPolicies;
+import top.modpotato.util.PlayerExemptions;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 import java.util.logging.Logger;
 
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
-import org.bukkit.GameMode;
 
 /**
  * Scheduler for removing Netherite items from player inventories
+ * Only players whose inventories were marked dirty by an event since their last scan are checked on each pass,
+ * with a full scan of every player at a longer interval as a safety net for changes no event reports.
+ * On Paper the players are split into one bucket per tick of the interval and one bucket is swept each tick,
+ * so every player is still covered once per interval without the whole sweep landing on a single tick.
  */
 public class NetheriteRemover {
     private final Main plugin;
     private final boolean isFolia;
-    private final NetheriteDetector netheriteDetector;
+    private final WorldPolicies worldPolicies;
     private final Logger logger;
     private final Config config;
+    private final PlayerExemptions playerExemptions;
     
     // Task references for both Bukkit and Folia
     private BukkitTask bukkitTask;
-    private Map<UUID, ScheduledTask> foliaPlayerTasks;
-    private ScheduledTask foliaGlobalTask;
+    private SweepBuckets sweepBuckets;
+    private long sweepTick;
+    private final Map<UUID, ScheduledTask> foliaPlayerTasks = new ConcurrentHashMap<>();
+    private volatile int foliaDelay;
+    
+    // Dirty tracking
+    private final Set<UUID> dirtyPlayers = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, Long> lastFullScan = new ConcurrentHashMap<>();
+    
+    // Metrics
+    private final AtomicLong playersScanned = new AtomicLong();
+    private final AtomicLong playersSkipped = new AtomicLong();
+    private volatile long sweepTicks;
+    private volatile long sweepNanosTotal;
+    private volatile long sweepNanosMax;
     
     /**
      * Creates a new NetheriteRemover
      * @param plugin The plugin instance
      * @param isFolia Whether the server is running on Folia
-     * @param netheriteDetector The Netherite detector
+     * @param worldPolicies The per-world policies
      * @param config The plugin configuration
+     * @param playerExemptions The cached player exemptions
      */
-    public NetheriteRemover(Main plugin, boolean isFolia, NetheriteDetector netheriteDetector, Config config) {
+    public NetheriteRemover(Main plugin, boolean isFolia, WorldPolicies worldPolicies, Config config, PlayerExemptions playerExemptions) {
         this.plugin = plugin;
         this.isFolia = isFolia;
-        this.netheriteDetector = netheriteDetector;
+        this.worldPolicies = worldPolicies;
         this.logger = plugin.getLogger();
         this.config = config;
-        this.foliaPlayerTasks = new HashMap<>();
+        this.playerExemptions = playerExemptions;
+    }
+    
+    /**
+     * Marks a player's inventory as possibly changed, so the next pass scans it
+     * @param player The player
+     */
+    public void markDirty(Player player) {
+        dirtyPlayers.add(player.getUniqueId());
+    }
+    
+    /**
+     * Starts tracking a player who joined; their inventory is scanned on their bucket's next tick,
+     * or on Folia by a sweep task scheduled on the player
+     * @param player The player
+     */
+    public void track(Player player) {
+        markDirty(player);
+        if (isFolia) {
+            if (foliaDelay > 0) {
+                schedulePlayerTask(player, foliaDelay);
+            }
+        } else if (sweepBuckets != null) {
+            sweepBuckets.add(player.getUniqueId());
+        }
+    }
+    
+    /**
+     * Marks every online player's inventory as possibly changed
+     */
+    public void markAllDirty() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            dirtyPlayers.add(player.getUniqueId());
+        }
+    }
+    
+    /**
+     * Drops the sweep state of a player who left
+     * @param player The player
+     */
+    public void forget(Player player) {
+        dirtyPlayers.remove(player.getUniqueId());
+        lastFullScan.remove(player.getUniqueId());
+        
+        ScheduledTask task = foliaPlayerTasks.remove(player.getUniqueId());
+        if (task != null) {
+            task.cancel();
+        }
+        if (sweepBuckets != null) {
+            sweepBuckets.remove(player.getUniqueId());
+        }
+    }
+    
+    /**
+     * Recomputes a player's cached exemption once it is old, so a permission change no event reported is still
+     * picked up; a lost exemption marks the player dirty like the exemption listener does
+     * @param player The player
+     */
+    private void refreshExemption(Player player) {
+        if (playerExemptions.refreshIfStale(player)) {
+            markDirty(player);
+        }
+    }
+    
+    /**
+     * Checks whether the sweep applies to a player at all, before their dirty mark is consumed
+     * Exempt players and players in worlds where the sweep is off keep their mark, so they are scanned as soon as
+     * the exemption ends instead of at the next full scan.
+     * @param player The player
+     * @return true if the player's inventory would be checked
+     */
+    private boolean isSweepable(Player player) {
+        return worldPolicies.get(player.getWorld()).isEnabled(PolicyCheck.INVENTORY_SWEEP) && !playerExemptions.isExempt(player);
+    }
+    
+    /**
+     * Decides whether a player needs scanning on this pass and records the decision in the metrics
+     * @param player The player
+     * @return true if the player is dirty or due for a fallback full scan
+     */
+    private boolean needsScan(Player player) {
+        UUID playerId = player.getUniqueId();
+        long now = System.nanoTime();
+        long fullScanInterval = TimeUnit.SECONDS.toNanos(Math.max(0, config.getFullScanIntervalSeconds()));
+        
+        Long lastFull = lastFullScan.get(playerId);
+        boolean fullScanDue = lastFull == null || now - lastFull >= fullScanInterval;
+        
+        // Remove the dirty mark before scanning, so changes made during the scan mark the player again
+        if (dirtyPlayers.remove(playerId) || fullScanDue) {
+            if (fullScanDue) {
+                lastFullScan.put(playerId, now);
+            }
+            playersScanned.incrementAndGet();
+            return true;
+        }
+        
+        playersSkipped.incrementAndGet();
+        return false;
+    }
+    
+    /**
+     * Gets the number of player scans performed since startup
+     * @return The number of scanned players
+     */
+    public long getPlayersScanned() {
+        return playersScanned.get();
+    }
+    
+    /**
+     * Gets the number of player scans skipped because the inventory was not dirty
+     * @return The number of skipped players
+     */
+    public long getPlayersSkipped() {
+        return playersSkipped.get();
+    }
+    
+    /**
+     * Gets the average time spent sweeping per tick on Paper
+     * @return The average tick cost in milliseconds
+     */
+    public double getAverageSweepTickMillis() {
+        long ticks = sweepTicks;
+        return ticks == 0 ? 0.0 : sweepNanosTotal / (double) ticks / 1_000_000.0;
+    }
+    
+    /**
+     * Gets the longest time spent sweeping in a single tick on Paper
+     * @return The maximum tick cost in milliseconds
+     */
+    public double getMaxSweepTickMillis() {
+        return sweepNanosMax / 1_000_000.0;
+    }
+    
+    /**
+     * Gets the number of sweep buckets, one per tick of the interval
+     * @return The bucket count, or 0 if the bucketed sweep is not running
+     */
+    public int getSweepBucketCount() {
+        SweepBuckets buckets = sweepBuckets;
+        return buckets != null ? buckets.getBucketCount() : 0;
     }
     
     /**
@@ -81,17 +250,39 @@ public class NetheriteRemover {
      * @param delay The delay between checks in ticks
      */
     private void startBukkitTask(int delay) {
+        // One bucket per tick of the interval, so each player is still visited once per interval
+        sweepBuckets = new SweepBuckets(delay);
+        sweepTick = 0;
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            sweepBuckets.add(player.getUniqueId());
+        }
+        
         bukkitTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            long started = System.nanoTime();
             AtomicInteger removedCount = new AtomicInteger(0);
             
-            for (Player player : Bukkit.getOnlinePlayers()) {
-                checkPlayerInventory(player, removedCount);
+            for (UUID playerId : sweepBuckets.get(sweepTick++)) {
+                Player player = Bukkit.getPlayer(playerId);
+                if (player == null) {
+                    continue;
+                }
+                refreshExemption(player);
+                if (isSweepable(player) && needsScan(player)) {
+                    checkPlayerInventory(player, removedCount);
+                }
             }
             
             if (removedCount.get() > 0 && config.isLogInventoryRemovals()) {
                 logger.info("Removed " + removedCount.get() + " Netherite items from player inventories");
             }
-        }, delay, delay);
+            
+            long elapsed = System.nanoTime() - started;
+            sweepTicks++;
+            sweepNanosTotal += elapsed;
+            if (elapsed > sweepNanosMax) {
+                sweepNanosMax = elapsed;
+            }
+        }, 1, 1);
     }
     
     /**
@@ -102,39 +293,22 @@ public class NetheriteRemover {
             bukkitTask.cancel();
             bukkitTask = null;
         }
+        sweepBuckets = null;
     }
     
     /**
      * Starts the Netherite removal task using Folia scheduler
+     * Each player gets their own task on their entity scheduler; players who join later are scheduled from
+     * the join event and retired from the quit event, so no global task has to poll the player list
      * @param delay The delay between checks in ticks
      */
     private void startFoliaTask(int delay) {
-        foliaPlayerTasks = new HashMap<>();
+        foliaDelay = delay;
         
-        // Schedule a task for each online player
+        // Schedule a task for each player already online
         for (Player player : Bukkit.getOnlinePlayers()) {
             schedulePlayerTask(player, delay);
         }
-        
-        // Schedule a global task to handle new players and cleanup (starts after 1 tick)
-        foliaGlobalTask = Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, (task) -> {
-            // Clean up tasks for offline players
-            foliaPlayerTasks.entrySet().removeIf(entry -> {
-                Player player = Bukkit.getPlayer(entry.getKey());
-                if (player == null || !player.isOnline()) {
-                    entry.getValue().cancel();
-                    return true;
-                }
-                return false;
-            });
-            
-            // Schedule tasks for new players
-            for (Player player : Bukkit.getOnlinePlayers()) {
-                if (!foliaPlayerTasks.containsKey(player.getUniqueId())) {
-                    schedulePlayerTask(player, delay);
-                }
-            }
-        }, 1, delay);
     }
     
     /**
@@ -145,47 +319,41 @@ public class NetheriteRemover {
     private void schedulePlayerTask(Player player, int delay) {
         UUID playerId = player.getUniqueId();
         
-        // Cancel existing task if present
-        ScheduledTask existingTask = foliaPlayerTasks.get(playerId);
-        if (existingTask != null && !existingTask.isCancelled()) {
-            existingTask.cancel();
-        }
-        
         ScheduledTask task = player.getScheduler().runAtFixedRate(plugin, (scheduledTask) -> {
             AtomicInteger removedCount = new AtomicInteger(0);
-            checkPlayerInventory(player, removedCount);
+            refreshExemption(player);
+            if (isSweepable(player) && needsScan(player)) {
+                checkPlayerInventory(player, removedCount);
+            }
             
             if (removedCount.get() > 0 && config.isLogInventoryRemovals()) {
                 logger.info("Removed " + removedCount.get() + " Netherite items from " + player.getName() + "'s inventory");
             }
-            
-            // If the player is offline, cancel this task and remove from map
-            if (!player.isOnline()) {
-                scheduledTask.cancel();
-                foliaPlayerTasks.remove(playerId);
-            }
         }, null, 1, delay);
         
-        foliaPlayerTasks.put(playerId, task);
+        // The scheduler returns null if the player was already removed
+        if (task == null) {
+            return;
+        }
+        
+        // Cancel the existing task if present
+        ScheduledTask existingTask = foliaPlayerTasks.put(playerId, task);
+        if (existingTask != null) {
+            existingTask.cancel();
+        }
     }
     
     /**
      * Stops all Folia tasks
      */
     private void stopFoliaTasks() {
+        foliaDelay = 0;
+        
         // Cancel all player tasks
         for (ScheduledTask task : foliaPlayerTasks.values()) {
-            if (task != null && !task.isCancelled()) {
-                task.cancel();
-            }
+            task.cancel();
         }
         foliaPlayerTasks.clear();
-        
-        // Cancel global task
-        if (foliaGlobalTask != null && !foliaGlobalTask.isCancelled()) {
-            foliaGlobalTask.cancel();
-            foliaGlobalTask = null;
-        }
     }
     
     /**
@@ -194,23 +362,17 @@ public class NetheriteRemover {
      * @param removedCount Counter for removed items
      */
     private void checkPlayerInventory(Player player, AtomicInteger removedCount) {
-        // Skip players with permission
-        if (player.hasPermission("antinetherite.bypass")) {
-            return;
-        }
-        
-        // Skip players in creative or spectator mode if configured to do so
-        if (config.isIgnoreCreativeSpectator() && 
-            (player.getGameMode() == GameMode.CREATIVE || player.getGameMode() == GameMode.SPECTATOR)) {
-            return;
-        }
-        
+        // The world policy and exemptions were already checked by isSweepable
+        WorldPolicy policy = worldPolicies.get(player.getWorld());
+        DetectorSnapshot snapshot = policy.getSnapshot();
+        PlayerProfile profile = playerExemptions.getProfile(player);
+        Predicate<Material> held = material -> profile.isAllowed(PlayerAction.HOLD, material);
         if (config.isEnableDestructiveActions()) {
             // Destructive mode: Remove items from inventory
-            removeNetheriteItems(player, removedCount);
+            removeNetheriteItems(snapshot, held, player, removedCount);
         } else {
             // Non-destructive mode: Notify player but don't remove items
-            int count = countNetheriteItems(player);
+            int count = countNetheriteItems(snapshot, held, player);
             if (count > 0) {
                 // Always notify for non-destructive actions since we're not actually removing items
                 player.sendMessage(Component.text("You have " + count + " Netherite items in your inventory that are not allowed on this server.").color(NamedTextColor.RED));
@@ -221,88 +383,43 @@ public class NetheriteRemover {
     
     /**
      * Removes Netherite items from a player's inventory
+     * The player inventory's slot indices cover the storage, armor and offhand slots, so one pass handles all of them
+     * @param snapshot The detection policy for the player's world
+     * @param held Materials the player's profile allows them to hold
      * @param player The player to check
      * @param removedCount Counter for removed items
      */
-    private void removeNetheriteItems(Player player, AtomicInteger removedCount) {
-        int itemsRemoved = 0;
-        
-        // Check main inventory
-        for (int i = 0; i < player.getInventory().getSize(); i++) {
-            ItemStack item = player.getInventory().getItem(i);
-            if (item != null && netheriteDetector.isNetheriteItem(item)) {
-                player.getInventory().setItem(i, null);
-                removedCount.incrementAndGet();
-                itemsRemoved++;
-            }
-        }
-        
-        // Check armor slots
-        for (ItemStack item : player.getInventory().getArmorContents()) {
-            if (item != null && netheriteDetector.isNetheriteItem(item)) {
-                // We can't directly modify the armor contents array, so we need to set each slot individually
-                if (item.equals(player.getInventory().getHelmet())) {
-                    player.getInventory().setHelmet(null);
-                    removedCount.incrementAndGet();
-                    itemsRemoved++;
-                } else if (item.equals(player.getInventory().getChestplate())) {
-                    player.getInventory().setChestplate(null);
-                    removedCount.incrementAndGet();
-                    itemsRemoved++;
-                } else if (item.equals(player.getInventory().getLeggings())) {
-                    player.getInventory().setLeggings(null);
-                    removedCount.incrementAndGet();
-                    itemsRemoved++;
-                } else if (item.equals(player.getInventory().getBoots())) {
-                    player.getInventory().setBoots(null);
-                    removedCount.incrementAndGet();
-                    itemsRemoved++;
-                }
-            }
-        }
+    private void removeNetheriteItems(DetectorSnapshot snapshot, Predicate<Material> held, Player player, AtomicInteger removedCount) {
+        int itemsRemoved = InventoryScanner.remove(snapshot, player.getInventory(), held);
         
-        // Check offhand
-        ItemStack offhand = player.getInventory().getItemInOffHand();
-        if (offhand != null && netheriteDetector.isNetheriteItem(offhand)) {
-            player.getInventory().setItemInOffHand(null);
-            removedCount.incrementAndGet();
-            itemsRemoved++;
+        // Check ender chest
+        if (config.isCheckEnderChest()) {
+            itemsRemoved += InventoryScanner.remove(snapshot, player.getEnderChest(), held);
         }
         
         // Always notify for destructive actions
         if (itemsRemoved > 0) {
+            removedCount.addAndGet(itemsRemoved);
             player.sendMessage(Component.text("Removed " + itemsRemoved + " Netherite items from your inventory.").color(NamedTextColor.RED));
         }
     }
     
     /**
      * Counts Netherite items in a player's inventory
+     * @param snapshot The detection policy for the player's world
+     * @param held Materials the player's profile allows them to hold
      * @param player The player to check
      * @return The number of Netherite items found
      */
-    private int countNetheriteItems(Player player) {
-        int count = 0;
-        
-        // Check main inventory
-        for (ItemStack item : player.getInventory().getContents()) {
-            if (item != null && netheriteDetector.isNetheriteItem(item)) {
-                count++;
-            }
-        }
-        
-        // Check armor slots
-        for (ItemStack item : player.getInventory().getArmorContents()) {
-            if (item != null && netheriteDetector.isNetheriteItem(item)) {
-                count++;
-            }
-        }
+    private int countNetheriteItems(DetectorSnapshot snapshot, Predicate<Material> held, Player player) {
+        // Main inventory, armor and offhand, including shulker boxes and bundles holding Netherite
+        int count = InventoryScanner.count(snapshot, player.getInventory(), held);
         
-        // Check offhand
-        ItemStack offhand = player.getInventory().getItemInOffHand();
-        if (offhand != null && netheriteDetector.isNetheriteItem(offhand)) {
-            count++;
+        // Check ender chest
+        if (config.isCheckEnderChest()) {
+            count += InventoryScanner.count(snapshot, player.getEnderChest(), held);
         }
         
         return count;
     }
-} 
\ No newline at end of file
+}
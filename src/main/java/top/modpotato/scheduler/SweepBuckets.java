@@ -0,0 +1,112 @@
+package top.modpotato.scheduler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Splits the online players into a fixed number of buckets so a sweep can process one bucket per tick.
+ * Players join the smallest bucket and the buckets are rebalanced when a player leaves, so bucket sizes never
+ * differ by more than one and the per-tick cost stays flat.
+ * Not thread-safe; only used from the main thread.
+ */
+public final class SweepBuckets {
+    private final List<Set<UUID>> buckets;
+    private final Map<UUID, Integer> bucketOf = new HashMap<>();
+
+    /**
+     * Creates a new SweepBuckets
+     * @param bucketCount The number of buckets, normally the sweep interval in ticks
+     */
+    public SweepBuckets(int bucketCount) {
+        int count = Math.max(1, bucketCount);
+        this.buckets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            buckets.add(new LinkedHashSet<>());
+        }
+    }
+
+    /**
+     * Adds a player to the smallest bucket
+     * @param playerId The player's UUID
+     */
+    public void add(UUID playerId) {
+        if (bucketOf.containsKey(playerId)) {
+            return;
+        }
+        int smallest = smallestBucket();
+        buckets.get(smallest).add(playerId);
+        bucketOf.put(playerId, smallest);
+    }
+
+    /**
+     * Removes a player and moves another player into the freed bucket if the buckets became uneven
+     * @param playerId The player's UUID
+     */
+    public void remove(UUID playerId) {
+        Integer index = bucketOf.remove(playerId);
+        if (index == null) {
+            return;
+        }
+        buckets.get(index).remove(playerId);
+
+        int largest = largestBucket();
+        Set<UUID> from = buckets.get(largest);
+        if (from.size() - buckets.get(index).size() > 1) {
+            UUID moved = from.iterator().next();
+            from.remove(moved);
+            buckets.get(index).add(moved);
+            bucketOf.put(moved, index);
+        }
+    }
+
+    /**
+     * Gets the players in a bucket
+     * @param index The bucket index; wraps around the bucket count
+     * @return The players in the bucket
+     */
+    public Collection<UUID> get(long index) {
+        return buckets.get((int) Math.floorMod(index, (long) buckets.size()));
+    }
+
+    /**
+     * Gets the number of buckets
+     * @return The bucket count
+     */
+    public int getBucketCount() {
+        return buckets.size();
+    }
+
+    /**
+     * Gets the number of tracked players
+     * @return The player count
+     */
+    public int size() {
+        return bucketOf.size();
+    }
+
+    private int smallestBucket() {
+        int smallest = 0;
+        for (int i = 1; i < buckets.size(); i++) {
+            if (buckets.get(i).size() < buckets.get(smallest).size()) {
+                smallest = i;
+            }
+        }
+        return smallest;
+    }
+
+    private int largestBucket() {
+        int largest = 0;
+        for (int i = 1; i < buckets.size(); i++) {
+            if (buckets.get(i).size() > buckets.get(largest).size()) {
+                largest = i;
+            }
+        }
+        return largest;
+    }
+}
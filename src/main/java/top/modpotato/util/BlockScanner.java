@@ -0,0 +1,251 @@
+package top.modpotato.util;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Shared engine for bulk "find blocks of type X" work.
+ * Scans run over {@link ChunkSnapshot}s on a dedicated fork-join pool, split into one task per 16-block section,
+ * and return hits as block positions packed into longs (see {@link #pack(int, int, int)}).
+ * Snapshots must be taken on the thread that owns the chunk; everything after that runs off-thread,
+ * and callers re-check each hit against the live world before changing it.
+ */
+public class BlockScanner {
+    private static final int SECTION_HEIGHT = 16;
+    private static final long[] NO_HITS = new long[0];
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a new BlockScanner
+     * @param threads The number of scanner threads, or 0 or less to use all but one core
+     */
+    public BlockScanner(int threads) {
+        int parallelism = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        AtomicInteger threadId = new AtomicInteger();
+
+        this.pool = new ForkJoinPool(parallelism, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("AntiNetherite-Scanner-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Finds every block in a chunk snapshot that matches a predicate
+     * @param snapshot The chunk snapshot
+     * @param minY The lowest Y level to scan (inclusive)
+     * @param maxY The Y level to stop at (exclusive)
+     * @param predicate The block type test
+     * @return A future completing with the packed positions of matching blocks
+     */
+    public CompletableFuture<long[]> scan(ChunkSnapshot snapshot, int minY, int maxY, Predicate<Material> predicate) {
+        return submit(new ChunkScanTask(snapshot, minY, maxY, predicate));
+    }
+
+    /**
+     * Keeps only the given positions whose block in the snapshot matches a predicate.
+     * Used to verify stored positions without touching the live world.
+     * @param snapshot The chunk snapshot containing every position
+     * @param positions The packed positions to check
+     * @param predicate The block type test
+     * @return A future completing with the packed positions that match
+     */
+    public CompletableFuture<long[]> filter(ChunkSnapshot snapshot, long[] positions, Predicate<Material> predicate) {
+        return submit(new RecursiveTask<long[]>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected long[] compute() {
+                long[] matches = new long[positions.length];
+                int count = 0;
+                for (long packed : positions) {
+                    if (predicate.test(snapshot.getBlockType(unpackX(packed) & 15, unpackY(packed), unpackZ(packed) & 15))) {
+                        matches[count++] = packed;
+                    }
+                }
+                return count == matches.length ? matches : Arrays.copyOf(matches, count);
+            }
+        });
+    }
+
+    /**
+     * Stops the scanner threads, waiting briefly for running scans to finish
+     */
+    public void shutdown() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the number of scanner threads
+     * @return The pool parallelism
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    private <T> CompletableFuture<T> submit(RecursiveTask<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            pool.execute(() -> {
+                try {
+                    future.complete(task.invoke());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (Exception e) {
+            // The pool is shut down or saturated
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Packs a block position into a long, 26 bits each for X and Z and 12 bits for Y
+     * The offline restoration tool shares this layout and runs without a server, so the pack helpers must not
+     * touch any Bukkit class.
+     * @param x The block X
+     * @param y The block Y
+     * @param z The block Z
+     * @return The packed position
+     */
+    public static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    /**
+     * Gets the block X of a packed position
+     * @param packed The packed position
+     * @return The block X
+     */
+    public static int unpackX(long packed) {
+        return (int) (packed >> 38);
+    }
+
+    /**
+     * Gets the block Y of a packed position
+     * @param packed The packed position
+     * @return The block Y
+     */
+    public static int unpackY(long packed) {
+        return (int) (packed << 52 >> 52);
+    }
+
+    /**
+     * Gets the block Z of a packed position
+     * @param packed The packed position
+     * @return The block Z
+     */
+    public static int unpackZ(long packed) {
+        return (int) (packed << 26 >> 38);
+    }
+
+    /**
+     * Scans one chunk by forking a task per section and concatenating their hits in Y order
+     */
+    private static final class ChunkScanTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient ChunkSnapshot snapshot;
+        private final int minY;
+        private final int maxY;
+        private final transient Predicate<Material> predicate;
+
+        ChunkScanTask(ChunkSnapshot snapshot, int minY, int maxY, Predicate<Material> predicate) {
+            this.snapshot = snapshot;
+            this.minY = minY;
+            this.maxY = maxY;
+            this.predicate = predicate;
+        }
+
+        @Override
+        protected long[] compute() {
+            List<SectionScanTask> sections = new ArrayList<>();
+            int y = minY;
+            while (y < maxY) {
+                // Split at section boundaries, so a partial first or last section gets its own short task
+                int sectionEnd = Math.min(maxY, Math.floorDiv(y, SECTION_HEIGHT) * SECTION_HEIGHT + SECTION_HEIGHT);
+                sections.add(new SectionScanTask(snapshot, y, sectionEnd, predicate));
+                y = sectionEnd;
+            }
+            invokeAll(sections);
+
+            int total = 0;
+            for (SectionScanTask section : sections) {
+                total += section.join().length;
+            }
+            if (total == 0) {
+                return NO_HITS;
+            }
+
+            long[] hits = new long[total];
+            int offset = 0;
+            for (SectionScanTask section : sections) {
+                long[] sectionHits = section.join();
+                System.arraycopy(sectionHits, 0, hits, offset, sectionHits.length);
+                offset += sectionHits.length;
+            }
+            return hits;
+        }
+    }
+
+    /**
+     * Scans the Y range of one section of a chunk
+     */
+    private static final class SectionScanTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient ChunkSnapshot snapshot;
+        private final int fromY;
+        private final int toY;
+        private final transient Predicate<Material> predicate;
+
+        SectionScanTask(ChunkSnapshot snapshot, int fromY, int toY, Predicate<Material> predicate) {
+            this.snapshot = snapshot;
+            this.fromY = fromY;
+            this.toY = toY;
+            this.predicate = predicate;
+        }
+
+        @Override
+        protected long[] compute() {
+            int baseX = snapshot.getX() << 4;
+            int baseZ = snapshot.getZ() << 4;
+            long[] hits = NO_HITS;
+            int count = 0;
+
+            for (int y = fromY; y < toY; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        if (!predicate.test(snapshot.getBlockType(x, y, z))) {
+                            continue;
+                        }
+                        if (count == hits.length) {
+                            hits = Arrays.copyOf(hits, Math.max(8, count * 2));
+                        }
+                        hits[count++] = pack(baseX + x, y, baseZ + z);
+                    }
+                }
+            }
+            return count == hits.length ? hits : Arrays.copyOf(hits, count);
+        }
+    }
+}
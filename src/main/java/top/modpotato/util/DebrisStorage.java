@@ -1,8 +1,10 @@
 package top.modpotato.util;
 
 import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -11,11 +13,13 @@ import org.bukkit.configuration.file.YamlConfiguration;
 import top.modpotato.Main;
 import top.modpotato.config.Config;
 import top.modpotato.restoration.RestorationSession;
+import top.modpotato.scheduler.ChunkScanQueue;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -23,6 +27,7 @@ import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
@@ -36,6 +41,7 @@ public class DebrisStorage {
     private final File storageFile;
     private FileConfiguration storage;
     private final Config config;
+    private final BlockScanner blockScanner;
     
     // Use ConcurrentHashMap for thread safety
     private final Map<UUID, List<String>> replacedLocations = new ConcurrentHashMap<>();
@@ -43,15 +49,21 @@ public class DebrisStorage {
     // Track if storage is currently being saved to prevent concurrent modifications
     private boolean isSaving = false;
     
+    // The chunk scan marker, cleared from chunks that get debris back so they are scanned again
+    private final NamespacedKey scannedKey;
+    
     /**
      * Creates a new DebrisStorage instance
      * @param plugin The plugin instance
      * @param config The configuration
+     * @param blockScanner The shared block scanner used to verify locations before restoring them
      */
-    public DebrisStorage(Main plugin, Config config) {
+    public DebrisStorage(Main plugin, Config config, BlockScanner blockScanner) {
         this.plugin = plugin;
         this.config = config;
+        this.blockScanner = blockScanner;
         this.storageFile = new File(plugin.getDataFolder(), "debris_storage.yml");
+        this.scannedKey = new NamespacedKey(plugin, ChunkScanQueue.SCANNED_MARKER);
         loadStorage();
     }
     
@@ -199,6 +211,49 @@ public class DebrisStorage {
         return false;
     }
     
+    /**
+     * Adds several locations in one world to the storage with a single save
+     * The world's stored list is indexed once for the whole batch instead of searched per location.
+     * @param world The world the locations are in
+     * @param locations The locations to add
+     * @return The number of locations added
+     */
+    public int addLocations(World world, List<Location> locations) {
+        if (world == null || locations.isEmpty()) {
+            return 0;
+        }
+        
+        // Skip if we're not saving replaced locations
+        if (!config.isSaveReplacedLocations()) {
+            return 0;
+        }
+        
+        List<String> worldLocations = replacedLocations.computeIfAbsent(world.getUID(), k -> new ArrayList<>());
+        Set<String> existing = new HashSet<>(worldLocations);
+        int maxLocations = config.getMaxLocationsPerWorld();
+        int added = 0;
+        
+        for (Location location : locations) {
+            if (maxLocations != -1 && worldLocations.size() >= maxLocations) {
+                plugin.getLogger().warning("Maximum number of Ancient Debris locations reached for world " + 
+                                          world.getName() + ". Skipping " + (locations.size() - added) + " locations");
+                break;
+            }
+            
+            String locString = serializeLocation(location);
+            if (existing.add(locString)) {
+                worldLocations.add(locString);
+                added++;
+            }
+        }
+        
+        if (added > 0) {
+            // Save the storage asynchronously
+            saveStorageAsync();
+        }
+        return added;
+    }
+    
     /**
      * Checks if a location is in the storage
      * @param location The location to check
@@ -241,6 +296,18 @@ public class DebrisStorage {
         return false;
     }
     
+    /**
+     * Turns a block back into Ancient Debris and clears its chunk's scan marker.
+     * Without this a restored chunk would still count as scanned under the current policy,
+     * and replace-on-chunk-load would skip it and leave the restored debris in place.
+     * Must run on the thread that owns the block.
+     * @param block The block to restore
+     */
+    private void restoreBlock(Block block) {
+        block.setType(Material.ANCIENT_DEBRIS);
+        block.getChunk().getPersistentDataContainer().remove(scannedKey);
+    }
+    
     /**
      * Restores all Ancient Debris in the world
      * @return The number of blocks restored
@@ -280,7 +347,7 @@ public class DebrisStorage {
                                     
                                     // Only restore if the block is still Netherrack
                                     if (block.getType() == Material.NETHERRACK) {
-                                        block.setType(Material.ANCIENT_DEBRIS);
+                                        restoreBlock(block);
                                         restoredCount.incrementAndGet();
                                     }
                                     
@@ -330,7 +397,7 @@ public class DebrisStorage {
                             
                             // Only restore if the block is still Netherrack
                             if (block.getType() == Material.NETHERRACK) {
-                                block.setType(Material.ANCIENT_DEBRIS);
+                                restoreBlock(block);
                                 restoredCount.incrementAndGet();
                             }
                             
@@ -397,7 +464,7 @@ public class DebrisStorage {
                                 
                                 // Only restore if the block is still Netherrack
                                 if (block.getType() == Material.NETHERRACK) {
-                                    block.setType(Material.ANCIENT_DEBRIS);
+                                    restoreBlock(block);
                                     restoredCount.incrementAndGet();
                                 }
                                 
@@ -448,7 +515,7 @@ public class DebrisStorage {
                         
                         // Only restore if the block is still Netherrack
                         if (block.getType() == Material.NETHERRACK) {
-                            block.setType(Material.ANCIENT_DEBRIS);
+                            restoreBlock(block);
                             restoredCount.incrementAndGet();
                         }
                         
@@ -608,152 +675,65 @@ public class DebrisStorage {
      * @param restoredCount Counter for restored blocks
      */
     private void schedulePaperRestoration(RestorationSession session, World worldFilter, AtomicInteger restoredCount) {
-        // Collect all locations to process
-        List<LocationRestore> toRestore = new ArrayList<>();
+        List<ChunkRestore> toRestore = collectChunkRestores(session, worldFilter);
         
-        if (worldFilter == null) {
-            // Restore all worlds
-            for (Map.Entry<UUID, List<String>> entry : replacedLocations.entrySet()) {
-                World world = Bukkit.getWorld(entry.getKey());
-                if (world != null) {
-                    for (String locString : entry.getValue()) {
-                        toRestore.add(new LocationRestore(world, locString, entry.getKey()));
-                    }
-                }
-            }
-        } else {
-            // Restore specific world
-            UUID worldUUID = worldFilter.getUID();
-            if (replacedLocations.containsKey(worldUUID)) {
-                for (String locString : replacedLocations.get(worldUUID)) {
-                    toRestore.add(new LocationRestore(worldFilter, locString, worldUUID));
-                }
+        // Count chunks still being verified or restored; the last one to finish cleans up
+        AtomicInteger remainingChunks = new AtomicInteger(toRestore.size());
+        Runnable onChunkDone = () -> {
+            if (remainingChunks.decrementAndGet() == 0) {
+                finishRestoration(session, worldFilter, restoredCount);
             }
+        };
+        
+        if (toRestore.isEmpty()) {
+            Bukkit.getScheduler().runTask(plugin, () -> finishRestoration(session, worldFilter, restoredCount));
+            return;
         }
         
-        // Process in batches on the main thread to avoid lag
-        final int BATCH_SIZE = 50; // Process 50 blocks per tick
-        final int totalBatches = (int) Math.ceil((double) toRestore.size() / BATCH_SIZE);
+        // Snapshot chunks in batches on the main thread to avoid lag
+        final int BATCH_SIZE = 50; // Dispatch about 50 blocks per tick
+        Executor mainThread = task -> Bukkit.getScheduler().runTask(plugin, task);
         
         Bukkit.getScheduler().runTask(plugin, new Runnable() {
-            int currentBatch = 0;
+            int nextChunk = 0;
             
             @Override
             public void run() {
-                int start = currentBatch * BATCH_SIZE;
-                int end = Math.min(start + BATCH_SIZE, toRestore.size());
-                
-                for (int i = start; i < end; i++) {
-                    LocationRestore lr = toRestore.get(i);
-                    try {
-                        Location location = deserializeLocation(lr.world, lr.locString);
-                        
-                        // Skip if chunk not loaded
-                        if (!isChunkLoaded(location) && !loadChunkIfNeeded(location)) {
-                            session.incrementCompleted();
-                            continue;
-                        }
-                        
-                        Block block = location.getBlock();
-                        
-                        // Only restore if the block is still Netherrack
-                        if (block.getType() == Material.NETHERRACK) {
-                            block.setType(Material.ANCIENT_DEBRIS);
-                            restoredCount.incrementAndGet();
-                        }
-                        
-                        session.incrementCompleted();
-                    } catch (Exception e) {
-                        plugin.getLogger().warning("Error restoring Ancient Debris at " + lr.locString + ": " + e.getMessage());
-                        session.incrementCompleted();
-                    }
+                int dispatched = 0;
+                while (nextChunk < toRestore.size() && dispatched < BATCH_SIZE) {
+                    ChunkRestore chunkRestore = toRestore.get(nextChunk++);
+                    dispatched += chunkRestore.positions.length;
+                    restoreChunk(chunkRestore, session, restoredCount, mainThread, onChunkDone);
                 }
                 
-                currentBatch++;
-                
-                if (currentBatch < totalBatches) {
+                if (nextChunk < toRestore.size()) {
                     // Schedule next batch
                     Bukkit.getScheduler().runTask(plugin, this);
-                } else {
-                    // All done - clean up
-                    cleanupAfterRestore(worldFilter);
-                    
-                    // Notify progress tracker
-                    if (plugin.getRestorationProgressTracker() != null) {
-                        plugin.getRestorationProgressTracker().completeSession(session.getSessionId(), restoredCount.get());
-                    }
                 }
             }
         });
     }
     
     /**
-     * Schedules restoration work on Folia (region scheduler per location)
+     * Schedules restoration work on Folia (region scheduler per chunk)
      * @param session The restoration session
      * @param worldFilter The world to restore in, or null for all worlds
      * @param restoredCount Counter for restored blocks
      */
     private void scheduleFoliaRestoration(RestorationSession session, World worldFilter, AtomicInteger restoredCount) {
-        // Collect all locations to process
-        List<LocationRestore> toRestore = new ArrayList<>();
-        
-        if (worldFilter == null) {
-            // Restore all worlds
-            for (Map.Entry<UUID, List<String>> entry : replacedLocations.entrySet()) {
-                World world = Bukkit.getWorld(entry.getKey());
-                if (world != null) {
-                    for (String locString : entry.getValue()) {
-                        toRestore.add(new LocationRestore(world, locString, entry.getKey()));
-                    }
-                }
-            }
-        } else {
-            // Restore specific world
-            UUID worldUUID = worldFilter.getUID();
-            if (replacedLocations.containsKey(worldUUID)) {
-                for (String locString : replacedLocations.get(worldUUID)) {
-                    toRestore.add(new LocationRestore(worldFilter, locString, worldUUID));
-                }
-            }
-        }
+        List<ChunkRestore> toRestore = collectChunkRestores(session, worldFilter);
         
-        // Count down latch to know when all are done
+        // Count down latch to know when all chunks are done
         CountDownLatch latch = new CountDownLatch(toRestore.size());
         
-        // Schedule each location on its region
-        for (LocationRestore lr : toRestore) {
+        // Schedule each chunk on its region
+        for (ChunkRestore chunkRestore : toRestore) {
+            Executor regionThread = task -> Bukkit.getRegionScheduler().execute(plugin, chunkRestore.world, chunkRestore.chunkX, chunkRestore.chunkZ, task);
             try {
-                Location location = deserializeLocation(lr.world, lr.locString);
-                
-                // Skip if chunk not loaded
-                if (!isChunkLoaded(location) && !loadChunkIfNeeded(location)) {
-                    session.incrementCompleted();
-                    latch.countDown();
-                    continue;
-                }
-                
-                // Schedule on region
-                Bukkit.getRegionScheduler().execute(plugin, location, () -> {
-                    try {
-                        Block block = location.getBlock();
-                        
-                        // Only restore if the block is still Netherrack
-                        if (block.getType() == Material.NETHERRACK) {
-                            block.setType(Material.ANCIENT_DEBRIS);
-                            restoredCount.incrementAndGet();
-                        }
-                        
-                        session.incrementCompleted();
-                    } catch (Exception e) {
-                        plugin.getLogger().warning("Error restoring Ancient Debris: " + e.getMessage());
-                        session.incrementCompleted();
-                    } finally {
-                        latch.countDown();
-                    }
-                });
+                regionThread.execute(() -> restoreChunk(chunkRestore, session, restoredCount, regionThread, latch::countDown));
             } catch (Exception e) {
-                plugin.getLogger().warning("Error scheduling restoration at " + lr.locString + ": " + e.getMessage());
-                session.incrementCompleted();
+                plugin.getLogger().warning("Error scheduling restoration in chunk " + chunkRestore.chunkX + "," + chunkRestore.chunkZ + ": " + e.getMessage());
+                completeLocations(session, chunkRestore.positions.length);
                 latch.countDown();
             }
         }
@@ -768,17 +748,136 @@ public class DebrisStorage {
             }
             
             // Clean up on main thread (for Paper compatibility)
-            Bukkit.getScheduler().runTask(plugin, () -> {
-                cleanupAfterRestore(worldFilter);
-                
-                // Notify progress tracker
-                if (plugin.getRestorationProgressTracker() != null) {
-                    plugin.getRestorationProgressTracker().completeSession(session.getSessionId(), restoredCount.get());
-                }
-            });
+            Bukkit.getScheduler().runTask(plugin, () -> finishRestoration(session, worldFilter, restoredCount));
         });
     }
     
+    /**
+     * Restores the stored locations of one chunk.
+     * The chunk is snapshotted on its owning thread, the locations that are still Netherrack are found
+     * by the block scanner off-thread, and only those are changed back on the owning thread.
+     * @param chunkRestore The chunk and its locations
+     * @param session The restoration session
+     * @param restoredCount Counter for restored blocks
+     * @param ownerThread Runs tasks on the thread that owns the chunk
+     * @param onDone Called once every location of the chunk has been handled
+     */
+    private void restoreChunk(ChunkRestore chunkRestore, RestorationSession session, AtomicInteger restoredCount,
+                              Executor ownerThread, Runnable onDone) {
+        World world = chunkRestore.world;
+        ChunkSnapshot snapshot;
+        try {
+            // Skip if chunk not loaded
+            Location anchor = new Location(world, chunkRestore.chunkX << 4, 0, chunkRestore.chunkZ << 4);
+            if (!isChunkLoaded(anchor) && !loadChunkIfNeeded(anchor)) {
+                completeLocations(session, chunkRestore.positions.length);
+                onDone.run();
+                return;
+            }
+            
+            snapshot = world.getChunkAt(chunkRestore.chunkX, chunkRestore.chunkZ).getChunkSnapshot(false, false, false);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Error restoring Ancient Debris in chunk " + chunkRestore.chunkX + "," + chunkRestore.chunkZ + ": " + e.getMessage());
+            completeLocations(session, chunkRestore.positions.length);
+            onDone.run();
+            return;
+        }
+        
+        blockScanner.filter(snapshot, chunkRestore.positions, type -> type == Material.NETHERRACK)
+                .whenComplete((matches, error) -> ownerThread.execute(() -> {
+                    try {
+                        if (error != null) {
+                            plugin.getLogger().warning("Error verifying Ancient Debris in chunk " + chunkRestore.chunkX + "," + chunkRestore.chunkZ + ": " + error.getMessage());
+                            return;
+                        }
+                        
+                        for (long packed : matches) {
+                            Block block = world.getBlockAt(BlockScanner.unpackX(packed), BlockScanner.unpackY(packed), BlockScanner.unpackZ(packed));
+                            
+                            // Only restore if the block is still Netherrack
+                            if (block.getType() == Material.NETHERRACK) {
+                                restoreBlock(block);
+                                restoredCount.incrementAndGet();
+                            }
+                        }
+                    } catch (Exception e) {
+                        plugin.getLogger().warning("Error restoring Ancient Debris in chunk " + chunkRestore.chunkX + "," + chunkRestore.chunkZ + ": " + e.getMessage());
+                    } finally {
+                        completeLocations(session, chunkRestore.positions.length);
+                        onDone.run();
+                    }
+                }));
+    }
+    
+    /**
+     * Groups the stored locations to restore by chunk
+     * @param session The restoration session, credited with locations that can't be parsed
+     * @param worldFilter The world to restore in, or null for all worlds
+     * @return The locations of each chunk
+     */
+    private List<ChunkRestore> collectChunkRestores(RestorationSession session, World worldFilter) {
+        List<ChunkRestore> chunks = new ArrayList<>();
+        
+        for (Map.Entry<UUID, List<String>> entry : replacedLocations.entrySet()) {
+            if (worldFilter != null && !worldFilter.getUID().equals(entry.getKey())) {
+                continue;
+            }
+            World world = Bukkit.getWorld(entry.getKey());
+            if (world == null) {
+                continue;
+            }
+            
+            Map<Long, List<Long>> byChunk = new LinkedHashMap<>();
+            for (String locString : new ArrayList<>(entry.getValue())) {
+                try {
+                    Location location = deserializeLocation(world, locString);
+                    long chunkKey = ((long) (location.getBlockX() >> 4) << 32) | ((location.getBlockZ() >> 4) & 0xFFFFFFFFL);
+                    byChunk.computeIfAbsent(chunkKey, k -> new ArrayList<>())
+                           .add(BlockScanner.pack(location.getBlockX(), location.getBlockY(), location.getBlockZ()));
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Error restoring Ancient Debris at " + locString + ": " + e.getMessage());
+                    session.incrementCompleted();
+                }
+            }
+            
+            for (Map.Entry<Long, List<Long>> chunk : byChunk.entrySet()) {
+                long[] positions = new long[chunk.getValue().size()];
+                for (int i = 0; i < positions.length; i++) {
+                    positions[i] = chunk.getValue().get(i);
+                }
+                chunks.add(new ChunkRestore(world, (int) (chunk.getKey() >> 32), (int) (long) chunk.getKey(), positions));
+            }
+        }
+        
+        return chunks;
+    }
+    
+    /**
+     * Credits a number of handled locations to a session
+     * @param session The restoration session
+     * @param count The number of locations
+     */
+    private void completeLocations(RestorationSession session, int count) {
+        for (int i = 0; i < count; i++) {
+            session.incrementCompleted();
+        }
+    }
+    
+    /**
+     * Cleans up storage and notifies the progress tracker once a restoration session is done
+     * @param session The restoration session
+     * @param worldFilter The world filter, or null for all worlds
+     * @param restoredCount Counter for restored blocks
+     */
+    private void finishRestoration(RestorationSession session, World worldFilter, AtomicInteger restoredCount) {
+        cleanupAfterRestore(worldFilter);
+        
+        // Notify progress tracker
+        if (plugin.getRestorationProgressTracker() != null) {
+            plugin.getRestorationProgressTracker().completeSession(session.getSessionId(), restoredCount.get());
+        }
+    }
+    
     /**
      * Cleans up restored locations from storage
      * @param worldFilter The world filter, or null for all worlds
@@ -793,17 +892,19 @@ public class DebrisStorage {
     }
     
     /**
-     * Helper class to hold location restoration data
+     * Helper class to hold the stored locations of one chunk
      */
-    private static class LocationRestore {
+    private static class ChunkRestore {
         final World world;
-        final String locString;
-        final UUID worldUUID;
+        final int chunkX;
+        final int chunkZ;
+        final long[] positions;
         
-        LocationRestore(World world, String locString, UUID worldUUID) {
+        ChunkRestore(World world, int chunkX, int chunkZ, long[] positions) {
             this.world = world;
-            this.locString = locString;
-            this.worldUUID = worldUUID;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.positions = positions;
         }
     }
     
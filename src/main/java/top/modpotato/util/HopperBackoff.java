@@ -0,0 +1,149 @@
+package top.modpotato.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.Hopper;
+import org.bukkit.inventory.Inventory;
+
+import top.modpotato.Main;
+import top.modpotato.config.Config;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Backs off hoppers that keep trying to move Netherite
+ * A hopper chain pushing Netherite is cancelled and retried every few ticks forever. Each blocked transfer is
+ * recorded against the hopper that started it; once a hopper is blocked {@code inventory.hopper-backoff.threshold}
+ * times within the backoff window, its transfer cooldown is raised to the window length so it stops firing events
+ * until the window ends. Blocked and backed-off transfers are counted per world to help find the offending farms.
+ * At most {@value #MAX_TRACKED_SOURCES} hoppers are tracked at once; while that many are inside their window, further
+ * hoppers are still blocked but not backed off.
+ */
+public class HopperBackoff {
+    private static final int MAX_TRACKED_SOURCES = 4096;
+
+    private final Main plugin;
+    private final Config config;
+
+    private final Map<SourceKey, Strikes> sources = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> blockedByWorld = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> backoffsByWorld = new ConcurrentHashMap<>();
+
+    private record SourceKey(UUID worldId, long position) {
+    }
+
+    private static final class Strikes {
+        private int count;
+        private long windowStart;
+    }
+
+    /**
+     * Creates a new HopperBackoff
+     * @param plugin The plugin instance
+     * @param config The plugin configuration
+     */
+    public HopperBackoff(Main plugin, Config config) {
+        this.plugin = plugin;
+        this.config = config;
+    }
+
+    /**
+     * Records a blocked transfer and backs off its hopper if it keeps retrying
+     * @param initiator The inventory that started the transfer
+     */
+    public void recordBlocked(Inventory initiator) {
+        Location location = initiator.getLocation();
+        if (location == null || location.getWorld() == null) {
+            return;
+        }
+
+        World world = location.getWorld();
+        blockedByWorld.computeIfAbsent(world.getName(), name -> new LongAdder()).increment();
+
+        int threshold = config.getHopperBackoffThreshold();
+        int backoffTicks = config.getHopperBackoffTicks();
+        if (threshold <= 0 || backoffTicks <= 0) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long window = TimeUnit.MILLISECONDS.toNanos(backoffTicks * 50L);
+        SourceKey key = new SourceKey(world.getUID(),
+                BlockScanner.pack(location.getBlockX(), location.getBlockY(), location.getBlockZ()));
+
+        Strikes strikes = sources.get(key);
+        if (strikes == null) {
+            if (sources.size() >= MAX_TRACKED_SOURCES) {
+                sources.values().removeIf(tracked -> now - tracked.windowStart >= window);
+
+                // Every tracked hopper is still inside its window; don't start tracking more than the cap
+                if (sources.size() >= MAX_TRACKED_SOURCES) {
+                    return;
+                }
+            }
+            strikes = sources.computeIfAbsent(key, k -> new Strikes());
+        }
+
+        boolean backOff;
+        synchronized (strikes) {
+            if (now - strikes.windowStart >= window) {
+                strikes.windowStart = now;
+                strikes.count = 0;
+            }
+            backOff = ++strikes.count >= threshold;
+            if (backOff) {
+                strikes.count = 0;
+            }
+        }
+
+        if (backOff) {
+            backoffsByWorld.computeIfAbsent(world.getName(), name -> new LongAdder()).increment();
+
+            // The hopper resets its own cooldown after a cancelled transfer, so apply ours afterwards on the owning region
+            Bukkit.getRegionScheduler().execute(plugin, location, () -> {
+                Block block = location.getBlock();
+                if (block.getState(false) instanceof Hopper hopper) {
+                    hopper.setTransferCooldown(Math.max(hopper.getTransferCooldown(), backoffTicks));
+                }
+            });
+        }
+    }
+
+    /**
+     * Gets the number of blocked transfers per world
+     * @return World names mapped to blocked transfer counts
+     */
+    public Map<String, Long> getBlockedByWorld() {
+        return snapshot(blockedByWorld);
+    }
+
+    /**
+     * Gets the number of times a hopper was backed off per world
+     * @return World names mapped to backoff counts
+     */
+    public Map<String, Long> getBackoffsByWorld() {
+        return snapshot(backoffsByWorld);
+    }
+
+    /**
+     * Forgets all tracked hoppers, used on reload since the threshold and window may have changed; the per-world
+     * counts are kept
+     */
+    public void clear() {
+        sources.clear();
+    }
+
+    private static Map<String, Long> snapshot(Map<String, LongAdder> counters) {
+        Map<String, Long> result = new TreeMap<>();
+        counters.forEach((world, count) -> result.put(world, count.sum()));
+        return Collections.unmodifiableMap(result);
+    }
+}
@@ -0,0 +1,267 @@
+package top.modpotato.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import top.modpotato.Main;
+import top.modpotato.scheduler.NetheriteRemover;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * Registry of players the plugin ignores, managed with {@code /antinetherite ignore}
+ * Entries can be permanent or expire after a duration, which suits events and staff testing better than handing out
+ * the bypass permission. Lookups are a single concurrent map read, so {@link PlayerExemptions} can consult the
+ * registry on every event. Expiring entries are placed on a timing wheel with one slot per second that is advanced
+ * once a second, so only the entries due in the current slot are looked at instead of the whole registry.
+ * Changes are written to {@code ignored_players.yml} off the main thread.
+ */
+public class IgnoredPlayers {
+    private static final int WHEEL_SLOTS = 512;
+    private static final long SLOT_MILLIS = 1000L;
+
+    private final Main plugin;
+    private final File storageFile;
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean savePending = new AtomicBoolean();
+
+    @SuppressWarnings("unchecked")
+    private final List<Entry>[] wheel = new List[WHEEL_SLOTS];
+    private long currentTick;
+    private ScheduledTask wheelTask;
+
+    /**
+     * An ignored player
+     * @param uuid The player's UUID
+     * @param name The player's name when they were added
+     * @param expiresAt When the entry expires in epoch milliseconds, or 0 if it never does
+     */
+    public record Entry(UUID uuid, String name, long expiresAt) {
+        /**
+         * Gets whether this entry expires
+         * @return true if the entry has an expiry time
+         */
+        public boolean isTemporary() {
+            return expiresAt > 0;
+        }
+    }
+
+    /**
+     * Creates a new IgnoredPlayers and loads the stored entries
+     * @param plugin The plugin instance
+     */
+    public IgnoredPlayers(Main plugin) {
+        this.plugin = plugin;
+        this.storageFile = new File(plugin.getDataFolder(), "ignored_players.yml");
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            wheel[i] = new ArrayList<>();
+        }
+        currentTick = System.currentTimeMillis() / SLOT_MILLIS;
+        load();
+    }
+
+    /**
+     * Starts advancing the expiry wheel
+     */
+    public synchronized void start() {
+        if (wheelTask != null) {
+            return;
+        }
+        wheelTask = Bukkit.getAsyncScheduler().runAtFixedRate(plugin, task -> advance(), SLOT_MILLIS, SLOT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops advancing the expiry wheel and writes the registry to disk
+     */
+    public synchronized void stop() {
+        if (wheelTask != null) {
+            wheelTask.cancel();
+            wheelTask = null;
+        }
+        save();
+    }
+
+    /**
+     * Checks whether a player is ignored
+     * @param uuid The player's UUID
+     * @return true if the player is ignored
+     */
+    public boolean contains(UUID uuid) {
+        return entries.containsKey(uuid);
+    }
+
+    /**
+     * Ignores a player, replacing any existing entry
+     * @param uuid The player's UUID
+     * @param name The player's name
+     * @param durationMillis How long to ignore the player, or 0 to ignore them until removed
+     * @return The new entry
+     * @throws IllegalArgumentException If the expiry time would overflow
+     */
+    public Entry add(UUID uuid, String name, long durationMillis) {
+        long expiresAt = 0;
+        if (durationMillis > 0) {
+            try {
+                expiresAt = Math.addExact(System.currentTimeMillis(), durationMillis);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Duration out of range: " + durationMillis + "ms");
+            }
+        }
+        Entry entry = new Entry(uuid, name, expiresAt);
+        entries.put(uuid, entry);
+        if (entry.isTemporary()) {
+            schedule(entry);
+        }
+        saveAsync();
+        return entry;
+    }
+
+    /**
+     * Stops ignoring a player
+     * @param uuid The player's UUID
+     * @return The removed entry, or null if the player wasn't ignored
+     */
+    public Entry remove(UUID uuid) {
+        // A scheduled expiry of the removed entry is skipped when its slot comes up
+        Entry entry = entries.remove(uuid);
+        if (entry != null) {
+            released(uuid);
+            saveAsync();
+        }
+        return entry;
+    }
+
+    /**
+     * Gets the current entries
+     * @return The ignored players
+     */
+    public Collection<Entry> getEntries() {
+        return Collections.unmodifiableCollection(new ArrayList<>(entries.values()));
+    }
+
+    /**
+     * Gets the number of ignored players
+     * @return The number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private synchronized void schedule(Entry entry) {
+        // Round up so the slot is only reached once the entry is due; entries already due go in the next slot
+        long tick = Math.max((entry.expiresAt() + SLOT_MILLIS - 1) / SLOT_MILLIS, currentTick + 1);
+        wheel[(int) (tick % WHEEL_SLOTS)].add(entry);
+    }
+
+    private void advance() {
+        long now = System.currentTimeMillis();
+        List<Entry> expired = new ArrayList<>();
+        synchronized (this) {
+            long targetTick = now / SLOT_MILLIS;
+            while (currentTick < targetTick) {
+                currentTick++;
+                List<Entry> slot = wheel[(int) (currentTick % WHEEL_SLOTS)];
+                // Entries further out than one turn of the wheel stay in the slot until their turn comes round
+                slot.removeIf(entry -> {
+                    if (entry.expiresAt() <= now) {
+                        expired.add(entry);
+                        return true;
+                    }
+                    return false;
+                });
+            }
+        }
+
+        boolean changed = false;
+        for (Entry entry : expired) {
+            // Only expire the entry if it hasn't been replaced or removed since it was scheduled
+            if (entries.remove(entry.uuid(), entry)) {
+                released(entry.uuid());
+                changed = true;
+            }
+        }
+        if (changed) {
+            saveAsync();
+        }
+    }
+
+    private void released(UUID uuid) {
+        // Have the sweep look at the player again now that they're no longer ignored
+        Player player = Bukkit.getPlayer(uuid);
+        NetheriteRemover netheriteRemover = plugin.getNetheriteRemover();
+        if (player != null && netheriteRemover != null) {
+            netheriteRemover.markDirty(player);
+        }
+    }
+
+    private void load() {
+        if (!storageFile.exists()) {
+            return;
+        }
+
+        YamlConfiguration storage = YamlConfiguration.loadConfiguration(storageFile);
+        long now = System.currentTimeMillis();
+        for (String key : storage.getKeys(false)) {
+            ConfigurationSection section = storage.getConfigurationSection(key);
+            if (section == null) {
+                continue;
+            }
+            try {
+                Entry entry = new Entry(UUID.fromString(key), section.getString("name", key), section.getLong("expires-at", 0));
+                if (entry.isTemporary() && entry.expiresAt() <= now) {
+                    continue;
+                }
+                entries.put(entry.uuid(), entry);
+                if (entry.isTemporary()) {
+                    schedule(entry);
+                }
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("Invalid UUID in ignored_players.yml: " + key);
+            }
+        }
+        plugin.getLogger().info("Loaded " + entries.size() + " ignored players");
+    }
+
+    private void saveAsync() {
+        // Changes made while a write is pending are picked up by that write
+        if (savePending.compareAndSet(false, true)) {
+            Bukkit.getAsyncScheduler().runNow(plugin, task -> save());
+        }
+    }
+
+    private synchronized void save() {
+        savePending.set(false);
+
+        YamlConfiguration storage = new YamlConfiguration();
+        for (Entry entry : entries.values()) {
+            String key = entry.uuid().toString();
+            storage.set(key + ".name", entry.name());
+            if (entry.isTemporary()) {
+                storage.set(key + ".expires-at", entry.expiresAt());
+            }
+        }
+
+        try {
+            if (!plugin.getDataFolder().exists()) {
+                plugin.getDataFolder().mkdirs();
+            }
+            storage.save(storageFile);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not save ignored_players.yml", e);
+        }
+    }
+}
@@ -3,22 +3,32 @@ package top.modpotato.util;
 import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
 
-import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import top.modpotato.config.Config;
+import top.modpotato.detection.DetectorSnapshot;
+import top.modpotato.detection.VerdictCache;
 
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Utility class for detecting Netherite items
  * Acts as a centralized source of truth for what constitutes a Netherite item
+ * The configuration is compiled on reload into an immutable {@link DetectorSnapshot} (a verdict table indexed by
+ * material ordinal, the compiled {@code detection.rules} and a single name/lore matcher). An item whose material
+ * decides the verdict, or that has no meta, is decided with one array load and no allocation. Any other item pays for
+ * one {@code getItemMeta()} copy, but only when a meta rule applies to its material or it carries a custom name,
+ * or lore with {@code match-lore} on; the rest are decided from the item's components without copying.
+ * The snapshot is published through a single volatile reference: reloads swap it atomically, and every check
+ * reads it once, so threads evaluating items during a reload see either the old or the new policy, never a mix.
+ * Verdicts for items that needed their meta are kept in a {@link VerdictCache} tied to the snapshot version.
  */
 public class NetheriteDetector {
     private final Config config;
-    private final Set<String> netheriteItemNames = new HashSet<>();
-    private final Set<Material> netheriteItemMaterials = new HashSet<>();
+    private final AtomicLong versions = new AtomicLong();
+    private final VerdictCache verdictCache;
+    private volatile DetectorSnapshot snapshot;
     
     /**
      * Creates a new NetheriteDetector
@@ -26,6 +36,7 @@ public class NetheriteDetector {
      */
     public NetheriteDetector(Config config) {
         this.config = config;
+        this.verdictCache = new VerdictCache(config.getVerdictCacheSize());
         reloadNetheriteItems();
     }
     
@@ -33,34 +44,44 @@ public class NetheriteDetector {
      * Reloads the list of Netherite items from the configuration
      */
     public void reloadNetheriteItems() {
-        netheriteItemNames.clear();
-        netheriteItemMaterials.clear();
+        verdictCache.setCapacity(config.getVerdictCacheSize());
         
-        // Add custom item names from config
-        List<String> customItems = config.getNetheriteItemsList();
-        if (customItems != null) {
-            netheriteItemNames.addAll(customItems);
-        }
-        
-        // Add material enums if they exist
-        for (String itemName : netheriteItemNames) {
-            try {
-                Material material = Material.valueOf(itemName.toUpperCase());
-                netheriteItemMaterials.add(material);
-            } catch (IllegalArgumentException ignored) {
-                // Material doesn't exist, that's fine
-            }
-        }
-        
-        // Add default Netherite materials if using name matching
-        if (config.isUseNameMatching()) {
-            for (Material material : Material.values()) {
-                if (material.name().contains("NETHERITE")) {
-                    netheriteItemMaterials.add(material);
-                    netheriteItemNames.add(material.name());
-                }
-            }
-        }
+        // Compile off to the side, then publish in one write
+        snapshot = DetectorSnapshot.compile(config, versions.incrementAndGet(), verdictCache);
+    }
+    
+    /**
+     * Compiles a detection policy for a world profile, sharing the current version and verdict cache
+     * @param items The profile's item list
+     * @param profileSlot A number unique to the profile, greater than 0
+     * @return The compiled snapshot
+     */
+    public DetectorSnapshot compileProfile(List<String> items, int profileSlot) {
+        return DetectorSnapshot.compile(config, items, profileSlot, snapshot.getVersion(), verdictCache);
+    }
+    
+    /**
+     * Gets the current compiled policy; callers making several checks should hold on to one snapshot
+     * @return The current detector snapshot
+     */
+    public DetectorSnapshot getSnapshot() {
+        return snapshot;
+    }
+    
+    /**
+     * Gets the version of the current policy, for caches that need to invalidate on reload
+     * @return The snapshot version
+     */
+    public long getVersion() {
+        return snapshot.getVersion();
+    }
+    
+    /**
+     * Gets the verdict cache, for metrics
+     * @return The verdict cache
+     */
+    public VerdictCache getVerdictCache() {
+        return verdictCache;
     }
     
     /**
@@ -69,39 +90,45 @@ public class NetheriteDetector {
      * @return true if the item is a Netherite item, false otherwise
      */
     public boolean isNetheriteItem(ItemStack item) {
-        if (item == null) {
-            return false;
-        }
-        
-        // Check by material (most efficient)
-        if (netheriteItemMaterials.contains(item.getType())) {
-            return true;
-        }
-        
-        // If using name matching, check by name
-        if (config.isUseNameMatching()) {
-            String itemTypeName = item.getType().name();
-            
-            // Check if the item type name contains any of the custom names
-            for (String netheriteItemName : netheriteItemNames) {
-                if (itemTypeName.contains(netheriteItemName)) {
-                    return true;
-                }
-            }
-            
-            // Check if the item has a display name that contains any of the custom names
-            if (item.hasItemMeta() && item.getItemMeta().hasDisplayName()) {
-                Component displayName = item.getItemMeta().displayName();
-                String plainText = PlainTextComponentSerializer.plainText().serialize(displayName);
-                for (String netheriteItemName : netheriteItemNames) {
-                    if (plainText.toLowerCase().contains(netheriteItemName.toLowerCase())) {
-                        return true;
-                    }
-                }
-            }
-        }
-        
-        return false;
+        return snapshot.isNetheriteItem(item);
+    }
+    
+    /**
+     * Gets the rule that makes an item a Netherite item, for logging and audits
+     * @param item The item to check
+     * @return A description of the rule that fired, such as "material:NETHERITE_SWORD" or "name:netherite",
+     *         or null if the item is not a Netherite item
+     */
+    public String getMatchReason(ItemStack item) {
+        return snapshot.getMatchReason(item);
+    }
+    
+    /**
+     * Checks if an item is a Netherite item or a container holding one
+     * @param item The item to check
+     * @return true if the item or anything nested inside it is a Netherite item
+     */
+    public boolean containsNetherite(ItemStack item) {
+        return snapshot.containsNetherite(item);
+    }
+    
+    /**
+     * Checks if a shulker box or bundle holds a Netherite item, up to the configured depth
+     * @param item The item to check
+     * @return true if a nested item is a Netherite item
+     */
+    public boolean hasNestedNetherite(ItemStack item) {
+        return snapshot.hasNestedNetherite(item);
+    }
+    
+    /**
+     * Removes the Netherite items nested in a shulker box or bundle, leaving the container and its other contents.
+     * The item's meta is updated in place; callers holding a copy must write it back to the inventory.
+     * @param item The container item
+     * @return The number of nested stacks removed
+     */
+    public int removeNestedNetherite(ItemStack item) {
+        return snapshot.removeNestedNetherite(item);
     }
     
     /**
@@ -109,7 +136,7 @@ public class NetheriteDetector {
      * @return The set of Netherite item names
      */
     public Set<String> getNetheriteItemNames() {
-        return new HashSet<>(netheriteItemNames);
+        return new HashSet<>(snapshot.getNetheriteItemNames());
     }
     
     /**
@@ -117,6 +144,6 @@ public class NetheriteDetector {
      * @return The set of Netherite item materials
      */
     public Set<Material> getNetheriteItemMaterials() {
-        return new HashSet<>(netheriteItemMaterials);
+        return new HashSet<>(snapshot.getNetheriteItemMaterials());
     }
-} 
\ No newline at end of file
+}
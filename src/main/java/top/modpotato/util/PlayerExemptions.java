@@ -0,0 +1,180 @@
+package top.modpotato.util;
+
+import org.bukkit.GameMode;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+
+import top.modpotato.config.Config;
+import top.modpotato.policy.PlayerAction;
+import top.modpotato.policy.PlayerProfile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches whether each online player is exempt from the Netherite restrictions
+ * The bypass permission and gamemode are resolved once per player and refreshed by {@code ExemptionListener}
+ * on join, gamemode change, world change and command tree resends, so the hot listener paths only do a map lookup
+ * instead of walking the permission attachments on every event. Permission plugins don't always announce a change,
+ * so the inventory sweep also refreshes any entry older than {@link #MAX_AGE_SECONDS} when it visits the player. Players in the {@link IgnoredPlayers} registry are
+ * exempt from everything, like players with the bypass permission. The player's {@code antinetherite.profile.<name>}
+ * permissions are resolved at the same time into a single {@link PlayerProfile}, so per-material allowances are
+ * a bit test as well.
+ */
+public class PlayerExemptions {
+    private static final int BYPASS = 1;
+    private static final int IGNORED_GAMEMODE = 2;
+
+    /**
+     * How old a cached entry may get before the sweep recomputes it
+     */
+    public static final int MAX_AGE_SECONDS = 10;
+    private static final long MAX_AGE_NANOS = TimeUnit.SECONDS.toNanos(MAX_AGE_SECONDS);
+
+    private final Config config;
+    private final IgnoredPlayers ignoredPlayers;
+    private final Map<UUID, State> states = new ConcurrentHashMap<>();
+
+    private record State(int flags, PlayerProfile profile, long computedAt) {
+    }
+
+    /**
+     * Creates a new PlayerExemptions
+     * @param config The plugin configuration
+     * @param ignoredPlayers The ignored-player registry
+     */
+    public PlayerExemptions(Config config, IgnoredPlayers ignoredPlayers) {
+        this.config = config;
+        this.ignoredPlayers = ignoredPlayers;
+    }
+
+    /**
+     * Checks if a player is exempt from the restrictions, either by being ignored, through the bypass permission or, when
+     * {@code advanced.ignore-creative-spectator} is enabled, by being in creative or spectator mode
+     * @param player The player
+     * @return true if the player should be ignored
+     */
+    public boolean isExempt(Player player) {
+        if (ignoredPlayers.contains(player.getUniqueId())) {
+            return true;
+        }
+        int playerFlags = getState(player).flags();
+        return (playerFlags & BYPASS) != 0 || (config.isIgnoreCreativeSpectator() && (playerFlags & IGNORED_GAMEMODE) != 0);
+    }
+
+    /**
+     * Checks if a player has the bypass permission or is ignored
+     * @param player The player
+     * @return true if the player has antinetherite.bypass or is in the ignored-player registry
+     */
+    public boolean hasBypass(Player player) {
+        return ignoredPlayers.contains(player.getUniqueId()) || (getState(player).flags() & BYPASS) != 0;
+    }
+
+    /**
+     * Gets the combined profile granted by a player's {@code antinetherite.profile.<name>} permissions
+     * @param player The player
+     * @return The player's profile, or {@link PlayerProfile#NONE} if they have none
+     */
+    public PlayerProfile getProfile(Player player) {
+        return getState(player).profile();
+    }
+
+    /**
+     * Checks whether a player's profile allows an action with a Netherite material
+     * @param player The player
+     * @param action The action
+     * @param material The material
+     * @return true if the player may perform the action with the material
+     */
+    public boolean isAllowed(Player player, PlayerAction action, Material material) {
+        return getState(player).profile().isAllowed(action, material);
+    }
+
+    /**
+     * Recomputes a player's exemption from their current permissions and gamemode
+     * @param player The player
+     * @return true if the player lost an exemption or a profile allowance they had before
+     */
+    public boolean refresh(Player player) {
+        return refresh(player, player.getGameMode());
+    }
+
+    /**
+     * Recomputes a player's exemption for a gamemode they are about to switch to
+     * @param player The player
+     * @param gameMode The player's new gamemode
+     * @return true if the player lost an exemption or a profile allowance they had before
+     */
+    public boolean refresh(Player player, GameMode gameMode) {
+        State state = compute(player, gameMode);
+        State previous = states.put(player.getUniqueId(), state);
+        if (previous == null) {
+            return false;
+        }
+
+        // Any flag that was set and no longer is, or any allowance the new profile doesn't keep
+        return (previous.flags() & ~state.flags()) != 0 || !state.profile().covers(previous.profile());
+    }
+
+    /**
+     * Recomputes a player's exemption if the cached one is older than {@link #MAX_AGE_SECONDS}
+     * Catches permission changes that no event reported.
+     * @param player The player
+     * @return true if the player lost an exemption or a profile allowance they had before
+     */
+    public boolean refreshIfStale(Player player) {
+        State state = states.get(player.getUniqueId());
+        if (state != null && System.nanoTime() - state.computedAt() < MAX_AGE_NANOS) {
+            return false;
+        }
+        return refresh(player);
+    }
+
+    /**
+     * Drops the cached state of a player who left
+     * @param player The player
+     */
+    public void forget(Player player) {
+        states.remove(player.getUniqueId());
+    }
+
+    /**
+     * Drops all cached state; players are recomputed on their next check
+     */
+    public void clear() {
+        states.clear();
+    }
+
+    private State getState(Player player) {
+        // Players online before the plugin was enabled are computed on first use
+        State state = states.get(player.getUniqueId());
+        if (state == null) {
+            state = compute(player, player.getGameMode());
+            states.put(player.getUniqueId(), state);
+        }
+        return state;
+    }
+
+    private State compute(Player player, GameMode gameMode) {
+        int playerFlags = 0;
+        if (player.hasPermission("antinetherite.bypass")) {
+            playerFlags |= BYPASS;
+        }
+        if (gameMode == GameMode.CREATIVE || gameMode == GameMode.SPECTATOR) {
+            playerFlags |= IGNORED_GAMEMODE;
+        }
+
+        List<PlayerProfile> profiles = new ArrayList<>();
+        for (PlayerProfile profile : config.getPlayerProfiles()) {
+            if (player.hasPermission(profile.getPermission())) {
+                profiles.add(profile);
+            }
+        }
+        return new State(playerFlags, PlayerProfile.merge(profiles), System.nanoTime());
+    }
+}
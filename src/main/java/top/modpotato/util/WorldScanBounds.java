@@ -0,0 +1,152 @@
+package top.modpotato.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.World.Environment;
+
+import top.modpotato.config.Config;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lookup table of chunk scan bounds per world.
+ * Bounds are computed from the world's height limits and the configured Y window when the world loads,
+ * so the chunk-load path only does a single map lookup and no config reads.
+ */
+public class WorldScanBounds {
+    private final Config config;
+    private final Map<UUID, Bounds> boundsByWorld = new ConcurrentHashMap<>();
+
+    /**
+     * Immutable scan range for one world
+     */
+    public static final class Bounds {
+        private final int minY;
+        private final int maxY;
+        private final int policyVersion;
+
+        Bounds(int minY, int maxY, int policyVersion) {
+            this.minY = minY;
+            this.maxY = maxY;
+            this.policyVersion = policyVersion;
+        }
+
+        /**
+         * Gets the lowest Y level to scan
+         * @return The minimum Y (inclusive)
+         */
+        public int getMinY() {
+            return minY;
+        }
+
+        /**
+         * Gets the Y level the scan stops at
+         * @return The maximum Y (exclusive)
+         */
+        public int getMaxY() {
+            return maxY;
+        }
+
+        /**
+         * Gets the number of blocks in one column of the scan range
+         * @return The column height
+         */
+        public int getHeight() {
+            return maxY - minY;
+        }
+
+        /**
+         * Gets the scan policy version chunks in this world are marked with
+         * @return The scan policy version
+         */
+        public int getPolicyVersion() {
+            return policyVersion;
+        }
+    }
+
+    /**
+     * Creates a new WorldScanBounds table
+     * @param config The plugin configuration
+     */
+    public WorldScanBounds(Config config) {
+        this.config = config;
+    }
+
+    /**
+     * Rebuilds the table for every loaded world, used on startup and reload
+     */
+    public void rebuild() {
+        boundsByWorld.clear();
+        for (World world : Bukkit.getWorlds()) {
+            load(world);
+        }
+    }
+
+    /**
+     * Computes and stores the bounds for a world
+     * @param world The world that loaded
+     */
+    public void load(World world) {
+        Bounds bounds = compute(world);
+        if (bounds == null) {
+            boundsByWorld.remove(world.getUID());
+        } else {
+            boundsByWorld.put(world.getUID(), bounds);
+        }
+    }
+
+    /**
+     * Removes a world from the table
+     * @param world The world that unloaded
+     */
+    public void unload(World world) {
+        boundsByWorld.remove(world.getUID());
+    }
+
+    /**
+     * Gets the scan bounds for a world
+     * @param world The world
+     * @return The bounds, or null if chunks in this world are not scanned
+     */
+    public Bounds get(World world) {
+        return boundsByWorld.get(world.getUID());
+    }
+
+    /**
+     * Computes the bounds for a world from the configuration
+     * @param world The world
+     * @return The bounds, or null if the world is not enabled or the window is empty
+     */
+    private Bounds compute(World world) {
+        // With no explicit world list, scan every Nether world like before
+        List<String> enabledWorlds = config.getScanWorlds();
+        if (enabledWorlds.isEmpty()) {
+            if (world.getEnvironment() != Environment.NETHER) {
+                return null;
+            }
+        } else if (!enabledWorlds.contains(world.getName())) {
+            return null;
+        }
+
+        int[] window = config.getScanWorldWindows().get(world.getName());
+        int minY = window != null ? window[0] : config.getScanMinY();
+        int maxY = (window != null ? window[1] : config.getScanMaxY()) + 1;
+
+        // Clamp the configured window to the world's actual height limits
+        minY = Math.max(minY, world.getMinHeight());
+        maxY = Math.min(maxY, world.getMaxHeight());
+        if (minY >= maxY) {
+            return null;
+        }
+
+        int version = config.getScanPolicyVersion();
+        version = 31 * version + minY;
+        version = 31 * version + maxY;
+        version = 31 * version + Material.ANCIENT_DEBRIS.name().hashCode();
+        return new Bounds(minY, maxY, version);
+    }
+}